@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the selection geometry and the mouse event handling of
+ * SwingSelection. Runs headless, the selection is attached to a Container
+ * that is never shown.
+ * @author SwingSelection contributors
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class SelectionBenchmark {
+    
+    private static final int C_WIDTH = 800;
+    private static final int C_HEIGHT = 600;
+    
+    // Number of positions cycled through, must be a power of two
+    private static final int NUM_POINTS = 256;
+    private static final int POINT_MASK = NUM_POINTS - 1;
+    
+    // Number of drag events in each synthetic drag sequence
+    private static final int DRAG_LENGTH = 100;
+    
+    @Param( { "false", "true" } )
+    public boolean stayInside;
+    
+    private SwingSelection sel;
+    private MouseListener ml;
+    private MouseMotionListener mml;
+    
+    private Point[] points;
+    private Point from, to, opposite;
+    private int next;
+    
+    private MouseEvent press, release;
+    private MouseEvent[] moves, drags;
+    
+    // Bounds away from the press of the drag sequence
+    private Rectangle idle;
+    
+    @Setup
+    public void setUp() {
+        
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        
+        sel = new SwingSelection( c );
+        sel.stayInsideContainer( stayInside );
+        sel.setBounds( new Rectangle( 200, 150, 400, 300 ) );
+        
+        ml = c.getMouseListeners()[ 0 ];
+        mml = c.getMouseMotionListeners()[ 0 ];
+        
+        // Positions spread over and around the selection, including handles
+        points = new Point[ NUM_POINTS ];
+        for( int i = 0 ; i < NUM_POINTS ; i++ ) {
+            points[ i ] = new Point( 190 + ( i * 37 ) % 420, 140 + ( i * 53 ) % 320 );
+        }
+        moves = new MouseEvent[ NUM_POINTS ];
+        for( int i = 0 ; i < NUM_POINTS ; i++ ) {
+            moves[ i ] = new MouseEvent( c, MouseEvent.MOUSE_MOVED, 0L, 0, points[ i ].x, points[ i ].y, 0, false );
+        }
+        from = new Point( 300, 300 );
+        to = new Point( 310, 305 );
+        opposite = new Point();
+        next = 0;
+        
+        // A drag of a new selection from the upper left towards the lower right
+        press = new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, 0, 50, 50, 1, false, MouseEvent.BUTTON1 );
+        drags = new MouseEvent[ DRAG_LENGTH ];
+        for( int i = 0 ; i < DRAG_LENGTH ; i++ ) {
+            drags[ i ] = new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, 0, 50 + 8 * i, 50 + 6 * i, 0, false, MouseEvent.BUTTON1 );
+        }
+        release = new MouseEvent( c, MouseEvent.MOUSE_RELEASED, 0L, 0, 50 + 8 * DRAG_LENGTH, 50 + 6 * DRAG_LENGTH, 1, false, MouseEvent.BUTTON1 );
+        idle = new Rectangle( 600, 450, 100, 100 );
+    }
+    
+    /**
+     * Moves the selection away from the press of the drag sequence before
+     * each invocation. Otherwise the press lands in the upper left handle of
+     * the selection left by the previous invocation, and the sequence
+     * resizes it instead of drawing a new selection.
+     */
+    @State( Scope.Thread )
+    public static class NewSelection {
+        
+        @Setup( Level.Invocation )
+        public void reset( SelectionBenchmark b ) {
+            b.sel.setBounds( b.idle );
+        }
+    }
+    
+    private Point nextPoint() {
+        return points[ next++ & POINT_MASK ];
+    }
+    
+    @Benchmark
+    public int inHandle() {
+        Point p = nextPoint();
+        return sel.inHandle( p.x, p.y );
+    }
+    
+    @Benchmark
+    public Point getOppositePoint() {
+        // Cycle through all eight handles
+        sel.getOppositePoint( 1 + ( next++ & 7 ), opposite );
+        return opposite;
+    }
+    
+    @Benchmark
+    public void setBoundsPoints() {
+        sel.setBounds( from, nextPoint() );
+    }
+    
+    @Benchmark
+    public void move() {
+        // Move back and forth so the selection stays in place
+        sel.move( from, to );
+        sel.move( to, from );
+    }
+    
+    @Benchmark
+    public void mouseMoved() {
+        mml.mouseMoved( moves[ next++ & POINT_MASK ] );
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation( DRAG_LENGTH )
+    public void mouseDraggedSequence( NewSelection reset ) {
+        ml.mousePressed( press );
+        for( int i = 0 ; i < DRAG_LENGTH ; i++ ) {
+            mml.mouseDragged( drags[ i ] );
+        }
+        ml.mouseReleased( release );
+    }
+    
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JLayer;
+import javax.swing.JPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of raising and finding selections in a SelectionManager,
+ * with the selections as components of the Container and painted by a
+ * SelectionLayerUI. Raising a component takes time proportional to the
+ * number of selections, raising in a SelectionLayerUI doesn't.
+ * @author SwingSelection contributors
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SelectionManagerBenchmark {
+    
+    @Param( { "100", "10000" } )
+    public int count;
+    
+    @Param( { "false", "true" } )
+    public boolean layer;
+    
+    private SelectionManager manager;
+    private SwingSelection[] selections;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        
+        if( layer ) {
+            JPanel canvas = new JPanel( null );
+            SelectionLayerUI<JPanel> ui = new SelectionLayerUI<>();
+            JLayer<JPanel> l = new JLayer<>( canvas, ui );
+            l.setSize( 4000, 3000 );
+            l.doLayout();
+            manager = new SelectionManager( canvas, ui );
+        } else {
+            Container c = new Container();
+            c.setSize( 4000, 3000 );
+            manager = new SelectionManager( c );
+        }
+        
+        selections = new SwingSelection[ count ];
+        for( int i = 0 ; i < count ; i++ ) {
+            selections[ i ] = manager.addSelection( new Rectangle( ( i * 37 ) % 4000, ( i * 53 ) % 3000, 20, 20 ) );
+        }
+        next = 0;
+    }
+    
+    @Benchmark
+    public void toFront() {
+        // Cycle through the selections so each call raises a new one
+        manager.toFront( selections[ next ] );
+        next = ( next + 1 ) % count;
+    }
+    
+    @Benchmark
+    public SwingSelection selectionAt() {
+        return manager.selectionAt( 2010, 1510 );
+    }
+    
+}
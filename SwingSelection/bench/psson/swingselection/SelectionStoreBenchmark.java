@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the bulk operations of SelectionStore. Compare runs with
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism set to different
+ * values to see how the operations scale with the number of cores.
+ * @author SwingSelection contributors
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SelectionStoreBenchmark {
+    
+    @Param( { "10000", "500000" } )
+    public int size;
+    
+    private SelectionStore store;
+    
+    @Setup
+    public void setUp() {
+        store = new SelectionStore( size );
+        for( int i = 0 ; i < size ; i++ ) {
+            store.add( ( i * 37 ) % 4000, ( i * 53 ) % 3000, 10 + i % 200, 10 + i % 150 );
+        }
+    }
+    
+    @Benchmark
+    public void translate() {
+        // Back and forth so the store stays in place
+        store.translate( 5, -3 );
+        store.translate( -5, 3 );
+    }
+    
+    @Benchmark
+    public void clampTo() {
+        store.clampTo( 4200, 3200 );
+    }
+    
+    @Benchmark
+    public int countIntersecting() {
+        return store.countIntersecting( 1000, 1000, 800, 600 );
+    }
+    
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import javax.swing.Timer;
+
+/**
+ * Runs per-frame work for all selections from a single Swing Timer. Tasks are
+ * scheduled until they report that they are done, and the timer only runs
+ * while there are scheduled tasks. Only used on the event dispatch thread.
+ * @author SwingSelection contributors
+ */
+final class FrameScheduler implements ActionListener {
+    
+    /**
+     * Work done once per frame
+     */
+    static abstract class Task {
+        
+        // Set while the task is scheduled
+        private boolean scheduled;
+        
+        // Set while the task is in the list of the scheduler, a cancelled
+        // task stays there until the next frame
+        private boolean queued;
+        
+        /**
+         * Called once per frame while scheduled
+         * @param now System.nanoTime of the frame, the same for all tasks
+         * @return true to be called again next frame, false when done
+         */
+        abstract boolean frame( long now );
+        
+        boolean isScheduled() {
+            return scheduled;
+        }
+    }
+    
+    private static FrameScheduler shared;
+    
+    private final Timer timer;
+    
+    // Scheduled tasks, and the list the tasks are moved to while running a
+    // frame. Tasks scheduled during a frame first run on the next frame.
+    private ArrayList<Task> tasks;
+    private ArrayList<Task> running;
+    
+    FrameScheduler( int interval ) {
+        timer = new Timer( interval, this );
+        timer.setCoalesce( true );
+        tasks = new ArrayList<>();
+        running = new ArrayList<>();
+    }
+    
+    /**
+     * Returns the scheduler shared by all selections
+     * @return the shared scheduler, ticking every FRAME_INTERVAL
+     */
+    static synchronized FrameScheduler getShared() {
+        if( shared == null ) {
+            shared = new FrameScheduler( SwingSelection.FRAME_INTERVAL );
+        }
+        return shared;
+    }
+    
+    /**
+     * Schedules a task from the next frame, unless it is already scheduled
+     * @param task the task
+     */
+    void schedule( Task task ) {
+        
+        task.scheduled = true;
+        
+        if( !task.queued ) {
+            task.queued = true;
+            tasks.add( task );
+        }
+        
+        if( !timer.isRunning() ) {
+            timer.start();
+        }
+    }
+    
+    /**
+     * Stops calling a task. Its frame method is not called again, even if
+     * it is cancelled during a frame.
+     * @param task the task
+     */
+    void cancel( Task task ) {
+        // Cancelled tasks are removed on the next frame
+        task.scheduled = false;
+    }
+    
+    /**
+     * Runs a frame of all scheduled tasks
+     * @param e the timer event
+     */
+    @Override
+    public void actionPerformed( ActionEvent e ) {
+        runFrame( System.nanoTime() );
+    }
+    
+    /**
+     * Runs a frame of all scheduled tasks at a given time, the timer calls
+     * this with the current time
+     * @param now System.nanoTime of the frame
+     */
+    void runFrame( long now ) {
+        
+        // Swap lists so tasks can be scheduled while the frame runs
+        ArrayList<Task> frame = tasks;
+        tasks = running;
+        running = frame;
+        
+        for( int i = 0 ; i < frame.size() ; i++ ) {
+            Task t = frame.get( i );
+            t.queued = false;
+            if( !t.scheduled ) {
+                continue;
+            }
+            if( !t.frame( now ) ) {
+                t.scheduled = false;
+            } else if( t.scheduled && !t.queued ) {
+                t.queued = true;
+                tasks.add( t );
+            }
+        }
+        frame.clear();
+        
+        if( tasks.isEmpty() ) {
+            timer.stop();
+        }
+    }
+    
+}
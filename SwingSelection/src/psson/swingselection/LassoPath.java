@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+
+/**
+ * The points of a freehand lasso stroke, simplified as they are added. Points
+ * closer than the tolerance to the previous point are dropped, and a point
+ * within the tolerance of the line the current run started along replaces
+ * the end of the run instead of being added, so a long stroke only keeps its
+ * corners.
+ * @author SwingSelection contributors
+ */
+final class LassoPath {
+    
+    // Length of a run, in tolerances, before its direction is fixed
+    private static final int RUN_LENGTH = 4;
+    
+    private final int tolerance;
+    
+    private int[] xPoints;
+    private int[] yPoints;
+    private int count;
+    
+    // Direction of the run ending in the last point, from the point before it
+    private int dirX, dirY;
+    
+    // Bounding box of all points added since the last reset
+    private int minX, minY, maxX, maxY;
+    
+    /**
+     * Creates an empty lasso path
+     * @param tolerance the distance in pixels points may deviate from a straight run
+     */
+    LassoPath( int tolerance ) {
+        this.tolerance = Math.max( 1, tolerance );
+        xPoints = new int[ 64 ];
+        yPoints = new int[ 64 ];
+        reset();
+    }
+    
+    /**
+     * Removes all points
+     */
+    void reset() {
+        count = 0;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Adds a point to the end of the stroke
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     */
+    void add( int x, int y ) {
+        
+        minX = Math.min( minX, x );
+        minY = Math.min( minY, y );
+        maxX = Math.max( maxX, x );
+        maxY = Math.max( maxY, y );
+        
+        if( count > 0 ) {
+            long dx = x - xPoints[ count - 1 ];
+            long dy = y - yPoints[ count - 1 ];
+            if( dx * dx + dy * dy < (long)tolerance * tolerance ) {
+                // Too close to the previous point to matter
+                return;
+            }
+        }
+        
+        if( count > 1 ) {
+            long ax = x - xPoints[ count - 2 ];
+            long ay = y - yPoints[ count - 2 ];
+            long lengthSq = (long)dirX * dirX + (long)dirY * dirY;
+            if( lengthSq < RUN_LENGTH * RUN_LENGTH * (long)tolerance * tolerance ) {
+                // The run is too short to have a reliable direction yet, let
+                // it follow the stroke
+                xPoints[ count - 1 ] = x;
+                yPoints[ count - 1 ] = y;
+                dirX = (int)ax;
+                dirY = (int)ay;
+                return;
+            }
+            // Distance from the line of the run, scaled by the run length
+            long cross = dirX * ay - dirY * ax;
+            long dot = dirX * ax + dirY * ay;
+            if( dot > 0 && cross * cross <= (long)tolerance * tolerance * lengthSq ) {
+                // Still going the same way, extend the run
+                xPoints[ count - 1 ] = x;
+                yPoints[ count - 1 ] = y;
+                return;
+            }
+        }
+        
+        if( count == xPoints.length ) {
+            xPoints = Arrays.copyOf( xPoints, count * 2 );
+            yPoints = Arrays.copyOf( yPoints, count * 2 );
+        }
+        xPoints[ count ] = x;
+        yPoints[ count ] = y;
+        count++;
+        
+        if( count > 1 ) {
+            dirX = x - xPoints[ count - 2 ];
+            dirY = y - yPoints[ count - 2 ];
+        }
+    }
+    
+    int getPointCount() {
+        return count;
+    }
+    
+    /**
+     * Returns the x-coordinates of the points, only the first
+     * getPointCount() are valid
+     * @return the array of x-coordinates, not a copy
+     */
+    int[] getXPoints() {
+        return xPoints;
+    }
+    
+    /**
+     * Returns the y-coordinates of the points, only the first
+     * getPointCount() are valid
+     * @return the array of y-coordinates, not a copy
+     */
+    int[] getYPoints() {
+        return yPoints;
+    }
+    
+    int getMinX() {
+        return minX;
+    }
+    
+    int getMinY() {
+        return minY;
+    }
+    
+    int getMaxX() {
+        return maxX;
+    }
+    
+    int getMaxY() {
+        return maxY;
+    }
+    
+    /**
+     * Closes the stroke into an outline
+     * @return the outline, or null if the stroke has less than three points
+     */
+    SelectionOutline toOutline() {
+        return count < 3 ? null : new SelectionOutline( xPoints, yPoints, count );
+    }
+    
+}
@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds. Values are counted in
+ * buckets that double in width for every power of two, with 16 buckets per
+ * power of two, so reported values are within about 6 percent of the
+ * recorded ones. Recording a value doesn't allocate any objects.
+ * @author SwingSelection contributors
+ */
+final class LatencyHistogram {
+    
+    // Number of buckets per power of two is 1 << SUB_BUCKET_BITS
+    private static final int SUB_BUCKET_BITS = 4;
+    
+    // Largest value that can be recorded, larger values are counted as this
+    static final long MAX_VALUE = ( 1L << 44 ) - 1;
+    
+    static final int BUCKET_COUNT = bucketIndex( MAX_VALUE ) + 1;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong total;
+    private final AtomicLong max;
+    
+    LatencyHistogram() {
+        counts = new AtomicLongArray( BUCKET_COUNT );
+        total = new AtomicLong();
+        max = new AtomicLong();
+    }
+    
+    /**
+     * Returns the bucket a value is counted in
+     * @param value a value between 0 and MAX_VALUE
+     * @return index of the bucket
+     */
+    static int bucketIndex( long value ) {
+        
+        // Values below 32 get a bucket each, above that every power of two
+        // is split into 16 buckets
+        int magnitude = 63 - Long.numberOfLeadingZeros( value | 31 ) - SUB_BUCKET_BITS;
+        
+        return ( magnitude << SUB_BUCKET_BITS ) + (int)( value >>> magnitude );
+    }
+    
+    /**
+     * Returns the largest value counted in a bucket
+     * @param index index of the bucket
+     * @return the largest value of the bucket
+     */
+    static long highestValue( int index ) {
+        
+        int magnitude = Math.max( 0, ( index >> SUB_BUCKET_BITS ) - 1 );
+        long lowest = (long)( index - ( magnitude << SUB_BUCKET_BITS ) ) << magnitude;
+        
+        return lowest + ( 1L << magnitude ) - 1;
+    }
+    
+    /**
+     * Returns a percentile from bucket counts
+     * @param buckets the count of every bucket
+     * @param count the sum of all counts
+     * @param fraction the percentile as a fraction, for example 0.99 for p99
+     * @return the largest value of the bucket holding the percentile, 0 if count is 0
+     */
+    static long percentile( long[] buckets, long count, double fraction ) {
+        
+        if( count == 0 ) {
+            return 0;
+        }
+        
+        long target = Math.max( 1, (long)Math.ceil( fraction * count ) );
+        long seen = 0;
+        
+        for( int i = 0 ; i < buckets.length ; i++ ) {
+            seen += buckets[ i ];
+            if( seen >= target ) {
+                return highestValue( i );
+            }
+        }
+        
+        return highestValue( buckets.length - 1 );
+    }
+    
+    /**
+     * Records a value
+     * @param value the value in nanoseconds, negative values are recorded as 0
+     */
+    void record( long value ) {
+        
+        if( value < 0 ) {
+            value = 0;
+        } else if( value > MAX_VALUE ) {
+            value = MAX_VALUE;
+        }
+        
+        counts.incrementAndGet( bucketIndex( value ) );
+        total.addAndGet( value );
+        
+        long m = max.get();
+        while( value > m && !max.compareAndSet( m, value ) ) {
+            m = max.get();
+        }
+    }
+    
+    /**
+     * Copies the count of every bucket to buckets
+     * @param buckets an array of at least BUCKET_COUNT elements
+     * @return the sum of all copied counts
+     */
+    long copyBuckets( long[] buckets ) {
+        
+        long count = 0;
+        for( int i = 0 ; i < BUCKET_COUNT ; i++ ) {
+            buckets[ i ] = counts.get( i );
+            count += buckets[ i ];
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Returns the number of recorded values, summed from the buckets in
+     * place without copying them
+     * @return the number of recorded values
+     */
+    long getCount() {
+        
+        long count = 0;
+        for( int i = 0 ; i < BUCKET_COUNT ; i++ ) {
+            count += counts.get( i );
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Returns a percentile of the recorded values, found by walking the
+     * buckets in place without copying them. Values recorded at the same
+     * time may be partly counted.
+     * @param fraction the percentile as a fraction, for example 0.99 for p99
+     * @return the largest value of the bucket holding the percentile, 0 if nothing is recorded
+     */
+    long percentile( double fraction ) {
+        
+        long count = getCount();
+        if( count == 0 ) {
+            return 0;
+        }
+        
+        long target = Math.max( 1, (long)Math.ceil( fraction * count ) );
+        long seen = 0;
+        
+        for( int i = 0 ; i < BUCKET_COUNT ; i++ ) {
+            seen += counts.get( i );
+            if( seen >= target ) {
+                return highestValue( i );
+            }
+        }
+        
+        // Reset while walking the buckets
+        return 0;
+    }
+    
+    long getTotal() {
+        return total.get();
+    }
+    
+    long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Clears all recorded values. Values recorded at the same time may be
+     * partly kept.
+     */
+    void reset() {
+        for( int i = 0 ; i < BUCKET_COUNT ; i++ ) {
+            counts.set( i, 0 );
+        }
+        total.set( 0 );
+        max.set( 0 );
+    }
+    
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+
+/**
+ * Latency percentiles of a series of measured events
+ * @author SwingSelection contributors
+ */
+public class LatencyReport {
+    
+    // Sorted latencies in nanoseconds
+    private final long[] latencies;
+    
+    /**
+     * Creates a new report
+     * @param latencies measured latencies in nanoseconds, sorted by the report
+     */
+    public LatencyReport( long[] latencies ) {
+        this.latencies = latencies.clone();
+        Arrays.sort( this.latencies );
+    }
+    
+    /**
+     * Returns the number of measured events
+     * @return the number of events
+     */
+    public int getCount() {
+        return latencies.length;
+    }
+    
+    /**
+     * Returns a latency percentile, the smallest latency that at least the
+     * given fraction of all events were at or below
+     * @param fraction the percentile as a fraction, for example 0.99 for p99
+     * @return the latency in nanoseconds, 0 if no events were measured
+     */
+    public long getPercentile( double fraction ) {
+        
+        if( latencies.length == 0 ) {
+            return 0;
+        }
+        
+        int index = (int)Math.ceil( fraction * latencies.length ) - 1;
+        
+        return latencies[ Math.max( 0, Math.min( latencies.length - 1, index ) ) ];
+    }
+    
+    public long getP50() {
+        return getPercentile( 0.5 );
+    }
+    
+    public long getP99() {
+        return getPercentile( 0.99 );
+    }
+    
+    public long getP999() {
+        return getPercentile( 0.999 );
+    }
+    
+    /**
+     * Returns the largest latency
+     * @return the latency in nanoseconds, 0 if no events were measured
+     */
+    public long getMax() {
+        return latencies.length == 0 ? 0 : latencies[ latencies.length - 1 ];
+    }
+    
+    /**
+     * Returns the mean latency
+     * @return the mean in nanoseconds, 0 if no events were measured
+     */
+    public double getMean() {
+        
+        if( latencies.length == 0 ) {
+            return 0.0;
+        }
+        
+        double sum = 0.0;
+        for( long l : latencies ) {
+            sum += l;
+        }
+        
+        return sum / latencies.length;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format( "events=%d mean=%.0fns p50=%dns p99=%dns p999=%dns max=%dns",
+                getCount(), getMean(), getP50(), getP99(), getP999(), getMax() );
+    }
+    
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Shape;
+import java.awt.Stroke;
+import javax.swing.border.Border;
+
+/**
+ * A one pixel dashed border, black dashes on white, where the dashes move
+ * along the border as time passes.
+ * @author SwingSelection contributors
+ */
+class MarchingAntsBorder implements Border {
+    
+    // Length of each dash and gap in pixels
+    static final int DASH_LENGTH = 4;
+    
+    // Time for the dashes to move one pixel
+    static final long STEP_NANOS = 60000000L;
+    
+    // One stroke per phase, created when first painted
+    private final Stroke[] strokes;
+    
+    private int phase;
+    
+    MarchingAntsBorder() {
+        strokes = new Stroke[ 2 * DASH_LENGTH ];
+        phase = 0;
+    }
+    
+    /**
+     * Moves the dashes to where they are at a given time
+     * @param now a System.nanoTime value
+     * @return true if the dashes moved
+     */
+    boolean setTime( long now ) {
+        
+        int p = (int)( ( now / STEP_NANOS ) % strokes.length );
+        
+        if( p == phase ) {
+            return false;
+        }
+        
+        phase = p;
+        return true;
+    }
+    
+    int getPhase() {
+        return phase;
+    }
+    
+    @Override
+    public void paintBorder( Component c, Graphics g, int x, int y, int width, int height ) {
+        
+        if( width <= 0 || height <= 0 ) {
+            return;
+        }
+        
+        // Copies of pre-rendered dashes, in the same pattern as drawing the
+        // rectangle with the stroke. The dashes run clockwise, the offsets
+        // are the distance along the border to the start of each edge,
+        // reversed for the lower and left edges that are copied backwards.
+        SelectionSprites sprites = SelectionSprites.getShared();
+        int right = x + width - 1;
+        int bottom = y + height - 1;
+        int lower = 2 * ( width - 1 ) + height - 1;
+        int left = 2 * ( width - 1 ) + 2 * ( height - 1 );
+        
+        sprites.paintDashes( g, x, y, width, true, -phase );
+        sprites.paintDashes( g, right, y, height, false, width - 1 - phase );
+        sprites.paintDashes( g, x, bottom, width, true, DASH_LENGTH - 1 - lower + phase );
+        sprites.paintDashes( g, x, y, height, false, DASH_LENGTH - 1 - left + phase );
+    }
+    
+    /**
+     * Paints marching ants along the outline of a shape
+     * @param g the Graphics to paint with
+     * @param s the shape
+     */
+    void paintShape( Graphics g, Shape s ) {
+        
+        Graphics2D g2 = (Graphics2D)g.create();
+        try {
+            g2.setColor( Color.white );
+            g2.draw( s );
+            g2.setStroke( getStroke() );
+            g2.setColor( Color.black );
+            g2.draw( s );
+        } finally {
+            g2.dispose();
+        }
+    }
+    
+    /**
+     * Returns the dashed stroke for the current phase
+     */
+    private Stroke getStroke() {
+        
+        Stroke s = strokes[ phase ];
+        if( s == null ) {
+            // Dashes run clockwise from the upper left corner, a negative
+            // phase moves them forward
+            s = new BasicStroke( 1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10,
+                    new float[] { DASH_LENGTH, DASH_LENGTH }, strokes.length - phase );
+            strokes[ phase ] = s;
+        }
+        return s;
+    }
+    
+    @Override
+    public Insets getBorderInsets( Component c ) {
+        return new Insets( 1, 1, 1, 1 );
+    }
+    
+    @Override
+    public boolean isBorderOpaque() {
+        return false;
+    }
+    
+}
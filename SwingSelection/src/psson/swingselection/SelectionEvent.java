@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+import java.util.EventObject;
+
+/**
+ * An event describing the bounds of a SwingSelection at the time the event
+ * was created. The event is immutable and safe to use from any thread.
+ * @author SwingSelection contributors
+ */
+public class SelectionEvent extends EventObject {
+    
+    /** The user started to drag, move or resize the selection */
+    public static final int SELECTION_STARTED = 1;
+    /** The selection is changing */
+    public static final int SELECTION_CHANGING = 2;
+    /** A change of the selection is finished */
+    public static final int SELECTION_COMMITTED = 3;
+    
+    private final int type;
+    private final int x, y, width, height;
+    
+    /**
+     * Creates a new SelectionEvent
+     * @param source the selection the event originates from
+     * @param type SELECTION_STARTED, SELECTION_CHANGING or SELECTION_COMMITTED
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     */
+    public SelectionEvent( SwingSelection source, int type, int x, int y, int width, int height ) {
+        super( source );
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Returns the selection the event originates from
+     * @return the SwingSelection
+     */
+    public SwingSelection getSelection() {
+        return (SwingSelection)getSource();
+    }
+    
+    /**
+     * Returns the type of the event
+     * @return SELECTION_STARTED, SELECTION_CHANGING or SELECTION_COMMITTED
+     */
+    public int getType() {
+        return type;
+    }
+    
+    /**
+     * Returns the x-coordinate of the selection
+     * @return the x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+    
+    /**
+     * Returns the y-coordinate of the selection
+     * @return the y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+    
+    /**
+     * Returns the width of the selection
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Returns the height of the selection
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Returns the bounds of the selection
+     * @return a new Rectangle with the size and position of the selection
+     */
+    public Rectangle getBounds() {
+        return new Rectangle( x, y, width, height );
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[type=" + type + ",x=" + x + ",y=" + y + ",width=" + width + ",height=" + height + "]";
+    }
+    
+}
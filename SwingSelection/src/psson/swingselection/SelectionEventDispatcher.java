@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Delivers SelectionEvents to the SelectionListeners of a SwingSelection.
+ * The fire methods are called on the event dispatch thread, changing events
+ * are coalesced and delivered at most once per frame. The listeners are
+ * called through an executor.
+ * @author SwingSelection contributors
+ */
+class SelectionEventDispatcher {
+    
+//<editor-fold defaultstate="collapsed" desc="Members and constructors">
+    
+    // Shared by all selections without an executor of their own, a single
+    // thread keeps events in order
+    private static ExecutorService defaultExecutor;
+    
+    private final SwingSelection source;
+    private final CopyOnWriteArrayList<SelectionListener> listeners;
+    private Executor executor;
+    
+    // Called directly on the event dispatch thread when a change is
+    // committed, before the listeners, null if there is none
+    private SelectionListener owner;
+    
+    // Runs on the next frame after the first coalesced changing event
+    private final FrameScheduler.Task frameTask;
+    private boolean changePending;
+    
+    // Scratch rectangle for reading the bounds of the source
+    private final Rectangle bounds;
+    
+    /**
+     * Creates a new dispatcher
+     * @param source the selection the events originate from
+     */
+    public SelectionEventDispatcher( SwingSelection source ) {
+        
+        this.source = source;
+        listeners = new CopyOnWriteArrayList<>();
+        executor = null;
+        owner = null;
+        
+        frameTask = new FrameScheduler.Task() {
+            @Override
+            boolean frame( long now ) {
+                firePending();
+                return false;
+            }
+        };
+        changePending = false;
+        
+        bounds = new Rectangle();
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    public void addListener( SelectionListener l ) {
+        listeners.add( l );
+    }
+    
+    public void removeListener( SelectionListener l ) {
+        listeners.remove( l );
+    }
+    
+    /**
+     * Sets the executor used to call the listeners
+     * @param e the executor, or null to use a shared background thread
+     */
+    public void setExecutor( Executor e ) {
+        executor = e;
+    }
+    
+    /**
+     * Sets a listener that is notified of committed changes on the event
+     * dispatch thread, without going through the executor. Used by the
+     * owner of the selection to keep its own state up to date.
+     * @param l the listener, or null to remove it
+     */
+    public void setOwner( SelectionListener l ) {
+        owner = l;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Firing events">
+    /**
+     * Fires a started event with the current bounds of the selection
+     */
+    public void fireStarted() {
+        if( !listeners.isEmpty() ) {
+            deliver( SelectionEvent.SELECTION_STARTED );
+        }
+    }
+    
+    /**
+     * Notes that the selection has changed, a changing event is fired on the
+     * next frame
+     */
+    public void fireChanging() {
+        if( !listeners.isEmpty() ) {
+            changePending = true;
+            FrameScheduler.getShared().schedule( frameTask );
+        }
+    }
+    
+    /**
+     * Fires a committed event with the current bounds of the selection. Any
+     * changing event waiting for the next frame is dropped.
+     */
+    public void fireCommitted() {
+        
+        changePending = false;
+        FrameScheduler.getShared().cancel( frameTask );
+        
+        if( owner != null ) {
+            source.getBounds( bounds );
+            owner.selectionCommitted( new SelectionEvent( source, SelectionEvent.SELECTION_COMMITTED,
+                    bounds.x, bounds.y, bounds.width, bounds.height ) );
+        }
+        
+        if( !listeners.isEmpty() ) {
+            deliver( SelectionEvent.SELECTION_COMMITTED );
+        }
+    }
+    
+    /**
+     * Called on the next frame, fires the pending changing event
+     */
+    private void firePending() {
+        if( changePending ) {
+            changePending = false;
+            deliver( SelectionEvent.SELECTION_CHANGING );
+        }
+    }
+    
+    /**
+     * Creates an event from the current bounds and hands it to the executor
+     */
+    private void deliver( int type ) {
+        
+        source.getBounds( bounds );
+        final SelectionEvent event = new SelectionEvent( source, type, bounds.x, bounds.y, bounds.width, bounds.height );
+        
+        getExecutor().execute( new Runnable() {
+            @Override
+            public void run() {
+                for( SelectionListener l : listeners ) {
+                    switch( event.getType() ) {
+                        case SelectionEvent.SELECTION_STARTED:
+                            l.selectionStarted( event );
+                            break;
+                        case SelectionEvent.SELECTION_CHANGING:
+                            l.selectionChanging( event );
+                            break;
+                        default:
+                            l.selectionCommitted( event );
+                            break;
+                    }
+                }
+            }
+        });
+    }
+    
+    private Executor getExecutor() {
+        
+        if( executor != null ) {
+            return executor;
+        }
+        
+        synchronized( SelectionEventDispatcher.class ) {
+            if( defaultExecutor == null ) {
+                defaultExecutor = Executors.newSingleThreadExecutor( new ThreadFactory() {
+                    @Override
+                    public Thread newThread( Runnable r ) {
+                        Thread t = new Thread( r, "SwingSelection events" );
+                        t.setDaemon( true );
+                        return t;
+                    }
+                });
+            }
+            return defaultExecutor;
+        }
+    }
+//</editor-fold>
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Records the mouse events reaching the selections of a Container to a
+ * compact binary trace, which can be replayed with SelectionEventReplayer.
+ * <p>
+ * The trace starts with a header of the magic number TRACE_MAGIC, the format
+ * version and the size of the Container. Each event is then stored as a type
+ * byte followed by variable length integers: time since the previous event in
+ * milliseconds and the position relative to the previous event. The extended
+ * modifiers, the button and the click count follow only when they differ from
+ * the previous event, which is flagged in the type byte. Typical drag events
+ * take 4 bytes.
+ * @author SwingSelection contributors
+ */
+public class SelectionEventRecorder extends MouseAdapter {
+    
+//<editor-fold defaultstate="collapsed" desc="Members and constructors">
+    
+    /** Magic number at the start of every trace */
+    public static final int TRACE_MAGIC = 0x53535452;  // "SSTR"
+    /** Version of the trace format */
+    public static final int TRACE_VERSION = 1;
+    
+    // Event types in the trace
+    static final int TYPE_MOVED = 0;
+    static final int TYPE_PRESSED = 1;
+    static final int TYPE_DRAGGED = 2;
+    static final int TYPE_RELEASED = 3;
+    static final int TYPE_MASK = 0x0f;
+    
+    // Set in the type byte when modifiers, button and click count follow
+    static final int FLAG_STATE = 0x80;
+    
+    private final Container c;
+    private final DataOutputStream out;
+    
+    // Previous event, the next one is stored relative to it
+    private long lastWhen;
+    private int lastX, lastY;
+    private int lastModifiers, lastButton, lastClickCount;
+    private int count;
+    
+    /**
+     * Creates a new recorder and starts recording the mouse events of a Container
+     * @param c the Container to record
+     * @param out the stream to write the trace to
+     * @throws IOException if the header can't be written
+     */
+    public SelectionEventRecorder( Container c, OutputStream out ) throws IOException {
+        
+        this.c = c;
+        // Buffered, the varints of an event are written a byte at a time
+        this.out = new DataOutputStream( new BufferedOutputStream( out ) );
+        
+        lastWhen = -1;
+        lastX = 0;
+        lastY = 0;
+        lastModifiers = 0;
+        lastButton = 0;
+        lastClickCount = 0;
+        count = 0;
+        
+        this.out.writeInt( TRACE_MAGIC );
+        this.out.writeShort( TRACE_VERSION );
+        this.out.writeInt( c.getWidth() );
+        this.out.writeInt( c.getHeight() );
+        
+        c.addMouseListener( this );
+        c.addMouseMotionListener( this );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Returns the number of recorded events
+     * @return the number of events written to the trace
+     */
+    public int getEventCount() {
+        return count;
+    }
+    
+    /**
+     * Stops recording and flushes the buffered trace to the stream. The
+     * stream is not closed.
+     * @throws IOException if the trace can't be flushed
+     */
+    public void stop() throws IOException {
+        c.removeMouseListener( this );
+        c.removeMouseMotionListener( this );
+        out.flush();
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Recording">
+    @Override
+    public void mouseMoved( MouseEvent e ) {
+        record( TYPE_MOVED, e );
+    }
+    
+    @Override
+    public void mousePressed( MouseEvent e ) {
+        record( TYPE_PRESSED, e );
+    }
+    
+    @Override
+    public void mouseDragged( MouseEvent e ) {
+        record( TYPE_DRAGGED, e );
+    }
+    
+    @Override
+    public void mouseReleased( MouseEvent e ) {
+        record( TYPE_RELEASED, e );
+    }
+    
+    /**
+     * Writes one event to the trace
+     */
+    private void record( int type, MouseEvent e ) {
+        
+        long when = e.getWhen();
+        long delta = lastWhen < 0 ? 0 : Math.max( 0, when - lastWhen );
+        
+        int modifiers = e.getModifiersEx();
+        int button = e.getButton();
+        int clickCount = e.getClickCount();
+        boolean stateChanged = modifiers != lastModifiers || button != lastButton || clickCount != lastClickCount;
+        
+        try {
+            out.writeByte( stateChanged ? type | FLAG_STATE : type );
+            writeVarLong( delta );
+            writeVarLong( zigZag( e.getX() - lastX ) );
+            writeVarLong( zigZag( e.getY() - lastY ) );
+            if( stateChanged ) {
+                writeVarLong( modifiers & 0xffffffffL );
+                out.writeByte( button );
+                writeVarLong( clickCount );
+            }
+        } catch( IOException ex ) {
+            // Listener methods can't throw checked exceptions
+            throw new UncheckedIOException( ex );
+        }
+        
+        lastWhen = when;
+        lastX = e.getX();
+        lastY = e.getY();
+        lastModifiers = modifiers;
+        lastButton = button;
+        lastClickCount = clickCount;
+        count++;
+    }
+    
+    /**
+     * Maps signed values to unsigned so small negative values stay small
+     */
+    private static long zigZag( int v ) {
+        return ( ( v << 1 ) ^ ( v >> 31 ) ) & 0xffffffffL;
+    }
+    
+    /**
+     * Writes a non-negative value, seven bits per byte
+     */
+    private void writeVarLong( long v ) throws IOException {
+        while( ( v & ~0x7fL ) != 0 ) {
+            out.writeByte( (int)( ( v & 0x7f ) | 0x80 ) );
+            v >>>= 7;
+        }
+        out.writeByte( (int)v );
+    }
+//</editor-fold>
+}
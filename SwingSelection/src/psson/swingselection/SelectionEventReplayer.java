@@ -0,0 +1,331 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Replays traces written by SelectionEventRecorder into a SwingSelection in a
+ * Container that is never shown, and measures the time spent handling each
+ * event. Every run uses a new Container and selection and the same events, so
+ * replays are deterministic and can be compared between releases. The
+ * selection is disposed after each run, so nothing from earlier runs is left
+ * to affect the timing of later ones.
+ * @author SwingSelection contributors
+ */
+public class SelectionEventReplayer {
+    
+//<editor-fold defaultstate="collapsed" desc="Members and constructors">
+    
+    private final int width, height;
+    
+    // Decoded events
+    private int count;
+    private int[] types, xs, ys, modifiers, buttons, clickCounts;
+    private long[] whens;
+    
+    private boolean stayInside;
+    
+    // Bounds of the selection at the end of the last run
+    private Rectangle lastBounds;
+    
+    /**
+     * Creates a new replayer and reads a trace
+     * @param in the stream to read the trace from, read to the end but not closed
+     * @throws IOException if the trace can't be read or is not a valid trace
+     */
+    public SelectionEventReplayer( InputStream in ) throws IOException {
+        
+        DataInputStream data = new DataInputStream( new BufferedInputStream( in ) );
+        
+        if( data.readInt() != SelectionEventRecorder.TRACE_MAGIC ) {
+            throw new IOException( "Not a selection event trace" );
+        }
+        int version = data.readUnsignedShort();
+        if( version != SelectionEventRecorder.TRACE_VERSION ) {
+            throw new IOException( "Unsupported trace version " + version );
+        }
+        
+        width = data.readInt();
+        height = data.readInt();
+        stayInside = false;
+        lastBounds = new Rectangle();
+        
+        readEvents( data );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Returns the number of events in the trace
+     * @return the number of events
+     */
+    public int getEventCount() {
+        return count;
+    }
+    
+    /**
+     * Sets whether the replayed selection should stay inside its Container
+     * @param stayInside true to replay with stayInsideContainer( true )
+     */
+    public void stayInsideContainer( boolean stayInside ) {
+        this.stayInside = stayInside;
+    }
+    
+    /**
+     * Returns the bounds of the selection after the last replay, which are
+     * the same for every replay of the same trace
+     * @return a new Rectangle with the bounds at the end of the last replay
+     */
+    public Rectangle getLastBounds() {
+        return new Rectangle( lastBounds );
+    }
+    
+    /**
+     * Replays the trace once and measures the latency of every event
+     * @return the latencies of the replayed events
+     */
+    public LatencyReport replay() {
+        return replay( 0 );
+    }
+    
+    /**
+     * Replays the trace, first a number of times to warm up the JIT compiler
+     * and then once more while measuring the latency of every event
+     * @param warmupRuns number of unmeasured runs before the measured one
+     * @return the latencies of the events in the measured run
+     */
+    public LatencyReport replay( int warmupRuns ) {
+        
+        long[] latencies = new long[ count ];
+        
+        for( int run = 0 ; run <= warmupRuns ; run++ ) {
+            run( latencies );
+        }
+        
+        return new LatencyReport( latencies );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Replaying">
+    /**
+     * Feeds all events to a new selection and stores the time each one took
+     */
+    private void run( long[] latencies ) {
+        
+        Container c = new Container();
+        c.setSize( width, height );
+        
+        SwingSelection sel = new SwingSelection( c );
+        sel.stayInsideContainer( stayInside );
+        
+        try {
+            run( c, latencies );
+            lastBounds = sel.getBounds();
+        } finally {
+            // Removes the listeners and any tasks left on the shared scheduler
+            sel.dispose();
+        }
+    }
+    
+    /**
+     * Feeds all events to the listeners of a Container
+     */
+    private void run( Container c, long[] latencies ) {
+        
+        MouseListener[] mls = c.getMouseListeners();
+        MouseMotionListener[] mmls = c.getMouseMotionListeners();
+        
+        // Create all events before measuring
+        MouseEvent[] events = new MouseEvent[ count ];
+        for( int i = 0 ; i < count ; i++ ) {
+            events[ i ] = new MouseEvent( c, eventId( types[ i ] ), whens[ i ], modifiers[ i ],
+                    xs[ i ], ys[ i ], clickCounts[ i ], false, buttons[ i ] );
+        }
+        
+        for( int i = 0 ; i < count ; i++ ) {
+            
+            MouseEvent e = events[ i ];
+            long start = System.nanoTime();
+            
+            switch( types[ i ] ) {
+                case SelectionEventRecorder.TYPE_PRESSED:
+                    for( MouseListener l : mls ) {
+                        l.mousePressed( e );
+                    }
+                    break;
+                case SelectionEventRecorder.TYPE_RELEASED:
+                    for( MouseListener l : mls ) {
+                        l.mouseReleased( e );
+                    }
+                    break;
+                case SelectionEventRecorder.TYPE_DRAGGED:
+                    for( MouseMotionListener l : mmls ) {
+                        l.mouseDragged( e );
+                    }
+                    break;
+                default:
+                    for( MouseMotionListener l : mmls ) {
+                        l.mouseMoved( e );
+                    }
+                    break;
+            }
+            
+            latencies[ i ] = System.nanoTime() - start;
+        }
+    }
+    
+    private static int eventId( int type ) {
+        switch( type ) {
+            case SelectionEventRecorder.TYPE_PRESSED:
+                return MouseEvent.MOUSE_PRESSED;
+            case SelectionEventRecorder.TYPE_RELEASED:
+                return MouseEvent.MOUSE_RELEASED;
+            case SelectionEventRecorder.TYPE_DRAGGED:
+                return MouseEvent.MOUSE_DRAGGED;
+            default:
+                return MouseEvent.MOUSE_MOVED;
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Reading traces">
+    /**
+     * Reads events until the end of the trace
+     */
+    private void readEvents( DataInputStream data ) throws IOException {
+        
+        int capacity = 1024;
+        types = new int[ capacity ];
+        xs = new int[ capacity ];
+        ys = new int[ capacity ];
+        modifiers = new int[ capacity ];
+        buttons = new int[ capacity ];
+        clickCounts = new int[ capacity ];
+        whens = new long[ capacity ];
+        
+        long when = 0;
+        int x = 0;
+        int y = 0;
+        int modifier = 0;
+        int button = 0;
+        int clickCount = 0;
+        count = 0;
+        
+        while( true ) {
+            
+            int typeByte = data.read();
+            if( typeByte < 0 ) {
+                break;
+            }
+            
+            if( count == capacity ) {
+                capacity *= 2;
+                types = Arrays.copyOf( types, capacity );
+                xs = Arrays.copyOf( xs, capacity );
+                ys = Arrays.copyOf( ys, capacity );
+                modifiers = Arrays.copyOf( modifiers, capacity );
+                buttons = Arrays.copyOf( buttons, capacity );
+                clickCounts = Arrays.copyOf( clickCounts, capacity );
+                whens = Arrays.copyOf( whens, capacity );
+            }
+            
+            when += readVarLong( data );
+            x += unZigZag( readVarLong( data ) );
+            y += unZigZag( readVarLong( data ) );
+            
+            if( ( typeByte & SelectionEventRecorder.FLAG_STATE ) != 0 ) {
+                modifier = (int)readVarLong( data );
+                button = data.readUnsignedByte();
+                clickCount = (int)readVarLong( data );
+            }
+            
+            types[ count ] = typeByte & SelectionEventRecorder.TYPE_MASK;
+            whens[ count ] = when;
+            xs[ count ] = x;
+            ys[ count ] = y;
+            modifiers[ count ] = modifier;
+            buttons[ count ] = button;
+            clickCounts[ count ] = clickCount;
+            count++;
+        }
+    }
+    
+    private static int unZigZag( long v ) {
+        int i = (int)v;
+        return ( i >>> 1 ) ^ -( i & 1 );
+    }
+    
+    private static long readVarLong( DataInputStream data ) throws IOException {
+        
+        long v = 0;
+        
+        for( int shift = 0 ; shift < 64 ; shift += 7 ) {
+            int b = data.readUnsignedByte();
+            v |= (long)( b & 0x7f ) << shift;
+            if( ( b & 0x80 ) == 0 ) {
+                return v;
+            }
+        }
+        
+        throw new EOFException( "Malformed variable length integer" );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Command line">
+    /**
+     * Replays a trace file and prints the latency percentiles. Usage:
+     * SelectionEventReplayer trace [warmupRuns]
+     * @param args the trace file and optionally the number of warm-up runs
+     * @throws IOException if the trace can't be read
+     */
+    public static void main( String[] args ) throws IOException {
+        
+        if( args.length < 1 ) {
+            System.err.println( "Usage: SelectionEventReplayer trace [warmupRuns]" );
+            System.exit( 1 );
+        }
+        
+        int warmupRuns = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 10;
+        
+        try( InputStream in = new FileInputStream( args[ 0 ] ) ) {
+            SelectionEventReplayer replayer = new SelectionEventReplayer( in );
+            System.out.println( replayer.replay( warmupRuns ) );
+            replayer.stayInsideContainer( true );
+            System.out.println( "stayInsideContainer: " + replayer.replay( warmupRuns ) );
+        }
+    }
+//</editor-fold>
+}
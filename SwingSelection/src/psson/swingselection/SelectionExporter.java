@@ -0,0 +1,243 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes selections as CSV or JSON to a Writer. Selections are formatted
+ * directly into a fixed size buffer that is flushed to the Writer when full,
+ * so writing any number of selections uses constant memory and doesn't
+ * allocate any objects per selection.
+ * <p>
+ * CSV has a header line x,y,width,height and one line per selection. JSON is
+ * an array of objects with the members x, y, width and height.
+ * @author SwingSelection contributors
+ */
+public final class SelectionExporter implements Closeable, Flushable {
+    
+    public static final int CSV = 0;
+    public static final int JSON = 1;
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    // Room needed for one selection in either format
+    private static final int MAX_RECORD_LENGTH = 96;
+    
+    private final Writer out;
+    private final int format;
+    
+    private final char[] buffer;
+    private int pos;
+    
+    // Scratch for the digits of a number, in reverse order
+    private final char[] digits;
+    
+    private final Rectangle bounds;
+    private long count;
+    private boolean closed;
+    
+    /**
+     * Creates a new SelectionExporter and writes the start of the output
+     * @param out the Writer to write to, closed when the exporter is closed
+     * @param format CSV or JSON
+     * @throws IOException if the Writer fails
+     */
+    public SelectionExporter( Writer out, int format ) throws IOException {
+        
+        if( format != CSV && format != JSON ) {
+            throw new IllegalArgumentException( "Unknown format " + format );
+        }
+        
+        this.out = out;
+        this.format = format;
+        buffer = new char[ BUFFER_SIZE ];
+        pos = 0;
+        digits = new char[ 11 ];
+        bounds = new Rectangle();
+        count = 0;
+        closed = false;
+        
+        append( format == CSV ? "x,y,width,height\n" : "[" );
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Writing selections">
+    /**
+     * Writes a selection
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @throws IOException if the Writer fails
+     */
+    public void write( int x, int y, int width, int height ) throws IOException {
+        
+        if( BUFFER_SIZE - pos < MAX_RECORD_LENGTH ) {
+            flushBuffer();
+        }
+        
+        if( format == CSV ) {
+            appendInt( x );
+            buffer[ pos++ ] = ',';
+            appendInt( y );
+            buffer[ pos++ ] = ',';
+            appendInt( width );
+            buffer[ pos++ ] = ',';
+            appendInt( height );
+            buffer[ pos++ ] = '\n';
+        } else {
+            append( count == 0 ? "\n{\"x\":" : ",\n{\"x\":" );
+            appendInt( x );
+            append( ",\"y\":" );
+            appendInt( y );
+            append( ",\"width\":" );
+            appendInt( width );
+            append( ",\"height\":" );
+            appendInt( height );
+            buffer[ pos++ ] = '}';
+        }
+        
+        count++;
+    }
+    
+    /**
+     * Writes the current bounds of a SwingSelection
+     * @param sel the selection
+     * @throws IOException if the Writer fails
+     */
+    public void write( SwingSelection sel ) throws IOException {
+        sel.getBounds( bounds );
+        write( bounds.x, bounds.y, bounds.width, bounds.height );
+    }
+    
+    /**
+     * Writes all selections in a store
+     * @param store the selections
+     * @throws IOException if the Writer fails
+     */
+    public void write( SelectionStore store ) throws IOException {
+        for( int i = 0 ; i < store.size() ; i++ ) {
+            write( store.getX( i ), store.getY( i ), store.getWidth( i ), store.getHeight( i ) );
+        }
+    }
+    
+    /**
+     * Writes all selections in a selection file
+     * @param file the selections
+     * @throws IOException if the file can't be read or the Writer fails
+     */
+    public void write( SelectionFile file ) throws IOException {
+        for( int i = 0 ; i < file.size() ; i++ ) {
+            write( file.getX( i ), file.getY( i ), file.getWidth( i ), file.getHeight( i ) );
+        }
+    }
+    
+    /**
+     * Returns the number of selections written
+     * @return the number of selections
+     */
+    public long getCount() {
+        return count;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Buffer">
+    /**
+     * Appends a constant to the buffer, which must have room for it
+     */
+    private void append( String s ) {
+        int n = s.length();
+        s.getChars( 0, n, buffer, pos );
+        pos += n;
+    }
+    
+    /**
+     * Formats an int into the buffer, which must have room for it
+     */
+    private void appendInt( int v ) {
+        
+        // Negative values are formatted from the negative side, where
+        // Integer.MIN_VALUE fits
+        boolean negative = v < 0;
+        if( !negative ) {
+            v = -v;
+        }
+        
+        int n = 0;
+        do {
+            digits[ n++ ] = (char)( '0' - v % 10 );
+            v /= 10;
+        } while( v != 0 );
+        
+        if( negative ) {
+            buffer[ pos++ ] = '-';
+        }
+        while( n > 0 ) {
+            buffer[ pos++ ] = digits[ --n ];
+        }
+    }
+    
+    private void flushBuffer() throws IOException {
+        out.write( buffer, 0, pos );
+        pos = 0;
+    }
+    
+    /**
+     * Writes buffered selections to the Writer and flushes it
+     * @throws IOException if the Writer fails
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+    
+    /**
+     * Writes the end of the output and closes the Writer
+     * @throws IOException if the Writer fails
+     */
+    @Override
+    public void close() throws IOException {
+        
+        if( closed ) {
+            return;
+        }
+        closed = true;
+        
+        try {
+            if( format == JSON ) {
+                append( "\n]\n" );
+            }
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+//</editor-fold>
+    
+}
@@ -0,0 +1,402 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A set of saved selections in a file. The file starts with a 16 byte header
+ * with a magic number, the format version, the record size and the number of
+ * selections, followed by one 16 byte record per selection with its x, y,
+ * width and height as big-endian ints.
+ * <p>
+ * The records are read through a memory mapping of the file, so opening a
+ * large set doesn't read anything until a record is accessed. Adding a
+ * selection appends one record and updates the count in the header, changing
+ * one rewrites only its record. The mapping grows in steps of at least
+ * double its size, so the file may have unused space after the records
+ * while it is open. The space is removed when the file is closed. Not
+ * thread safe.
+ * @author SwingSelection contributors
+ */
+public final class SelectionFile implements Closeable {
+    
+    static final int MAGIC = 0x53534c46;    // "SSLF"
+    static final short VERSION = 1;
+    
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+    
+    // Offset of the selection count in the header
+    private static final int COUNT_OFFSET = 8;
+    
+    // Largest number of records that fit in one mapping
+    private static final int MAX_COUNT = ( Integer.MAX_VALUE - HEADER_SIZE ) / RECORD_SIZE;
+    
+    // Number of records written at a time when appending a SelectionStore
+    private static final int APPEND_BATCH = 4096;
+    
+    // Mappings are grown to a multiple of this size
+    private static final int PAGE_SIZE = 4096;
+    
+    private final FileChannel channel;
+    private int count;
+    
+    // Mapping of the header and the records, remapped when records are
+    // accessed past its end. Null when closed.
+    private MappedByteBuffer map;
+    
+    // Scratch buffer for the count and single records
+    private final ByteBuffer scratch;
+    
+    private SelectionFile( FileChannel channel ) {
+        this.channel = channel;
+        scratch = ByteBuffer.allocate( RECORD_SIZE );
+    }
+    
+    /**
+     * Opens a selection file for reading and writing, creating an empty one
+     * if it doesn't exist
+     * @param path the file
+     * @return the opened file
+     * @throws IOException if the file can't be opened or is not a selection file
+     */
+    public static SelectionFile open( Path path ) throws IOException {
+        
+        FileChannel channel = FileChannel.open( path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE );
+        SelectionFile file = new SelectionFile( channel );
+        
+        try {
+            if( channel.size() == 0 ) {
+                file.writeHeader();
+            }
+            file.readHeader();
+        } catch( IOException | RuntimeException ex ) {
+            channel.close();
+            throw ex;
+        }
+        
+        return file;
+    }
+    
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+        header.putInt( MAGIC ).putShort( VERSION ).putShort( (short)RECORD_SIZE ).putInt( 0 ).putInt( 0 );
+        header.flip();
+        writeFully( header, 0 );
+    }
+    
+    private void readHeader() throws IOException {
+        
+        if( channel.size() < HEADER_SIZE ) {
+            throw new IOException( "Not a selection file, too short" );
+        }
+        
+        map = channel.map( FileChannel.MapMode.READ_WRITE, 0, channel.size() );
+        
+        if( map.getInt( 0 ) != MAGIC ) {
+            throw new IOException( "Not a selection file" );
+        }
+        if( map.getShort( 4 ) != VERSION || map.getShort( 6 ) != RECORD_SIZE ) {
+            throw new IOException( "Unsupported selection file version " + map.getShort( 4 ) );
+        }
+        
+        count = map.getInt( COUNT_OFFSET );
+        if( count < 0 || HEADER_SIZE + (long)count * RECORD_SIZE > channel.size() ) {
+            throw new IOException( "Selection file is truncated" );
+        }
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Reading">
+    /**
+     * Returns the number of selections in the file
+     * @return the number of selections
+     */
+    public int size() {
+        return count;
+    }
+    
+    public int getX( int index ) {
+        return record( index ).getInt( offset( index ) );
+    }
+    
+    public int getY( int index ) {
+        return record( index ).getInt( offset( index ) + 4 );
+    }
+    
+    public int getWidth( int index ) {
+        return record( index ).getInt( offset( index ) + 8 );
+    }
+    
+    public int getHeight( int index ) {
+        return record( index ).getInt( offset( index ) + 12 );
+    }
+    
+    /**
+     * Returns the bounds of a selection
+     * @param index index of the selection
+     * @return a new Rectangle with the size and position of the selection
+     */
+    public Rectangle getBounds( int index ) {
+        ByteBuffer b = record( index );
+        int o = offset( index );
+        return new Rectangle( b.getInt( o ), b.getInt( o + 4 ), b.getInt( o + 8 ), b.getInt( o + 12 ) );
+    }
+    
+    /**
+     * Copies the bounds of a selection to a selection geometry
+     * @param index index of the selection
+     * @param g the geometry to set the bounds of
+     */
+    public void copyTo( int index, SelectionGeometry g ) {
+        ByteBuffer b = record( index );
+        int o = offset( index );
+        g.setBounds( b.getInt( o ), b.getInt( o + 4 ), b.getInt( o + 8 ), b.getInt( o + 12 ) );
+    }
+    
+    /**
+     * Adds all selections in the file to a store
+     * @param store the store to add the selections to
+     */
+    public void loadInto( SelectionStore store ) {
+        
+        if( count == 0 ) {
+            return;
+        }
+        
+        ByteBuffer b = record( count - 1 );
+        for( int i = 0, o = HEADER_SIZE ; i < count ; i++, o += RECORD_SIZE ) {
+            store.add( b.getInt( o ), b.getInt( o + 4 ), b.getInt( o + 8 ), b.getInt( o + 12 ) );
+        }
+    }
+    
+    /**
+     * Sets the bounds of a SwingSelection to a saved selection
+     * @param index index of the saved selection
+     * @param sel the selection to restore
+     */
+    public void restore( int index, SwingSelection sel ) {
+        sel.setBounds( getBounds( index ) );
+    }
+    
+    private static int offset( int index ) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+    
+    /**
+     * Returns the mapping, remapped if it doesn't cover a record
+     * @param index index of the record
+     * @return a mapping covering the record
+     * @throws IndexOutOfBoundsException if there is no such record
+     * @throws IllegalStateException if the file is closed
+     */
+    private ByteBuffer record( int index ) {
+        
+        checkOpen();
+        
+        if( index < 0 || index >= count ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + count );
+        }
+        
+        if( offset( index ) + RECORD_SIZE > map.capacity() ) {
+            // The old mapping can't be released explicitly, it stays until
+            // it is garbage collected. Growing geometrically keeps the number
+            // of mappings low when appending and reading alternate.
+            long size = Math.max( offset( count ), 2L * map.capacity() );
+            size = Math.min( ( size + PAGE_SIZE - 1 ) / PAGE_SIZE * PAGE_SIZE, Integer.MAX_VALUE );
+            try {
+                map = channel.map( FileChannel.MapMode.READ_WRITE, 0, size );
+            } catch( IOException ex ) {
+                throw new IllegalStateException( "Could not map selection file", ex );
+            }
+        }
+        
+        return map;
+    }
+    
+    private void checkOpen() {
+        if( map == null ) {
+            throw new IllegalStateException( "Selection file is closed" );
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Writing">
+    /**
+     * Appends a selection to the end of the file
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @return the index of the selection
+     * @throws IOException if the file could not be written
+     */
+    public int append( int x, int y, int width, int height ) throws IOException {
+        
+        checkRoom( 1 );
+        
+        scratch.clear();
+        scratch.putInt( x ).putInt( y ).putInt( width ).putInt( height ).flip();
+        writeFully( scratch, offset( count ) );
+        
+        writeCount( count + 1 );
+        return count - 1;
+    }
+    
+    /**
+     * Appends all selections in a store to the end of the file
+     * @param store the selections to append
+     * @throws IOException if the file could not be written
+     */
+    public void append( SelectionStore store ) throws IOException {
+        
+        int n = store.size();
+        checkRoom( n );
+        
+        ByteBuffer batch = ByteBuffer.allocate( Math.min( n, APPEND_BATCH ) * RECORD_SIZE );
+        long position = offset( count );
+        
+        for( int i = 0 ; i < n ; ) {
+            batch.clear();
+            for( int end = Math.min( n, i + APPEND_BATCH ) ; i < end ; i++ ) {
+                batch.putInt( store.getX( i ) ).putInt( store.getY( i ) )
+                        .putInt( store.getWidth( i ) ).putInt( store.getHeight( i ) );
+            }
+            batch.flip();
+            position += writeFully( batch, position );
+        }
+        
+        // The records are in place before the count includes them
+        writeCount( count + n );
+    }
+    
+    /**
+     * Appends the bounds of a SwingSelection to the end of the file
+     * @param sel the selection to save
+     * @return the index of the saved selection
+     * @throws IOException if the file could not be written
+     */
+    public int capture( SwingSelection sel ) throws IOException {
+        Rectangle r = sel.getBounds();
+        return append( r.x, r.y, r.width, r.height );
+    }
+    
+    /**
+     * Replaces a saved selection with the bounds of a SwingSelection
+     * @param index index of the saved selection
+     * @param sel the selection to save
+     * @throws IOException if the file could not be written
+     */
+    public void capture( int index, SwingSelection sel ) throws IOException {
+        Rectangle r = sel.getBounds();
+        set( index, r.x, r.y, r.width, r.height );
+    }
+    
+    /**
+     * Changes a saved selection, only its record is written
+     * @param index index of the selection
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @throws IOException if the file could not be written
+     */
+    public void set( int index, int x, int y, int width, int height ) throws IOException {
+        ByteBuffer b = record( index );
+        int o = offset( index );
+        b.putInt( o, x ).putInt( o + 4, y ).putInt( o + 8, width ).putInt( o + 12, height );
+    }
+    
+    /**
+     * Writes all changes to the storage device
+     * @throws IOException if the file could not be written
+     */
+    public void force() throws IOException {
+        checkOpen();
+        map.force();
+        channel.force( false );
+    }
+    
+    /**
+     * Closes the file. Reading or changing selections after this throws an
+     * IllegalStateException. Mappings are only released when they are
+     * garbage collected, so on Windows the file may not be deleted or
+     * truncated until then, even after it is closed, and the unused space
+     * after the records may be left in the file.
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        
+        if( map == null ) {
+            return;
+        }
+        map = null;
+        
+        try {
+            if( channel.size() > offset( count ) ) {
+                channel.truncate( offset( count ) );
+            }
+        } catch( IOException ex ) {
+            // Still mapped, the unused space is ignored when opened again
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void checkRoom( int n ) throws IOException {
+        if( n > MAX_COUNT - count ) {
+            throw new IOException( "Too many selections for one file" );
+        }
+    }
+    
+    private void writeCount( int newCount ) throws IOException {
+        scratch.clear();
+        scratch.putInt( newCount ).flip();
+        writeFully( scratch, COUNT_OFFSET );
+        count = newCount;
+    }
+    
+    /**
+     * Writes all of a buffer at a position in the file
+     * @return the number of bytes written
+     */
+    private int writeFully( ByteBuffer b, long position ) throws IOException {
+        int written = 0;
+        while( b.hasRemaining() ) {
+            written += channel.write( b, position + written );
+        }
+        return written;
+    }
+//</editor-fold>
+    
+}
@@ -0,0 +1,391 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+/**
+ * The geometry of a rectangular selection: its bounds, handles, resizing,
+ * moving and clamping, on plain ints. Has no dependencies on AWT or Swing, so
+ * the same selection math can be used in headless batch jobs without loading
+ * the toolkit. No method allocates any objects. Instances are not thread
+ * safe, use one per thread.
+ * @author SwingSelection contributors
+ */
+public final class SelectionGeometry {
+    
+    /** Default width of the handles along the edges of the selection */
+    public static final int DEFAULT_HANDLE_SIZE = 3;
+    
+    public static final int NOT_IN_HANDLE = 0;
+    public static final int UPPER_LEFT_HANDLE = 1;
+    public static final int UPPER_RIGHT_HANDLE = 2;
+    public static final int LOWER_LEFT_HANDLE = 3;
+    public static final int LOWER_RIGHT_HANDLE = 4;
+    public static final int UPPER_EDGE_HANDLE = 5;
+    public static final int LOWER_EDGE_HANDLE = 6;
+    public static final int LEFT_EDGE_HANDLE = 7;
+    public static final int RIGHT_EDGE_HANDLE = 8;
+    
+    // Bands a coordinate can fall in along each side of the selection
+    private static final int NEAR_BAND = 0;    // Left or upper handles
+    private static final int MIDDLE_BAND = 1;  // Between the handles
+    private static final int FAR_BAND = 2;     // Right or lower handles
+    private static final int OUTSIDE_BAND = 3; // Outside the selection
+    
+    // Handle for each combination of bands, indexed by y band * 4 + x band
+    private static final int[] HANDLE_TABLE = {
+        UPPER_LEFT_HANDLE, UPPER_EDGE_HANDLE, UPPER_RIGHT_HANDLE, NOT_IN_HANDLE,
+        LEFT_EDGE_HANDLE, NOT_IN_HANDLE, RIGHT_EDGE_HANDLE, NOT_IN_HANDLE,
+        LOWER_LEFT_HANDLE, LOWER_EDGE_HANDLE, LOWER_RIGHT_HANDLE, NOT_IN_HANDLE,
+        NOT_IN_HANDLE, NOT_IN_HANDLE, NOT_IN_HANDLE, NOT_IN_HANDLE
+    };
+    
+    private int x, y, width, height;
+    private int handleSize;
+    
+    /**
+     * Creates a new empty SelectionGeometry at the origin
+     */
+    public SelectionGeometry() {
+        x = 0;
+        y = 0;
+        width = 0;
+        height = 0;
+        handleSize = DEFAULT_HANDLE_SIZE;
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Bounds">
+    public int getX() {
+        return x;
+    }
+    
+    public int getY() {
+        return y;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Sets the size and position of the selection
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     */
+    public void setBounds( int x, int y, int width, int height ) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Sets the bounds from two opposite corners, in any order
+     * @param x1 x-coordinate of one corner
+     * @param y1 y-coordinate of one corner
+     * @param x2 x-coordinate of the opposite corner
+     * @param y2 y-coordinate of the opposite corner
+     */
+    public void setCorners( int x1, int y1, int x2, int y2 ) {
+        
+        if( x1 < x2 ) {
+            x = x1;
+            width = x2 - x1;
+        } else {
+            x = x2;
+            width = x1 - x2;
+        }
+        
+        if( y1 < y2 ) {
+            y = y1;
+            height = y2 - y1;
+        } else {
+            y = y2;
+            height = y1 - y2;
+        }
+    }
+    
+    /**
+     * Moves the selection without changing its size
+     * @param dx distance to move horizontally
+     * @param dy distance to move vertically
+     */
+    public void translate( int dx, int dy ) {
+        x += dx;
+        y += dy;
+    }
+    
+    /**
+     * Moves the edges of the selection. An edge moved on its own can't be
+     * moved past the opposite edge.
+     * @param dLeft distance to move the left edge
+     * @param dTop distance to move the upper edge
+     * @param dRight distance to move the right edge
+     * @param dBottom distance to move the lower edge
+     */
+    public void moveEdges( int dLeft, int dTop, int dRight, int dBottom ) {
+        
+        int left = x + dLeft;
+        int top = y + dTop;
+        int right = x + width + dRight;
+        int bottom = y + height + dBottom;
+        
+        if( right < left ) {
+            if( dRight == 0 ) {
+                left = right;
+            } else {
+                right = left;
+            }
+        }
+        if( bottom < top ) {
+            if( dBottom == 0 ) {
+                top = bottom;
+            } else {
+                bottom = top;
+            }
+        }
+        
+        setBounds( left, top, right - left, bottom - top );
+    }
+    
+    /**
+     * Moves the selection inside an area starting at the origin, keeping its
+     * size. A selection larger than the area is aligned to its far edge.
+     * @param areaWidth width of the area
+     * @param areaHeight height of the area
+     */
+    public void clampTo( int areaWidth, int areaHeight ) {
+        x = clamp( x, width, areaWidth );
+        y = clamp( y, height, areaHeight );
+    }
+    
+    /**
+     * Clamps a position along one axis so that the length from it fits
+     * between 0 and limit. A length larger than limit is aligned to limit.
+     * @param pos start of the selection along the axis
+     * @param length length of the selection along the axis
+     * @param limit length of the area along the axis
+     * @return the clamped start
+     */
+    static int clamp( int pos, int length, int limit ) {
+        
+        if( pos < 0 ) {
+            pos = 0;
+        }
+        if( pos + length > limit ) {
+            pos = limit - length;
+        }
+        
+        return pos;
+    }
+    
+    /**
+     * Checks if a position is inside the selection
+     * @param px x-coordinate of the position
+     * @param py y-coordinate of the position
+     * @return true if the position is inside the selection, otherwise false
+     */
+    public boolean contains( int px, int py ) {
+        return px >= x && px < x + width && py >= y && py < y + height;
+    }
+    
+    /**
+     * Checks if the center of a pixel is inside the ellipse inscribed in a
+     * rectangle at the origin
+     * @param px x-coordinate of the pixel
+     * @param py y-coordinate of the pixel
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @return true if the pixel is inside the ellipse
+     */
+    static boolean ellipseContains( int px, int py, int width, int height ) {
+        
+        if( width <= 0 || height <= 0 ) {
+            return false;
+        }
+        
+        // Position of the pixel center, scaled so the ellipse is a unit circle
+        double nx = ( 2.0 * px + 1 - width ) / width;
+        double ny = ( 2.0 * py + 1 - height ) / height;
+        
+        return nx * nx + ny * ny <= 1;
+    }
+    
+    /**
+     * Returns the first pixel of a row inside the ellipse inscribed in a
+     * rectangle at the origin. The row is symmetric, the pixels from the
+     * returned x up to width minus x are inside, the same pixels as
+     * ellipseContains reports.
+     * @param py the row
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     * @return x-coordinate of the first pixel inside, at least width / 2 when the row is empty
+     */
+    static int ellipseSpanStart( int py, int width, int height ) {
+        
+        int half = ( width + 1 ) / 2;
+        
+        if( width <= 0 || height <= 0 ) {
+            return half;
+        }
+        
+        double ny = ( 2.0 * py + 1 - height ) / height;
+        double rest = 1 - ny * ny;
+        if( rest < 0 ) {
+            return half;
+        }
+        
+        // Estimate from the half width of the row, then settle any rounding
+        // against the exact test
+        int x0 = (int)Math.ceil( ( width * ( 1 - Math.sqrt( rest ) ) - 1 ) / 2 );
+        x0 = Math.max( 0, Math.min( x0, half ) );
+        while( x0 > 0 && ellipseContains( x0 - 1, py, width, height ) ) {
+            x0--;
+        }
+        while( x0 < half && !ellipseContains( x0, py, width, height ) ) {
+            x0++;
+        }
+        
+        return x0;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Handles">
+    /**
+     * Sets the size of the handles
+     * @param size width of the handles along the edges of the selection
+     */
+    public void setHandleSize( int size ) {
+        handleSize = Math.max( 0, size );
+    }
+    
+    public int getHandleSize() {
+        return handleSize;
+    }
+    
+    /**
+     * Returns the handle at a position, found by classifying the position
+     * into a band along each axis
+     * @param px x-coordinate of the position
+     * @param py y-coordinate of the position
+     * @return one of the handle constants, NOT_IN_HANDLE if not in a handle
+     */
+    public int handleAt( int px, int py ) {
+        
+        int xBand = band( px, x, width );
+        int yBand = band( py, y, height );
+        
+        return HANDLE_TABLE[ yBand * 4 + xBand ];
+    }
+    
+    /**
+     * Classifies a coordinate into a band along one side of the selection.
+     * Handles near the start take priority when the selection is too small
+     * for the handles to fit side by side.
+     * @param pos the coordinate to classify
+     * @param start start of the selection along the axis
+     * @param length length of the selection along the axis
+     * @return the band of pos
+     */
+    private int band( int pos, int start, int length ) {
+        
+        int offset = pos - start;
+        
+        if( offset < 0 || offset >= length ) {
+            return OUTSIDE_BAND;
+        } else if( offset < handleSize ) {
+            return NEAR_BAND;
+        } else if( offset >= length - handleSize ) {
+            return FAR_BAND;
+        } else {
+            return MIDDLE_BAND;
+        }
+    }
+    
+    /**
+     * Returns the x-coordinate of the corner opposite a handle, the corner
+     * that stays in place while the handle is dragged
+     * @param handle one of the handle constants
+     * @return the x-coordinate, 0 for NOT_IN_HANDLE
+     */
+    public int getOppositeX( int handle ) {
+        
+        switch( handle ) {
+            case UPPER_LEFT_HANDLE:
+            case LOWER_LEFT_HANDLE:
+            case UPPER_EDGE_HANDLE:
+            case LEFT_EDGE_HANDLE:
+                // Right side
+                return x + width;
+            case UPPER_RIGHT_HANDLE:
+            case LOWER_RIGHT_HANDLE:
+            case LOWER_EDGE_HANDLE:
+            case RIGHT_EDGE_HANDLE:
+                // Left side
+                return x;
+            default:
+                // Only reachable by code that has no active handle
+                return 0;
+        }
+    }
+    
+    /**
+     * Returns the y-coordinate of the corner opposite a handle, the corner
+     * that stays in place while the handle is dragged
+     * @param handle one of the handle constants
+     * @return the y-coordinate, 0 for NOT_IN_HANDLE
+     */
+    public int getOppositeY( int handle ) {
+        
+        switch( handle ) {
+            case UPPER_LEFT_HANDLE:
+            case UPPER_RIGHT_HANDLE:
+            case UPPER_EDGE_HANDLE:
+            case LEFT_EDGE_HANDLE:
+                // Lower side
+                return y + height;
+            case LOWER_LEFT_HANDLE:
+            case LOWER_RIGHT_HANDLE:
+            case LOWER_EDGE_HANDLE:
+            case RIGHT_EDGE_HANDLE:
+                // Upper side
+                return y;
+            default:
+                // Only reachable by code that has no active handle
+                return 0;
+        }
+    }
+//</editor-fold>
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[x=" + x + ",y=" + y + ",width=" + width + ",height=" + height + "]";
+    }
+    
+}
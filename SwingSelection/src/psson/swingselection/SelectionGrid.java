@@ -0,0 +1,269 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid used as spatial index for rectangular selections. Each
+ * selection is stored in every grid cell it overlaps, so finding the
+ * selections at a point only requires looking at a single cell.
+ * Coordinates outside the grid are stored in the cells along its edges.
+ * @author SwingSelection contributors
+ */
+class SelectionGrid {
+    
+//<editor-fold defaultstate="collapsed" desc="Members and constructors">
+    
+    private static final int INITIAL_CELL_CAPACITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final int cellSize;
+    private int cols, rows;
+    
+    // Ids of the selections in each cell
+    private int[][] cells;
+    private int[] cellCounts;
+    
+    // Indexed bounds and z-order of each id
+    private int[] ix, iy, iw, ih, iz;
+    private boolean[] indexed;
+    
+    /**
+     * Creates a new grid covering an area
+     * @param width width of the area covered by the grid
+     * @param height height of the area covered by the grid
+     * @param cellSize width and height of each grid cell
+     */
+    public SelectionGrid( int width, int height, int cellSize ) {
+        
+        this.cellSize = cellSize;
+        
+        ix = new int[ INITIAL_CAPACITY ];
+        iy = new int[ INITIAL_CAPACITY ];
+        iw = new int[ INITIAL_CAPACITY ];
+        ih = new int[ INITIAL_CAPACITY ];
+        iz = new int[ INITIAL_CAPACITY ];
+        indexed = new boolean[ INITIAL_CAPACITY ];
+        
+        initCells( width, height );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Adds a selection to the grid, or updates it if it is already in the grid
+     * @param id id of the selection, a small non-negative integer
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @param z z-order of the selection, higher values are on top
+     */
+    public void put( int id, int x, int y, int width, int height, int z ) {
+        
+        ensureCapacity( id + 1 );
+        
+        if( indexed[ id ] ) {
+            remove( id );
+        }
+        
+        ix[ id ] = x;
+        iy[ id ] = y;
+        iw[ id ] = width;
+        ih[ id ] = height;
+        iz[ id ] = z;
+        indexed[ id ] = true;
+        
+        int col0 = col( x );
+        int col1 = col( x + Math.max( width, 1 ) - 1 );
+        int row0 = row( y );
+        int row1 = row( y + Math.max( height, 1 ) - 1 );
+        
+        for( int r = row0 ; r <= row1 ; r++ ) {
+            for( int col = col0 ; col <= col1 ; col++ ) {
+                addToCell( r * cols + col, id );
+            }
+        }
+    }
+    
+    /**
+     * Returns the z-order of a selection in the grid
+     * @param id id of the selection
+     * @return the z-order, higher values are on top
+     */
+    public int getZ( int id ) {
+        return iz[ id ];
+    }
+    
+    /**
+     * Removes a selection from the grid
+     * @param id id of the selection
+     */
+    public void remove( int id ) {
+        
+        if( id >= indexed.length || !indexed[ id ] ) {
+            return;
+        }
+        
+        int col0 = col( ix[ id ] );
+        int col1 = col( ix[ id ] + Math.max( iw[ id ], 1 ) - 1 );
+        int row0 = row( iy[ id ] );
+        int row1 = row( iy[ id ] + Math.max( ih[ id ], 1 ) - 1 );
+        
+        for( int r = row0 ; r <= row1 ; r++ ) {
+            for( int col = col0 ; col <= col1 ; col++ ) {
+                removeFromCell( r * cols + col, id );
+            }
+        }
+        
+        indexed[ id ] = false;
+    }
+    
+    /**
+     * Finds the topmost selection containing a position below a z-order
+     * @param x x-coordinate of the position
+     * @param y y-coordinate of the position
+     * @param belowZ only selections with a lower z-order are considered
+     * @return id of the topmost selection containing x,y or -1 if there is none
+     */
+    public int topmostAt( int x, int y, int belowZ ) {
+        
+        int cell = row( y ) * cols + col( x );
+        int[] ids = cells[ cell ];
+        int count = cellCounts[ cell ];
+        
+        int found = -1;
+        int foundZ = Integer.MIN_VALUE;
+        
+        for( int i = 0 ; i < count ; i++ ) {
+            int id = ids[ i ];
+            if( iz[ id ] >= foundZ && iz[ id ] < belowZ
+                    && x >= ix[ id ] && x < ix[ id ] + iw[ id ]
+                    && y >= iy[ id ] && y < iy[ id ] + ih[ id ] ) {
+                found = id;
+                foundZ = iz[ id ];
+            }
+        }
+        
+        return found;
+    }
+    
+    /**
+     * Changes the area covered by the grid and reinserts all selections
+     * @param width width of the area covered by the grid
+     * @param height height of the area covered by the grid
+     */
+    public void resize( int width, int height ) {
+        
+        initCells( width, height );
+        
+        for( int id = 0 ; id < indexed.length ; id++ ) {
+            if( indexed[ id ] ) {
+                indexed[ id ] = false;
+                put( id, ix[ id ], iy[ id ], iw[ id ], ih[ id ], iz[ id ] );
+            }
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Cells">
+    /**
+     * Creates empty cells covering an area
+     */
+    private void initCells( int width, int height ) {
+        
+        cols = Math.max( 1, ( width + cellSize - 1 ) / cellSize );
+        rows = Math.max( 1, ( height + cellSize - 1 ) / cellSize );
+        
+        cells = new int[ cols * rows ][];
+        cellCounts = new int[ cols * rows ];
+    }
+    
+    /**
+     * Returns the column of an x-coordinate, coordinates outside the grid
+     * belong to the first or last column
+     */
+    private int col( int x ) {
+        return Math.min( cols - 1, Math.max( 0, Math.floorDiv( x, cellSize ) ) );
+    }
+    
+    /**
+     * Returns the row of a y-coordinate, coordinates outside the grid
+     * belong to the first or last row
+     */
+    private int row( int y ) {
+        return Math.min( rows - 1, Math.max( 0, Math.floorDiv( y, cellSize ) ) );
+    }
+    
+    private void addToCell( int cell, int id ) {
+        
+        int[] ids = cells[ cell ];
+        
+        if( ids == null ) {
+            ids = new int[ INITIAL_CELL_CAPACITY ];
+            cells[ cell ] = ids;
+        } else if( cellCounts[ cell ] == ids.length ) {
+            ids = Arrays.copyOf( ids, ids.length * 2 );
+            cells[ cell ] = ids;
+        }
+        
+        ids[ cellCounts[ cell ]++ ] = id;
+    }
+    
+    private void removeFromCell( int cell, int id ) {
+        
+        int[] ids = cells[ cell ];
+        int count = cellCounts[ cell ];
+        
+        for( int i = 0 ; i < count ; i++ ) {
+            if( ids[ i ] == id ) {
+                // Order within a cell doesn't matter, move last id here
+                ids[ i ] = ids[ count - 1 ];
+                cellCounts[ cell ] = count - 1;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Makes room for ids up to capacity - 1
+     */
+    private void ensureCapacity( int capacity ) {
+        
+        if( capacity <= indexed.length ) {
+            return;
+        }
+        
+        int newCapacity = Math.max( capacity, indexed.length * 2 );
+        
+        ix = Arrays.copyOf( ix, newCapacity );
+        iy = Arrays.copyOf( iy, newCapacity );
+        iw = Arrays.copyOf( iw, newCapacity );
+        ih = Arrays.copyOf( ih, newCapacity );
+        iz = Arrays.copyOf( iz, newCapacity );
+        indexed = Arrays.copyOf( indexed, newCapacity );
+    }
+//</editor-fold>
+}
@@ -0,0 +1,408 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.HashMap;
+
+/**
+ * Undo and redo history of selection changes. Every step is stored as the
+ * change of the bounds of one selection, packed into a long of four 16 bit
+ * deltas, or into two longs when a delta doesn't fit. A change of the shape
+ * that can't be described by the bounds is stored as a region step, holding
+ * the region before and after the change. The steps are kept in a ring
+ * buffer that grows up to a fixed size, the oldest steps are dropped when it
+ * is full or the regions pass the memory cap, so the history never grows
+ * past it. A region step larger than the cap on its own clears the history,
+ * since the steps before it can't be undone without it. Undo and
+ * redo apply a single step and take constant time for bounds steps. Not
+ * thread safe.
+ * @author SwingSelection contributors
+ */
+public final class SelectionHistory {
+    
+    /**
+     * Applies the steps of a history to the selections they were recorded for
+     */
+    public interface Target {
+        
+        /**
+         * Changes the bounds of a selection
+         * @param id the id the step was recorded with
+         * @param dx change of the x-coordinate
+         * @param dy change of the y-coordinate
+         * @param dw change of the width
+         * @param dh change of the height
+         */
+        public void applyDelta( int id, int dx, int dy, int dw, int dh );
+        
+        /**
+         * Makes a selection a region, including its bounds
+         * @param id the id the step was recorded with
+         * @param r the region, which must not be changed
+         */
+        public void applyRegion( int id, SelectionRegion r );
+    }
+    
+    // Bytes used by one entry in the ring buffer
+    static final int ENTRY_SIZE = 13;
+    
+    // Entries in a new ring buffer, it doubles up to the capacity
+    private static final int INITIAL_ENTRIES = 16;
+    
+    // Set on the first entry of every step
+    private static final byte FLAG_START = 1;
+    // Set on a step stored in two entries, the second holds width and height
+    private static final byte FLAG_WIDE = 2;
+    // Set on a region step, the regions are kept by entry number
+    private static final byte FLAG_REGION = 4;
+    
+    private final int maxBytes;
+    private final int capacity;
+    private int[] ids;
+    private long[] data;
+    private byte[] flags;
+    
+    // Entry numbers, counting every entry ever recorded. Entries from first
+    // to cursor can be undone, from cursor to last redone.
+    private long first, cursor, last;
+    
+    // Regions before and after each region step, and their estimated size
+    private final HashMap<Long, SelectionRegion[]> regions;
+    private long regionBytes;
+    
+    /**
+     * Creates a new empty SelectionHistory
+     * @param maxBytes memory cap of the stored steps, in bytes
+     */
+    public SelectionHistory( int maxBytes ) {
+        this.maxBytes = maxBytes;
+        capacity = Math.max( 2, maxBytes / ENTRY_SIZE );
+        int entries = Math.min( capacity, INITIAL_ENTRIES );
+        ids = new int[ entries ];
+        data = new long[ entries ];
+        flags = new byte[ entries ];
+        first = 0;
+        cursor = 0;
+        last = 0;
+        regions = new HashMap<>();
+        regionBytes = 0;
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Records a change of the bounds of a selection as a new step. The
+     * bounds are all that is recorded, a change of the shape needs a region
+     * step. Steps that were undone can't be redone after this.
+     * @param id id of the selection, passed to the Target on undo and redo
+     * @param dx change of the x-coordinate
+     * @param dy change of the y-coordinate
+     * @param dw change of the width
+     * @param dh change of the height
+     */
+    public void record( int id, int dx, int dy, int dw, int dh ) {
+        
+        if( dx == 0 && dy == 0 && dw == 0 && dh == 0 ) {
+            return;
+        }
+        
+        dropRedo();
+        
+        boolean wide = !fits( dx ) || !fits( dy ) || !fits( dw ) || !fits( dh );
+        int n = wide ? 2 : 1;
+        
+        while( last - first + n > capacity
+                || ( regionBytes > 0 && ( last - first + n ) * ENTRY_SIZE + regionBytes > maxBytes ) ) {
+            dropOldest();
+        }
+        
+        ensureRoom( n );
+        if( wide ) {
+            put( id, pack( dx, dy ), (byte)( FLAG_START | FLAG_WIDE ) );
+            put( id, pack( dw, dh ), (byte)0 );
+        } else {
+            put( id, pack( dx, dy, dw, dh ), FLAG_START );
+        }
+        
+        cursor = last;
+    }
+    
+    /**
+     * Records a change of the region of a selection as a new step. Steps
+     * that were undone can't be redone after this. The regions are kept by
+     * the history and must not be changed afterwards. When the regions alone
+     * pass the memory cap, the step isn't recorded and all steps are
+     * removed, as the earlier steps would no longer undo correctly.
+     * @param id id of the selection, passed to the Target on undo and redo
+     * @param before the region before the change
+     * @param after the region after the change
+     */
+    public void recordRegion( int id, SelectionRegion before, SelectionRegion after ) {
+        
+        dropRedo();
+        
+        long bytes = regionSize( before ) + regionSize( after );
+        
+        if( ENTRY_SIZE + bytes > maxBytes ) {
+            clear();
+            return;
+        }
+        
+        while( last > first && ( last - first + 1 > capacity
+                || ( last - first + 1 ) * ENTRY_SIZE + regionBytes + bytes > maxBytes ) ) {
+            dropOldest();
+        }
+        
+        regions.put( last, new SelectionRegion[] { before, after } );
+        regionBytes += bytes;
+        ensureRoom( 1 );
+        put( id, 0, (byte)( FLAG_START | FLAG_REGION ) );
+        
+        cursor = last;
+    }
+    
+    /**
+     * Checks whether there is a step to undo
+     * @return true if undo would undo a step
+     */
+    public boolean canUndo() {
+        return cursor > first;
+    }
+    
+    /**
+     * Checks whether there is an undone step to redo
+     * @return true if redo would redo a step
+     */
+    public boolean canRedo() {
+        return cursor < last;
+    }
+    
+    /**
+     * Returns the id of the selection changed by the step undo would undo
+     * @return the id the step was recorded with
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public int getUndoId() {
+        
+        if( !canUndo() ) {
+            throw new IllegalStateException( "Nothing to undo" );
+        }
+        
+        long start = cursor - 1;
+        if( ( flags[ slot( start ) ] & FLAG_START ) == 0 ) {
+            start--;
+        }
+        return ids[ slot( start ) ];
+    }
+    
+    /**
+     * Returns the id of the selection changed by the step redo would redo
+     * @return the id the step was recorded with
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    public int getRedoId() {
+        
+        if( !canRedo() ) {
+            throw new IllegalStateException( "Nothing to redo" );
+        }
+        
+        return ids[ slot( cursor ) ];
+    }
+    
+    /**
+     * Undoes the latest step
+     * @param target applies the reversed change
+     * @return true if a step was undone, false if there was nothing to undo
+     */
+    public boolean undo( Target target ) {
+        
+        if( !canUndo() ) {
+            return false;
+        }
+        
+        // Steps are at most two entries
+        long start = cursor - 1;
+        if( ( flags[ slot( start ) ] & FLAG_START ) == 0 ) {
+            start--;
+        }
+        
+        apply( start, -1, target );
+        cursor = start;
+        
+        return true;
+    }
+    
+    /**
+     * Redoes the latest undone step
+     * @param target applies the change
+     * @return true if a step was redone, false if there was nothing to redo
+     */
+    public boolean redo( Target target ) {
+        
+        if( !canRedo() ) {
+            return false;
+        }
+        
+        cursor += apply( cursor, 1, target );
+        
+        return true;
+    }
+    
+    /**
+     * Removes all steps
+     */
+    public void clear() {
+        first = last;
+        cursor = last;
+        regions.clear();
+        regionBytes = 0;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Ring buffer">
+    private int slot( long entry ) {
+        return (int)( entry % ids.length );
+    }
+    
+    /**
+     * Grows the ring buffer, if needed and allowed by the capacity, to hold
+     * more entries
+     * @param n the number of entries to add
+     */
+    private void ensureRoom( int n ) {
+        
+        long size = last - first + n;
+        if( size <= ids.length || ids.length == capacity ) {
+            return;
+        }
+        
+        int entries = (int)Math.min( capacity, Math.max( size, 2L * ids.length ) );
+        int[] newIds = new int[ entries ];
+        long[] newData = new long[ entries ];
+        byte[] newFlags = new byte[ entries ];
+        
+        // Entries keep their numbers, so they move to new slots
+        for( long e = first ; e < last ; e++ ) {
+            int from = slot( e );
+            int to = (int)( e % entries );
+            newIds[ to ] = ids[ from ];
+            newData[ to ] = data[ from ];
+            newFlags[ to ] = flags[ from ];
+        }
+        
+        ids = newIds;
+        data = newData;
+        flags = newFlags;
+    }
+    
+    private void put( int id, long value, byte flag ) {
+        int s = slot( last++ );
+        ids[ s ] = id;
+        data[ s ] = value;
+        flags[ s ] = flag;
+    }
+    
+    /**
+     * Drops the steps that can be redone
+     */
+    private void dropRedo() {
+        for( long e = cursor ; e < last && !regions.isEmpty() ; e++ ) {
+            forgetRegions( e );
+        }
+        last = cursor;
+    }
+    
+    /**
+     * Drops the oldest step
+     */
+    private void dropOldest() {
+        forgetRegions( first );
+        first++;
+        while( first < last && ( flags[ slot( first ) ] & FLAG_START ) == 0 ) {
+            first++;
+        }
+    }
+    
+    /**
+     * Applies the step starting at an entry
+     * @param start the first entry of the step
+     * @param sign 1 to apply the change, -1 to reverse it
+     * @param target applies the change
+     * @return the number of entries in the step
+     */
+    private int apply( long start, int sign, Target target ) {
+        
+        int s = slot( start );
+        long d = data[ s ];
+        
+        if( ( flags[ s ] & FLAG_REGION ) != 0 ) {
+            SelectionRegion[] r = regions.get( start );
+            target.applyRegion( ids[ s ], sign < 0 ? r[ 0 ] : r[ 1 ] );
+            return 1;
+        }
+        
+        if( ( flags[ s ] & FLAG_WIDE ) != 0 ) {
+            long size = data[ slot( start + 1 ) ];
+            target.applyDelta( ids[ s ], sign * (int)( d >> 32 ), sign * (int)d,
+                    sign * (int)( size >> 32 ), sign * (int)size );
+            return 2;
+        }
+        
+        target.applyDelta( ids[ s ], sign * (short)( d >> 48 ), sign * (short)( d >> 32 ),
+                sign * (short)( d >> 16 ), sign * (short)d );
+        return 1;
+    }
+    
+    /**
+     * Removes the regions of an entry, if it is a region step
+     */
+    private void forgetRegions( long entry ) {
+        if( ( flags[ slot( entry ) ] & FLAG_REGION ) != 0 ) {
+            SelectionRegion[] r = regions.remove( entry );
+            if( r != null ) {
+                regionBytes -= regionSize( r[ 0 ] ) + regionSize( r[ 1 ] );
+            }
+        }
+    }
+    
+    /**
+     * Estimates the bytes used by the bands and spans of a region
+     */
+    private static long regionSize( SelectionRegion r ) {
+        return 12L * r.getBandCount() + 8L * r.getSpanCount();
+    }
+    
+    private static boolean fits( int v ) {
+        return v >= Short.MIN_VALUE && v <= Short.MAX_VALUE;
+    }
+    
+    private static long pack( int a, int b, int c, int d ) {
+        return ( (long)( a & 0xffff ) << 48 ) | ( (long)( b & 0xffff ) << 32 ) | ( (long)( c & 0xffff ) << 16 ) | ( d & 0xffff );
+    }
+    
+    private static long pack( int a, int b ) {
+        return ( (long)a << 32 ) | ( b & 0xffffffffL );
+    }
+//</editor-fold>
+    
+}
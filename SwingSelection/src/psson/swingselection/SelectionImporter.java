@@ -0,0 +1,374 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads selections written by a SelectionExporter, as CSV or JSON, from a
+ * Reader. The format is detected from the first character. The input is
+ * parsed character by character from a fixed size buffer and every
+ * selection is handed to a SelectionSink, so reading any number of
+ * selections uses constant memory and doesn't allocate any objects per
+ * selection.
+ * <p>
+ * CSV lines that start with a letter, like the header, are skipped. JSON
+ * objects must have the members x, y, width and height, in any order, and
+ * other members with integer values are ignored.
+ * @author SwingSelection contributors
+ */
+public final class SelectionImporter implements Closeable {
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    // Returned by peek at the end of the input
+    private static final int EOF = -1;
+    
+    // Longest JSON member name that is compared, longer names are ignored
+    private static final int MAX_NAME_LENGTH = 16;
+    
+    private final Reader in;
+    
+    private final char[] buffer;
+    private int pos, limit;
+    
+    // Number of characters before the buffer, for error messages
+    private long offset;
+    
+    private final char[] name;
+    private final int[] values;
+    
+    /**
+     * Creates a new SelectionImporter
+     * @param in the Reader to read from, closed when the importer is closed
+     */
+    public SelectionImporter( Reader in ) {
+        this.in = in;
+        buffer = new char[ BUFFER_SIZE ];
+        pos = 0;
+        limit = 0;
+        offset = 0;
+        name = new char[ MAX_NAME_LENGTH ];
+        values = new int[ 4 ];
+    }
+    
+    /**
+     * Reads all selections
+     * @param sink receives every selection in the order they are read
+     * @return the number of selections read
+     * @throws IOException if the Reader fails or the input is malformed
+     */
+    public long readAll( SelectionSink sink ) throws IOException {
+        
+        skipWhitespace();
+        
+        if( peek() == '[' ) {
+            return readJson( sink );
+        } else {
+            return readCsv( sink );
+        }
+    }
+    
+    /**
+     * Reads all selections into a store
+     * @param store the store to add the selections to
+     * @return the number of selections read
+     * @throws IOException if the Reader fails or the input is malformed
+     */
+    public long readAll( final SelectionStore store ) throws IOException {
+        return readAll( new SelectionSink() {
+            @Override
+            public void selection( int x, int y, int width, int height ) {
+                store.add( x, y, width, height );
+            }
+        });
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="CSV">
+    private long readCsv( SelectionSink sink ) throws IOException {
+        
+        long count = 0;
+        
+        while( true ) {
+            
+            skipWhitespace();
+            int c = peek();
+            
+            if( c == EOF ) {
+                return count;
+            } else if( Character.isLetter( c ) ) {
+                // Header or comment line
+                while( c != EOF && c != '\n' ) {
+                    pos++;
+                    c = peek();
+                }
+                continue;
+            }
+            
+            for( int i = 0 ; i < 4 ; i++ ) {
+                if( i > 0 ) {
+                    skipSpaces();
+                    expect( ',' );
+                }
+                skipSpaces();
+                values[ i ] = readInt();
+            }
+            
+            skipSpaces();
+            c = peek();
+            if( c != EOF && c != '\n' && c != '\r' ) {
+                throw malformed( "end of line" );
+            }
+            
+            sink.selection( values[ 0 ], values[ 1 ], values[ 2 ], values[ 3 ] );
+            count++;
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="JSON">
+    private long readJson( SelectionSink sink ) throws IOException {
+        
+        long count = 0;
+        
+        expect( '[' );
+        skipWhitespace();
+        if( peek() == ']' ) {
+            pos++;
+            return count;
+        }
+        
+        while( true ) {
+            
+            skipWhitespace();
+            readObject();
+            sink.selection( values[ 0 ], values[ 1 ], values[ 2 ], values[ 3 ] );
+            count++;
+            
+            skipWhitespace();
+            if( peek() == ']' ) {
+                pos++;
+                return count;
+            }
+            expect( ',' );
+        }
+    }
+    
+    /**
+     * Reads one object with x, y, width and height into values
+     */
+    private void readObject() throws IOException {
+        
+        expect( '{' );
+        
+        int found = 0;
+        
+        while( true ) {
+            
+            skipWhitespace();
+            int length = readName();
+            skipWhitespace();
+            expect( ':' );
+            skipWhitespace();
+            int v = readInt();
+            
+            int member = memberIndex( length );
+            if( member >= 0 ) {
+                values[ member ] = v;
+                found |= 1 << member;
+            }
+            
+            skipWhitespace();
+            if( peek() == '}' ) {
+                pos++;
+                break;
+            }
+            expect( ',' );
+        }
+        
+        if( found != 15 ) {
+            throw malformed( "x, y, width and height" );
+        }
+    }
+    
+    /**
+     * Reads a quoted member name into name
+     * @return the length of the name, or -1 if it was too long to keep
+     */
+    private int readName() throws IOException {
+        
+        expect( '"' );
+        
+        int length = 0;
+        int c = next();
+        while( c != '"' ) {
+            if( c == EOF || c == '\\' ) {
+                throw malformed( "member name" );
+            }
+            if( length >= 0 && length < MAX_NAME_LENGTH ) {
+                name[ length++ ] = (char)c;
+            } else {
+                length = -1;
+            }
+            c = next();
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Returns the index in values of the member in name
+     * @return 0 to 3 for x, y, width and height, -1 for other members
+     */
+    private int memberIndex( int length ) {
+        if( nameEquals( length, "x" ) ) {
+            return 0;
+        } else if( nameEquals( length, "y" ) ) {
+            return 1;
+        } else if( nameEquals( length, "width" ) ) {
+            return 2;
+        } else if( nameEquals( length, "height" ) ) {
+            return 3;
+        }
+        return -1;
+    }
+    
+    private boolean nameEquals( int length, String s ) {
+        
+        if( length != s.length() ) {
+            return false;
+        }
+        for( int i = 0 ; i < length ; i++ ) {
+            if( name[ i ] != s.charAt( i ) ) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Characters">
+    /**
+     * Returns the next character without consuming it
+     * @return the character, or EOF at the end of the input
+     */
+    private int peek() throws IOException {
+        
+        if( pos == limit ) {
+            offset += limit;
+            pos = 0;
+            limit = 0;
+            int n = in.read( buffer, 0, BUFFER_SIZE );
+            if( n <= 0 ) {
+                return EOF;
+            }
+            limit = n;
+        }
+        
+        return buffer[ pos ];
+    }
+    
+    private int next() throws IOException {
+        int c = peek();
+        if( c != EOF ) {
+            pos++;
+        }
+        return c;
+    }
+    
+    private void expect( char expected ) throws IOException {
+        if( next() != expected ) {
+            throw malformed( "'" + expected + "'" );
+        }
+    }
+    
+    private void skipWhitespace() throws IOException {
+        int c = peek();
+        while( c == ' ' || c == '\t' || c == '\n' || c == '\r' ) {
+            pos++;
+            c = peek();
+        }
+    }
+    
+    /**
+     * Skips whitespace within a line
+     */
+    private void skipSpaces() throws IOException {
+        int c = peek();
+        while( c == ' ' || c == '\t' ) {
+            pos++;
+            c = peek();
+        }
+    }
+    
+    /**
+     * Parses an optionally negative integer
+     */
+    private int readInt() throws IOException {
+        
+        boolean negative = false;
+        if( peek() == '-' ) {
+            negative = true;
+            pos++;
+        }
+        
+        int c = peek();
+        if( c < '0' || c > '9' ) {
+            throw malformed( "integer" );
+        }
+        
+        long v = 0;
+        while( c >= '0' && c <= '9' ) {
+            v = v * 10 + ( c - '0' );
+            if( v > Integer.MAX_VALUE + 1L ) {
+                throw malformed( "integer in range" );
+            }
+            pos++;
+            c = peek();
+        }
+        
+        if( negative ) {
+            v = -v;
+        }
+        if( v > Integer.MAX_VALUE ) {
+            throw malformed( "integer in range" );
+        }
+        
+        return (int)v;
+    }
+    
+    private IOException malformed( String expected ) {
+        return new IOException( "Malformed selection data at character " + ( offset + pos ) + ", expected " + expected );
+    }
+//</editor-fold>
+    
+}
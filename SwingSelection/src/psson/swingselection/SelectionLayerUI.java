@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import javax.swing.JComponent;
+import javax.swing.JLayer;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.LayerUI;
+
+/**
+ * A LayerUI painting selections on top of the view of a JLayer. Selections
+ * created with this painter don't add any component to their Container, so
+ * they don't take part in layout or hierarchy events and don't disturb the
+ * layout manager of the Container. Usage:
+ * <pre>
+ * SelectionLayerUI&lt;JPanel&gt; ui = new SelectionLayerUI&lt;&gt;();
+ * JLayer&lt;JPanel&gt; layer = new JLayer&lt;&gt;( canvas, ui );
+ * SwingSelection sel = new SwingSelection( canvas, ui );
+ * </pre>
+ * Selections are painted in the order they were added, and a selection can
+ * be moved to the top in constant time, however many selections there are.
+ * @param <V> the type of the view of the JLayer
+ * @author SwingSelection contributors
+ */
+public class SelectionLayerUI<V extends Component> extends LayerUI<V> {
+    
+    // The selections in the order they are painted, linked from first to
+    // last, and the node of each selection
+    private Node first, last;
+    private final IdentityHashMap<SwingSelection, Node> nodes;
+    
+    // Scratch rectangles used when painting
+    private final Rectangle clip;
+    private final Rectangle bounds;
+    
+    public SelectionLayerUI() {
+        first = null;
+        last = null;
+        nodes = new IdentityHashMap<>();
+        clip = new Rectangle();
+        bounds = new Rectangle();
+    }
+    
+    /**
+     * Adds a selection to be painted on top of the others
+     * @param sel the selection
+     */
+    void addSelection( SwingSelection sel ) {
+        if( !nodes.containsKey( sel ) ) {
+            Node n = new Node( sel );
+            nodes.put( sel, n );
+            link( n );
+        }
+    }
+    
+    /**
+     * Removes a painted selection
+     * @param sel the selection
+     */
+    void removeSelection( SwingSelection sel ) {
+        Node n = nodes.remove( sel );
+        if( n != null ) {
+            unlink( n );
+        }
+    }
+    
+    /**
+     * Moves a selection last, so that it is painted on top of the others
+     * @param sel the selection
+     * @return true if the selection was moved
+     */
+    boolean toFront( SwingSelection sel ) {
+        
+        Node n = nodes.get( sel );
+        if( n == null || n == last ) {
+            return false;
+        }
+        
+        unlink( n );
+        link( n );
+        return true;
+    }
+    
+    /**
+     * Adds a node last in the paint order
+     */
+    private void link( Node n ) {
+        n.prev = last;
+        n.next = null;
+        if( last != null ) {
+            last.next = n;
+        } else {
+            first = n;
+        }
+        last = n;
+    }
+    
+    /**
+     * Removes a node from the paint order
+     */
+    private void unlink( Node n ) {
+        if( n.prev != null ) {
+            n.prev.next = n.next;
+        } else {
+            first = n.next;
+        }
+        if( n.next != null ) {
+            n.next.prev = n.prev;
+        } else {
+            last = n.prev;
+        }
+        n.prev = null;
+        n.next = null;
+    }
+    
+    /**
+     * Paints the view of the layer and the selections on top of it
+     * @param g the Graphics to paint with
+     * @param c the JLayer being painted
+     */
+    @Override
+    public void paint( Graphics g, JComponent c ) {
+        
+        super.paint( g, c );
+        
+        if( first == null ) {
+            return;
+        }
+        
+        Component view = ( (JLayer<?>)c ).getView();
+        Container lastContainer = null;
+        int dx = 0;
+        int dy = 0;
+        
+        for( Node n = first ; n != null ; n = n.next ) {
+            
+            SwingSelection sel = n.selection;
+            Container container = sel.getContainer();
+            
+            if( container != lastContainer ) {
+                // Offset from the Container of the selection to the layer
+                if( container == view ) {
+                    dx = view.getX();
+                    dy = view.getY();
+                } else {
+                    Point p = SwingUtilities.convertPoint( container, 0, 0, c );
+                    dx = p.x;
+                    dy = p.y;
+                }
+                lastContainer = container;
+                // Without a clip, the whole layer is painted
+                clip.setBounds( 0, 0, c.getWidth(), c.getHeight() );
+                g.getClipBounds( clip );
+                clip.translate( -dx, -dy );
+            }
+            
+            // Skip selections outside the area being painted
+            sel.getPaintBounds( bounds );
+            bounds.grow( sel.getHandleSize(), sel.getHandleSize() );
+            if( !bounds.intersects( clip ) ) {
+                continue;
+            }
+            
+            g.translate( dx, dy );
+            try {
+                sel.paintSelection( g );
+            } finally {
+                g.translate( -dx, -dy );
+            }
+        }
+    }
+    
+    /**
+     * A selection in the paint order
+     */
+    private static class Node {
+        
+        private final SwingSelection selection;
+        private Node prev, next;
+        
+        public Node( SwingSelection selection ) {
+            this.selection = selection;
+        }
+    }
+    
+}
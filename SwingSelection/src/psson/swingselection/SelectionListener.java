@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving changes of a SwingSelection. Events are
+ * delivered through the executor set with
+ * SwingSelection.setSelectionEventExecutor, by default on a background thread
+ * and not on the event dispatch thread.
+ * @author SwingSelection contributors
+ */
+public interface SelectionListener extends EventListener {
+    
+    /**
+     * Invoked when the user starts to drag, move or resize the selection
+     * @param e the event with the bounds of the selection when it was started
+     */
+    public void selectionStarted( SelectionEvent e );
+    
+    /**
+     * Invoked while the selection is changing. Changes are coalesced and
+     * delivered at most once per frame with the latest bounds.
+     * @param e the event with the current bounds of the selection
+     */
+    public void selectionChanging( SelectionEvent e );
+    
+    /**
+     * Invoked when a change of the selection is finished, either when the
+     * mouse is released or when the bounds are set programmatically
+     * @param e the event with the final bounds of the selection
+     */
+    public void selectionCommitted( SelectionEvent e );
+    
+}
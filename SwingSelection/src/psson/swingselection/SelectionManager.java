@@ -0,0 +1,401 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Cursor;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * The SelectionManager class handles many simultaneous selections in the same
+ * Container. Mouse events from the Container are routed to the selection under
+ * the pointer, which is found through a spatial index so the time to find it
+ * doesn't grow with the number of selections. The index is updated every time
+ * a selection commits a change, whether it was made with the mouse, the
+ * keyboard, undo or an animation or set programmatically. Pressing the mouse
+ * outside all selections starts a new selection.
+ * <p>
+ * The selection pressed last is painted on top. When the selections are
+ * painted by a SelectionLayerUI this takes constant time. When each
+ * selection is a component in the Container, raising a selection reorders
+ * the components of the Container, which takes time proportional to the
+ * number of selections. For very many selections, use a SelectionLayerUI.
+ * @author SwingSelection contributors
+ */
+public class SelectionManager {
+    
+//<editor-fold defaultstate="collapsed" desc="Members and constructors">
+    
+    private static final int DEFAULT_CELL_SIZE = 64;
+    
+    private final Container c;
+    private final SelectionLayerUI<?> painter;
+    
+    // Selections by id, null for ids that are free
+    private final ArrayList<SwingSelection> selections;
+    private final IdentityHashMap<SwingSelection, Integer> ids;
+    private int[] freeIds;
+    private int numFreeIds;
+    
+    private final SelectionGrid grid;
+    private int nextZ;
+    
+    // Id of the selection painted on top, -1 if not known
+    private int frontId;
+    
+    private final ManagerMouseAdapter listener;
+    private final ComponentListener resizeListener;
+    
+    // Updates the index when a selection commits a change
+    private final SelectionListener indexer;
+    
+    // Scratch rectangle for reading bounds
+    private final Rectangle bounds;
+    
+    /**
+     * Creates a new SelectionManager and connects it to a parent Container
+     * @param c a Swing Container where the selections will be done
+     */
+    public SelectionManager( Container c ) {
+        this( c, DEFAULT_CELL_SIZE );
+    }
+    
+    /**
+     * Creates a new SelectionManager and connects it to a parent Container
+     * @param c a Swing Container where the selections will be done
+     * @param cellSize size of the cells in the spatial index, in pixels
+     */
+    public SelectionManager( Container c, int cellSize ) {
+        this( c, null, cellSize );
+    }
+    
+    /**
+     * Creates a new SelectionManager where all selections are painted by a
+     * SelectionLayerUI instead of components added to the Container
+     * @param c a Swing Container where the selections will be done, the view of a JLayer using painter
+     * @param painter the SelectionLayerUI painting the selections
+     */
+    public SelectionManager( Container c, SelectionLayerUI<?> painter ) {
+        this( c, painter, DEFAULT_CELL_SIZE );
+    }
+    
+    /**
+     * Creates a new SelectionManager and connects it to a parent Container
+     * @param c a Swing Container where the selections will be done
+     * @param painter the SelectionLayerUI painting the selections, or null to
+     * add a component for each selection to the Container
+     * @param cellSize size of the cells in the spatial index, in pixels
+     */
+    public SelectionManager( Container c, SelectionLayerUI<?> painter, int cellSize ) {
+        
+        this.c = c;
+        this.painter = painter;
+        
+        selections = new ArrayList<>();
+        ids = new IdentityHashMap<>();
+        freeIds = new int[ 16 ];
+        numFreeIds = 0;
+        
+        grid = new SelectionGrid( c.getWidth(), c.getHeight(), cellSize );
+        nextZ = 0;
+        frontId = -1;
+        
+        bounds = new Rectangle();
+        
+        listener = new ManagerMouseAdapter();
+        indexer = new SelectionListener() {
+            @Override
+            public void selectionStarted( SelectionEvent e ) {
+            }
+            
+            @Override
+            public void selectionChanging( SelectionEvent e ) {
+            }
+            
+            @Override
+            public void selectionCommitted( SelectionEvent e ) {
+                Integer id = ids.get( e.getSelection() );
+                if( id != null ) {
+                    grid.put( id, e.getX(), e.getY(), e.getWidth(), e.getHeight(), grid.getZ( id ) );
+                }
+            }
+        };
+        
+        // Keep the grid covering the Container
+        resizeListener = new ComponentAdapter() {
+            @Override
+            public void componentResized( ComponentEvent e ) {
+                grid.resize( SelectionManager.this.c.getWidth(), SelectionManager.this.c.getHeight() );
+            }
+        };
+        
+        c.addMouseListener( listener );
+        c.addMouseMotionListener( listener );
+        c.addComponentListener( resizeListener );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Adds a new selection to the Container
+     * @param r a Rectangle with the size and position of the selection
+     * @return the new selection
+     */
+    public SwingSelection addSelection( Rectangle r ) {
+        
+        SwingSelection sel = createSelection();
+        // Indexed when the bounds are committed
+        sel.setBounds( r );
+        
+        return sel;
+    }
+    
+    /**
+     * Removes a selection from the Container
+     * @param sel the selection to remove
+     */
+    public void removeSelection( SwingSelection sel ) {
+        
+        Integer id = ids.remove( sel );
+        
+        if( id == null ) {
+            return;
+        }
+        
+        if( listener.active == sel ) {
+            listener.active = null;
+        }
+        if( frontId == id ) {
+            frontId = -1;
+        }
+        
+        grid.remove( id );
+        selections.set( id, null );
+        
+        if( numFreeIds == freeIds.length ) {
+            freeIds = Arrays.copyOf( freeIds, freeIds.length * 2 );
+        }
+        freeIds[ numFreeIds++ ] = id;
+        
+        sel.setOwnerListener( null );
+        sel.dispose();
+    }
+    
+    /**
+     * Returns the number of selections
+     * @return the number of selections handled by the manager
+     */
+    public int getSelectionCount() {
+        return ids.size();
+    }
+    
+    /**
+     * Returns the topmost selection containing a position. A selection that
+     * is not a rectangle only contains the positions inside its shape and
+     * its handles.
+     * @param x the x coordinate to check
+     * @param y the y coordinate to check
+     * @return the topmost selection containing x,y or null if there is none
+     */
+    public SwingSelection selectionAt( int x, int y ) {
+        
+        int z = Integer.MAX_VALUE;
+        int id;
+        
+        // The grid only knows the bounds, look further down until a
+        // selection contains the position
+        while( ( id = grid.topmostAt( x, y, z ) ) >= 0 ) {
+            SwingSelection sel = selections.get( id );
+            sel.getBounds( bounds );
+            if( sel.inHandle( x, y ) != 0 || sel.contains( x - bounds.x, y - bounds.y ) ) {
+                return sel;
+            }
+            z = grid.getZ( id );
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Puts a selection on top of the other selections, both when painted and
+     * when finding the selection at a position. Selections pressed with the
+     * mouse are raised automatically. Changes don't have to be reported, the
+     * spatial index is updated when a selection commits a change.
+     * @param sel the selection to raise
+     */
+    public void toFront( SwingSelection sel ) {
+        if( ids.containsKey( sel ) ) {
+            raise( sel );
+        }
+    }
+    
+    /**
+     * Removes all selections and stops listening to the Container. The
+     * manager can't be used afterwards.
+     */
+    public void dispose() {
+        
+        c.removeMouseListener( listener );
+        c.removeMouseMotionListener( listener );
+        c.removeComponentListener( resizeListener );
+        listener.active = null;
+        
+        for( int i = 0 ; i < selections.size() ; i++ ) {
+            SwingSelection sel = selections.get( i );
+            if( sel != null ) {
+                removeSelection( sel );
+            }
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Selection bookkeeping">
+    /**
+     * Creates a selection without a mouse listener of its own and gives it an id
+     */
+    private SwingSelection createSelection() {
+        
+        SwingSelection sel = new SwingSelection( c, painter, false );
+        int id;
+        
+        if( numFreeIds > 0 ) {
+            id = freeIds[ --numFreeIds ];
+            selections.set( id, sel );
+        } else {
+            id = selections.size();
+            selections.add( sel );
+        }
+        
+        ids.put( sel, id );
+        sel.setOwnerListener( indexer );
+        raise( sel );
+        
+        return sel;
+    }
+    
+    /**
+     * Gives a selection the highest z-order in the grid and paints it on
+     * top. Nothing is done when the selection already is on top, since
+     * reordering the components of the Container takes time proportional to
+     * their number.
+     */
+    private void raise( SwingSelection sel ) {
+        
+        int id = ids.get( sel );
+        
+        if( id == frontId ) {
+            return;
+        }
+        
+        sel.getBounds( bounds );
+        grid.put( id, bounds.x, bounds.y, bounds.width, bounds.height, nextZ++ );
+        frontId = id;
+        sel.toFront();
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="ManagerMouseAdapter class">
+    /**
+     * Routes mouse events from the Container to the selections
+     */
+    private class ManagerMouseAdapter extends MouseAdapter {
+        
+        // Selection receiving the current press, drag and release, and
+        // whether it was created by the press
+        private SwingSelection active;
+        private boolean created;
+        
+        public ManagerMouseAdapter() {
+            active = null;
+            created = false;
+        }
+        
+        @Override
+        public void mouseMoved( MouseEvent e ) {
+            
+            SwingSelection sel = selectionAt( e.getX(), e.getY() );
+            
+            if( sel != null ) {
+                // The selection sets the cursor for its handles
+                sel.getMouseAdapter().mouseMoved( e );
+            } else if( !c.isCursorSet() || c.getCursor().getType() != Cursor.DEFAULT_CURSOR ) {
+                c.setCursor( Cursor.getPredefinedCursor( Cursor.DEFAULT_CURSOR ) );
+            }
+        }
+        
+        @Override
+        public void mousePressed( MouseEvent e ) {
+            
+            active = selectionAt( e.getX(), e.getY() );
+            created = active == null;
+            
+            if( created ) {
+                // Outside all selections, start a new one
+                active = createSelection();
+                active.setVisible( false );
+            }
+            
+            active.getMouseAdapter().mousePressed( e );
+        }
+        
+        @Override
+        public void mouseDragged( MouseEvent e ) {
+            if( active != null ) {
+                active.getMouseAdapter().mouseDragged( e );
+            }
+        }
+        
+        @Override
+        public void mouseReleased( MouseEvent e ) {
+            
+            if( active == null ) {
+                return;
+            }
+            
+            SwingSelection sel = active;
+            active = null;
+            
+            sel.getMouseAdapter().mouseReleased( e );
+            
+            sel.getBounds( bounds );
+            if( created && bounds.isEmpty() ) {
+                // A click without a drag doesn't make a selection, existing
+                // selections are kept even if resized to nothing
+                removeSelection( sel );
+            } else {
+                // Already indexed when the release committed the change
+                raise( sel );
+            }
+        }
+    }
+//</editor-fold>
+}
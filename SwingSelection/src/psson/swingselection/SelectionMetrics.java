@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+/**
+ * An immutable snapshot of the metrics recorded by a SwingSelection while
+ * metrics are enabled. Latencies are measured on the event dispatch thread
+ * and reported in nanoseconds, rounded up to the histogram precision of about
+ * 6 percent.
+ * @author SwingSelection contributors
+ */
+public final class SelectionMetrics {
+    
+    /** Handling a mouse move, finding the handle and setting the cursor */
+    public static final int MOUSE_MOVED = 0;
+    /** Applying a mouse drag to the selection, once per frame when coalesced */
+    public static final int MOUSE_DRAGGED = 1;
+    /** Handling a mouse release and applying its position */
+    public static final int MOUSE_RELEASED = 2;
+    /** Setting the bounds of the selection, including repainting */
+    public static final int SET_BOUNDS = 3;
+    /** Painting the selection */
+    public static final int PAINT = 4;
+    
+    static final int OPERATION_COUNT = 5;
+    
+    private final long elapsed;
+    private final long[] counts;
+    private final long[] totals;
+    private final long[] maxima;
+    private final long[][] buckets;
+    private final long repaintCount;
+    private final long coalescedCount;
+    
+    /**
+     * Creates a new SelectionMetrics, the arrays are kept by the snapshot
+     * @param elapsed nanoseconds since the metrics were enabled or reset
+     * @param counts number of measured events of each operation
+     * @param totals sum of the latencies of each operation
+     * @param maxima largest latency of each operation
+     * @param buckets histogram buckets of each operation
+     * @param repaintCount number of repaint requests
+     * @param coalescedCount number of drag events replaced by a later one
+     */
+    SelectionMetrics( long elapsed, long[] counts, long[] totals, long[] maxima, long[][] buckets, long repaintCount, long coalescedCount ) {
+        this.elapsed = elapsed;
+        this.counts = counts;
+        this.totals = totals;
+        this.maxima = maxima;
+        this.buckets = buckets;
+        this.repaintCount = repaintCount;
+        this.coalescedCount = coalescedCount;
+    }
+    
+    /**
+     * Returns the time the metrics cover
+     * @return nanoseconds since the metrics were enabled or last reset
+     */
+    public long getElapsedTime() {
+        return elapsed;
+    }
+    
+    /**
+     * Returns the number of measured events of an operation
+     * @param operation one of the operation constants, for example MOUSE_DRAGGED
+     * @return the number of events
+     */
+    public long getCount( int operation ) {
+        return counts[ operation ];
+    }
+    
+    /**
+     * Returns the number of events per second of an operation
+     * @param operation one of the operation constants
+     * @return events per second over the elapsed time
+     */
+    public double getRate( int operation ) {
+        return elapsed > 0 ? counts[ operation ] * 1e9 / elapsed : 0.0;
+    }
+    
+    /**
+     * Returns a latency percentile of an operation
+     * @param operation one of the operation constants
+     * @param fraction the percentile as a fraction, for example 0.99 for p99
+     * @return the latency in nanoseconds, 0 if no events were measured
+     */
+    public long getPercentile( int operation, double fraction ) {
+        return LatencyHistogram.percentile( buckets[ operation ], counts[ operation ], fraction );
+    }
+    
+    /**
+     * Returns the largest latency of an operation
+     * @param operation one of the operation constants
+     * @return the latency in nanoseconds, 0 if no events were measured
+     */
+    public long getMax( int operation ) {
+        return maxima[ operation ];
+    }
+    
+    /**
+     * Returns the mean latency of an operation
+     * @param operation one of the operation constants
+     * @return the mean in nanoseconds, 0 if no events were measured
+     */
+    public double getMean( int operation ) {
+        return counts[ operation ] > 0 ? (double)totals[ operation ] / counts[ operation ] : 0.0;
+    }
+    
+    /**
+     * Returns the total time spent in an operation
+     * @param operation one of the operation constants
+     * @return the sum of all latencies in nanoseconds
+     */
+    public long getTotalTime( int operation ) {
+        return totals[ operation ];
+    }
+    
+    /**
+     * Returns the number of areas of the Container requested to be repainted
+     * @return the number of repaint requests
+     */
+    public long getRepaintCount() {
+        return repaintCount;
+    }
+    
+    /**
+     * Returns the number of drag events that were never applied, because a
+     * later drag event arrived during the same frame
+     * @return the number of coalesced drag events
+     */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+    
+    @Override
+    public String toString() {
+        
+        String[] names = { "moved", "dragged", "released", "setBounds", "paint" };
+        StringBuilder sb = new StringBuilder( getClass().getName() ).append( '[' );
+        
+        for( int i = 0 ; i < OPERATION_COUNT ; i++ ) {
+            sb.append( String.format( "%s: events=%d mean=%.0fns p50=%dns p99=%dns max=%dns, ",
+                    names[ i ], getCount( i ), getMean( i ), getPercentile( i, 0.5 ), getPercentile( i, 0.99 ), getMax( i ) ) );
+        }
+        
+        return sb.append( "repaints=" ).append( repaintCount ).append( ", coalesced=" ).append( coalescedCount ).append( ']' ).toString();
+    }
+    
+}
@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the metrics of a SwingSelection. Only exists while metrics are
+ * enabled, so the instrumented code only has to check a field for null when
+ * they are disabled.
+ * @author SwingSelection contributors
+ */
+final class SelectionMetricsCollector implements SelectionMetricsMXBean {
+    
+    private final LatencyHistogram[] histograms;
+    private final AtomicLong repaints;
+    private final AtomicLong coalesced;
+    private volatile long start;
+    
+    SelectionMetricsCollector() {
+        histograms = new LatencyHistogram[ SelectionMetrics.OPERATION_COUNT ];
+        for( int i = 0 ; i < histograms.length ; i++ ) {
+            histograms[ i ] = new LatencyHistogram();
+        }
+        repaints = new AtomicLong();
+        coalesced = new AtomicLong();
+        start = System.nanoTime();
+    }
+    
+    /**
+     * Records the latency of an operation that started at startTime
+     * @param operation one of the operation constants in SelectionMetrics
+     * @param startTime System.nanoTime when the operation started
+     */
+    void record( int operation, long startTime ) {
+        histograms[ operation ].record( System.nanoTime() - startTime );
+    }
+    
+    void repainted() {
+        repaints.incrementAndGet();
+    }
+    
+    void coalesced() {
+        coalesced.incrementAndGet();
+    }
+    
+    /**
+     * Returns a snapshot of the metrics
+     * @return a new SelectionMetrics
+     */
+    SelectionMetrics snapshot() {
+        
+        int n = SelectionMetrics.OPERATION_COUNT;
+        long[] counts = new long[ n ];
+        long[] totals = new long[ n ];
+        long[] maxima = new long[ n ];
+        long[][] buckets = new long[ n ][ LatencyHistogram.BUCKET_COUNT ];
+        
+        for( int i = 0 ; i < n ; i++ ) {
+            counts[ i ] = histograms[ i ].copyBuckets( buckets[ i ] );
+            totals[ i ] = histograms[ i ].getTotal();
+            maxima[ i ] = histograms[ i ].getMax();
+        }
+        
+        return new SelectionMetrics( System.nanoTime() - start, counts, totals, maxima, buckets,
+                repaints.get(), coalesced.get() );
+    }
+    
+    // The MXBean attributes read the buckets in place, so polling them
+    // doesn't allocate a copy per attribute
+    private long count( int operation ) {
+        return histograms[ operation ].getCount();
+    }
+    
+    private long p99( int operation ) {
+        return histograms[ operation ].percentile( 0.99 );
+    }
+    
+    private long max( int operation ) {
+        return histograms[ operation ].getMax();
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="SelectionMetricsMXBean">
+    @Override
+    public long getMouseMovedCount() {
+        return count( SelectionMetrics.MOUSE_MOVED );
+    }
+    
+    @Override
+    public long getMouseMovedP99() {
+        return p99( SelectionMetrics.MOUSE_MOVED );
+    }
+    
+    @Override
+    public long getMouseMovedMax() {
+        return max( SelectionMetrics.MOUSE_MOVED );
+    }
+    
+    @Override
+    public long getMouseDraggedCount() {
+        return count( SelectionMetrics.MOUSE_DRAGGED );
+    }
+    
+    @Override
+    public long getMouseDraggedP99() {
+        return p99( SelectionMetrics.MOUSE_DRAGGED );
+    }
+    
+    @Override
+    public long getMouseDraggedMax() {
+        return max( SelectionMetrics.MOUSE_DRAGGED );
+    }
+    
+    @Override
+    public long getMouseReleasedCount() {
+        return count( SelectionMetrics.MOUSE_RELEASED );
+    }
+    
+    @Override
+    public long getMouseReleasedP99() {
+        return p99( SelectionMetrics.MOUSE_RELEASED );
+    }
+    
+    @Override
+    public long getMouseReleasedMax() {
+        return max( SelectionMetrics.MOUSE_RELEASED );
+    }
+    
+    @Override
+    public long getSetBoundsCount() {
+        return count( SelectionMetrics.SET_BOUNDS );
+    }
+    
+    @Override
+    public long getSetBoundsP99() {
+        return p99( SelectionMetrics.SET_BOUNDS );
+    }
+    
+    @Override
+    public long getSetBoundsMax() {
+        return max( SelectionMetrics.SET_BOUNDS );
+    }
+    
+    @Override
+    public long getPaintCount() {
+        return count( SelectionMetrics.PAINT );
+    }
+    
+    @Override
+    public long getPaintP99() {
+        return p99( SelectionMetrics.PAINT );
+    }
+    
+    @Override
+    public long getPaintMax() {
+        return max( SelectionMetrics.PAINT );
+    }
+    
+    @Override
+    public double getEventDispatchLoad() {
+        
+        long elapsed = System.nanoTime() - start;
+        if( elapsed <= 0 ) {
+            return 0.0;
+        }
+        
+        // Setting the bounds is part of handling the mouse events
+        long busy = histograms[ SelectionMetrics.MOUSE_MOVED ].getTotal()
+                + histograms[ SelectionMetrics.MOUSE_DRAGGED ].getTotal()
+                + histograms[ SelectionMetrics.MOUSE_RELEASED ].getTotal()
+                + histograms[ SelectionMetrics.PAINT ].getTotal();
+        
+        return Math.min( 1.0, (double)busy / elapsed );
+    }
+    
+    @Override
+    public double getMouseEventRate() {
+        
+        long elapsed = System.nanoTime() - start;
+        if( elapsed <= 0 ) {
+            return 0.0;
+        }
+        
+        long events = count( SelectionMetrics.MOUSE_MOVED ) + count( SelectionMetrics.MOUSE_DRAGGED )
+                + count( SelectionMetrics.MOUSE_RELEASED ) + coalesced.get();
+        
+        return events * 1e9 / elapsed;
+    }
+    
+    @Override
+    public long getRepaintCount() {
+        return repaints.get();
+    }
+    
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+    
+    @Override
+    public void reset() {
+        for( LatencyHistogram h : histograms ) {
+            h.reset();
+        }
+        repaints.set( 0 );
+        coalesced.set( 0 );
+        start = System.nanoTime();
+    }
+//</editor-fold>
+    
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+/**
+ * Management interface for the metrics of a SwingSelection, registered with
+ * SwingSelection.registerMetricsMBean. Latencies are in nanoseconds.
+ * @author SwingSelection contributors
+ */
+public interface SelectionMetricsMXBean {
+    
+    public long getMouseMovedCount();
+    public long getMouseMovedP99();
+    public long getMouseMovedMax();
+    
+    public long getMouseDraggedCount();
+    public long getMouseDraggedP99();
+    public long getMouseDraggedMax();
+    
+    public long getMouseReleasedCount();
+    public long getMouseReleasedP99();
+    public long getMouseReleasedMax();
+    
+    public long getSetBoundsCount();
+    public long getSetBoundsP99();
+    public long getSetBoundsMax();
+    
+    public long getPaintCount();
+    public long getPaintP99();
+    public long getPaintMax();
+    
+    /**
+     * Returns the share of the elapsed time spent on the event dispatch
+     * thread handling mouse events and painting
+     * @return the share of the time, between 0 and 1
+     */
+    public double getEventDispatchLoad();
+    
+    /**
+     * Returns the number of mouse events per second
+     * @return the event rate since the metrics were enabled or reset
+     */
+    public double getMouseEventRate();
+    
+    public long getRepaintCount();
+    public long getCoalescedCount();
+    
+    /**
+     * Clears all metrics
+     */
+    public void reset();
+    
+}
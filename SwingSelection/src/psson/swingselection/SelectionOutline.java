@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+
+/**
+ * The outline of a polygon or lasso selection. The outline is stored relative
+ * to its bounding box and is scaled to the size of the selection, so moving
+ * the selection leaves it unchanged. Containment is answered from a table of
+ * the crossings of the outline with the center of every pixel row, built
+ * once per selection size, which makes each query a lookup in a single row.
+ * Has no dependencies on AWT or Swing. Instances are not thread safe.
+ * @author SwingSelection contributors
+ */
+public final class SelectionOutline {
+    
+    // Corners relative to the bounding box
+    private final int[] xPoints;
+    private final int[] yPoints;
+    private final int count;
+    
+    // Bounding box of the corners where the outline was created
+    private final int x, y, width, height;
+    
+    // Crossings for each row at the size the table was built for. The
+    // crossings of row r are crossings[rowStart[r]] to crossings[rowStart[r+1]],
+    // sorted, each the first pixel to the right of a crossing.
+    private int tableWidth, tableHeight;
+    private int[] rowStart;
+    private int[] crossings;
+    
+    /**
+     * Creates an outline from the corners of a polygon. The polygon is
+     * closed from the last corner back to the first.
+     * @param xPoints x-coordinates of the corners
+     * @param yPoints y-coordinates of the corners
+     * @param count number of corners, at least 3
+     */
+    public SelectionOutline( int[] xPoints, int[] yPoints, int count ) {
+        
+        if( count < 3 || count > xPoints.length || count > yPoints.length ) {
+            throw new IllegalArgumentException( "Invalid number of corners: " + count );
+        }
+        
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for( int i = 0 ; i < count ; i++ ) {
+            minX = Math.min( minX, xPoints[ i ] );
+            minY = Math.min( minY, yPoints[ i ] );
+            maxX = Math.max( maxX, xPoints[ i ] );
+            maxY = Math.max( maxY, yPoints[ i ] );
+        }
+        
+        this.xPoints = new int[ count ];
+        this.yPoints = new int[ count ];
+        for( int i = 0 ; i < count ; i++ ) {
+            this.xPoints[ i ] = xPoints[ i ] - minX;
+            this.yPoints[ i ] = yPoints[ i ] - minY;
+        }
+        this.count = count;
+        
+        x = minX;
+        y = minY;
+        width = maxX - minX;
+        height = maxY - minY;
+        
+        tableWidth = -1;
+        tableHeight = -1;
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Returns the x-coordinate of the bounding box the outline was created in
+     * @return the smallest x-coordinate of the corners
+     */
+    public int getX() {
+        return x;
+    }
+    
+    /**
+     * Returns the y-coordinate of the bounding box the outline was created in
+     * @return the smallest y-coordinate of the corners
+     */
+    public int getY() {
+        return y;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public int getPointCount() {
+        return count;
+    }
+    
+    /**
+     * Returns the x-coordinate of a corner scaled to a selection width
+     * @param i index of the corner
+     * @param w width of the selection
+     * @return the x-coordinate relative to the selection
+     */
+    public int getX( int i, int w ) {
+        return width == 0 ? 0 : (int)( (long)xPoints[ i ] * w / width );
+    }
+    
+    /**
+     * Returns the y-coordinate of a corner scaled to a selection height
+     * @param i index of the corner
+     * @param h height of the selection
+     * @return the y-coordinate relative to the selection
+     */
+    public int getY( int i, int h ) {
+        return height == 0 ? 0 : (int)( (long)yPoints[ i ] * h / height );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Containment">
+    /**
+     * Checks if a pixel is inside the outline scaled to a selection size.
+     * The table of crossings is rebuilt when the size changes.
+     * @param px x-coordinate of the pixel relative to the selection
+     * @param py y-coordinate of the pixel relative to the selection
+     * @param w width of the selection
+     * @param h height of the selection
+     * @return true if the center of the pixel is inside the outline
+     */
+    public boolean contains( int px, int py, int w, int h ) {
+        
+        if( px < 0 || py < 0 || px >= w || py >= h ) {
+            return false;
+        }
+        
+        prepare( w, h );
+        
+        // Inside when an odd number of crossings are left of the pixel
+        int inside = 0;
+        for( int i = rowStart[ py ], end = rowStart[ py + 1 ] ; i < end && crossings[ i ] <= px ; i++ ) {
+            inside ^= 1;
+        }
+        
+        return inside != 0;
+    }
+    
+    /**
+     * Builds the table of crossings for a selection size, unless it is
+     * already built. Must be called before spans are read from several
+     * threads.
+     * @param w width of the selection
+     * @param h height of the selection
+     */
+    void prepare( int w, int h ) {
+        if( w != tableWidth || h != tableHeight ) {
+            buildTable( w, h );
+        }
+    }
+    
+    /**
+     * Reports the runs of pixels inside the outline along a row. Reads the
+     * table only, so it can be called from several threads after prepare.
+     * @param py the row relative to the selection
+     * @param w width of the selection, the table must be prepared for it
+     * @param ox x-coordinate of the selection, added to the runs
+     * @param oy y-coordinate of the selection, added to the row
+     * @param consumer receives the runs
+     */
+    void getSpans( int py, int w, int ox, int oy, SpanConsumer consumer ) {
+        
+        // Pixels from an even crossing up to the next odd crossing are inside
+        for( int i = rowStart[ py ], end = rowStart[ py + 1 ] ; i + 1 < end ; i += 2 ) {
+            int x0 = Math.max( crossings[ i ], 0 );
+            int x1 = Math.min( crossings[ i + 1 ], w );
+            if( x0 < x1 ) {
+                consumer.span( oy + py, ox + x0, ox + x1 );
+            }
+        }
+    }
+    
+    /**
+     * Builds the crossings table for a selection size. Each edge is bucketed
+     * into the rows it spans, first to count the crossings of each row and
+     * then to store them.
+     */
+    private void buildTable( int w, int h ) {
+        
+        double sx = width == 0 ? 0 : (double)w / width;
+        double sy = height == 0 ? 0 : (double)h / height;
+        
+        int[] start = new int[ h + 1 ];
+        
+        // Count the crossings of each row
+        for( int i = 0, j = count - 1 ; i < count ; j = i++ ) {
+            double y0 = yPoints[ j ] * sy;
+            double y1 = yPoints[ i ] * sy;
+            int first = firstRow( Math.min( y0, y1 ) );
+            int last = Math.min( firstRow( Math.max( y0, y1 ) ), h );
+            for( int r = Math.max( first, 0 ) ; r < last ; r++ ) {
+                start[ r + 1 ]++;
+            }
+        }
+        for( int r = 0 ; r < h ; r++ ) {
+            start[ r + 1 ] += start[ r ];
+        }
+        
+        // Store the crossings, using a copy of the row starts as fill positions
+        int[] fill = Arrays.copyOf( start, h );
+        int[] cross = new int[ start[ h ] ];
+        for( int i = 0, j = count - 1 ; i < count ; j = i++ ) {
+            double x0 = xPoints[ j ] * sx;
+            double y0 = yPoints[ j ] * sy;
+            double x1 = xPoints[ i ] * sx;
+            double y1 = yPoints[ i ] * sy;
+            if( y0 == y1 ) {
+                continue;
+            }
+            int first = firstRow( Math.min( y0, y1 ) );
+            int last = Math.min( firstRow( Math.max( y0, y1 ) ), h );
+            double slope = ( x1 - x0 ) / ( y1 - y0 );
+            for( int r = Math.max( first, 0 ) ; r < last ; r++ ) {
+                double xc = x0 + ( r + 0.5 - y0 ) * slope;
+                // First pixel with its center right of the crossing
+                cross[ fill[ r ]++ ] = (int)Math.ceil( xc - 0.5 );
+            }
+        }
+        for( int r = 0 ; r < h ; r++ ) {
+            Arrays.sort( cross, start[ r ], start[ r + 1 ] );
+        }
+        
+        rowStart = start;
+        crossings = cross;
+        tableWidth = w;
+        tableHeight = h;
+    }
+    
+    /**
+     * Returns the first row with its center at or below a y-coordinate
+     */
+    private static int firstRow( double y ) {
+        return (int)Math.ceil( y - 0.5 );
+    }
+//</editor-fold>
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[x=" + x + ",y=" + y + ",width=" + width + ",height=" + height + ",points=" + count + "]";
+    }
+    
+}
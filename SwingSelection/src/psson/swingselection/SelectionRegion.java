@@ -0,0 +1,699 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+
+/**
+ * An area of pixels made of rectangles, stored as sorted horizontal bands
+ * of sorted spans, like java.awt.geom.Area but on ints. Union, intersection
+ * and subtraction sweep both regions once, so they take time linear in the
+ * number of bands and spans. Containment is found by binary search, first
+ * for the band and then for the span. The arrays are reused between
+ * operations and only grow. Has no dependencies on AWT or Swing. Not thread
+ * safe.
+ * @author SwingSelection contributors
+ */
+public final class SelectionRegion {
+    
+    /**
+     * Receives the edges of the outline of a region
+     */
+    public interface EdgeConsumer {
+        
+        /**
+         * Invoked for every horizontal or vertical edge of the outline
+         * @param x0 x-coordinate of the start of the edge
+         * @param y0 y-coordinate of the start of the edge
+         * @param x1 x-coordinate of the end of the edge
+         * @param y1 y-coordinate of the end of the edge
+         */
+        public void edge( int x0, int y0, int x1, int y1 );
+    }
+    
+    // Ways of combining spans
+    private static final int OP_UNION = 0;
+    private static final int OP_INTERSECT = 1;
+    private static final int OP_SUBTRACT = 2;
+    private static final int OP_XOR = 3;
+    
+    // Band b covers the rows from top[b] up to bottom[b], with the spans
+    // from xs[spanStart[b]] up to xs[spanStart[b+1]], as pairs of the first
+    // pixel and the pixel after the last. Bands don't overlap, and
+    // neighbouring spans and bands are merged.
+    private int[] top;
+    private int[] bottom;
+    private int[] spanStart;
+    private int[] xs;
+    private int bandCount;
+    
+    // Receives the result of an operation, then swaps arrays with this
+    private SelectionRegion scratch;
+    
+    // Holds a rectangle for the rectangle operations
+    private SelectionRegion rect;
+    
+    // Holds spans merged from two bands
+    private int[] merged;
+    
+    /**
+     * Creates a new empty SelectionRegion
+     */
+    public SelectionRegion() {
+        top = new int[ 8 ];
+        bottom = new int[ 8 ];
+        spanStart = new int[ 9 ];
+        xs = new int[ 16 ];
+        merged = new int[ 16 ];
+        bandCount = 0;
+    }
+    
+    /**
+     * Creates a new SelectionRegion of a rectangle
+     * @param x x-coordinate of the rectangle
+     * @param y y-coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public SelectionRegion( int x, int y, int width, int height ) {
+        this();
+        set( x, y, width, height );
+    }
+    
+    /**
+     * Creates a copy of a SelectionRegion
+     * @param r the region to copy
+     */
+    public SelectionRegion( SelectionRegion r ) {
+        this();
+        set( r );
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    /**
+     * Checks whether the region contains any pixels
+     * @return true if the region is empty
+     */
+    public boolean isEmpty() {
+        return bandCount == 0;
+    }
+    
+    /**
+     * Returns the number of bands, the runs of rows that have the same spans
+     * @return the number of bands
+     */
+    public int getBandCount() {
+        return bandCount;
+    }
+    
+    /**
+     * Returns the number of spans in all bands
+     * @return the number of spans
+     */
+    public int getSpanCount() {
+        return spanStart[ bandCount ] / 2;
+    }
+    
+    /**
+     * Returns the x-coordinate of the bounding box
+     * @return the smallest x-coordinate of the region, 0 when empty
+     */
+    public int getX() {
+        
+        if( bandCount == 0 ) {
+            return 0;
+        }
+        
+        int x = Integer.MAX_VALUE;
+        for( int b = 0 ; b < bandCount ; b++ ) {
+            x = Math.min( x, xs[ spanStart[ b ] ] );
+        }
+        return x;
+    }
+    
+    /**
+     * Returns the y-coordinate of the bounding box
+     * @return the smallest y-coordinate of the region, 0 when empty
+     */
+    public int getY() {
+        return bandCount == 0 ? 0 : top[ 0 ];
+    }
+    
+    /**
+     * Returns the width of the bounding box
+     * @return the width, 0 when empty
+     */
+    public int getWidth() {
+        
+        if( bandCount == 0 ) {
+            return 0;
+        }
+        
+        int right = Integer.MIN_VALUE;
+        for( int b = 0 ; b < bandCount ; b++ ) {
+            right = Math.max( right, xs[ spanStart[ b + 1 ] - 1 ] );
+        }
+        return right - getX();
+    }
+    
+    /**
+     * Returns the height of the bounding box
+     * @return the height, 0 when empty
+     */
+    public int getHeight() {
+        return bandCount == 0 ? 0 : bottom[ bandCount - 1 ] - top[ 0 ];
+    }
+    
+    /**
+     * Checks if a pixel is inside the region
+     * @param x x-coordinate of the pixel
+     * @param y y-coordinate of the pixel
+     * @return true if the pixel is inside the region
+     */
+    public boolean contains( int x, int y ) {
+        
+        int b = bandAt( y );
+        if( b < 0 ) {
+            return false;
+        }
+        
+        // Last span edge at or left of x, inside when it starts a span
+        int lo = spanStart[ b ];
+        int hi = spanStart[ b + 1 ] - 1;
+        while( lo <= hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if( xs[ mid ] <= x ) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        
+        return hi >= spanStart[ b ] && ( ( hi - spanStart[ b ] ) & 1 ) == 0;
+    }
+    
+    /**
+     * Reports the pixels inside the region as runs along each row, in order
+     * from the top
+     * @param consumer receives the runs
+     */
+    public void getSpans( SpanConsumer consumer ) {
+        for( int b = 0 ; b < bandCount ; b++ ) {
+            for( int y = top[ b ] ; y < bottom[ b ] ; y++ ) {
+                for( int i = spanStart[ b ] ; i < spanStart[ b + 1 ] ; i += 2 ) {
+                    consumer.span( y, xs[ i ], xs[ i + 1 ] );
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reports the edges of the outline of the region. Vertical edges run
+     * along the sides of every span, horizontal edges along the parts of a
+     * band that differ from the band above or below.
+     * @param consumer receives the edges
+     */
+    public void getEdges( EdgeConsumer consumer ) {
+        
+        for( int b = 0 ; b < bandCount ; b++ ) {
+            
+            for( int i = spanStart[ b ] ; i < spanStart[ b + 1 ] ; i++ ) {
+                consumer.edge( xs[ i ], top[ b ], xs[ i ], bottom[ b ] );
+            }
+            
+            // Upper edge against the band above, if it touches
+            int n;
+            if( b > 0 && bottom[ b - 1 ] == top[ b ] ) {
+                n = mergeBands( this, b - 1, this, b, OP_XOR );
+            } else {
+                n = mergeBands( this, b, this, -1, OP_UNION );
+            }
+            for( int i = 0 ; i < n ; i += 2 ) {
+                consumer.edge( merged[ i ], top[ b ], merged[ i + 1 ], top[ b ] );
+            }
+            
+            // Lower edge, unless the band below touches and covers it
+            if( b == bandCount - 1 || top[ b + 1 ] != bottom[ b ] ) {
+                n = mergeBands( this, b, this, -1, OP_UNION );
+                for( int i = 0 ; i < n ; i += 2 ) {
+                    consumer.edge( merged[ i ], bottom[ b ], merged[ i + 1 ], bottom[ b ] );
+                }
+            }
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Operations">
+    /**
+     * Removes everything from the region
+     */
+    public void clear() {
+        bandCount = 0;
+    }
+    
+    /**
+     * Sets the region to a rectangle
+     * @param x x-coordinate of the rectangle
+     * @param y y-coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public void set( int x, int y, int width, int height ) {
+        
+        bandCount = 0;
+        
+        if( width > 0 && height > 0 ) {
+            top[ 0 ] = y;
+            bottom[ 0 ] = y + height;
+            spanStart[ 0 ] = 0;
+            xs[ 0 ] = x;
+            xs[ 1 ] = x + width;
+            spanStart[ 1 ] = 2;
+            bandCount = 1;
+        }
+    }
+    
+    /**
+     * Sets the region to a copy of another region
+     * @param r the region to copy
+     */
+    public void set( SelectionRegion r ) {
+        
+        if( r == this ) {
+            return;
+        }
+        
+        int spans = r.spanStart[ r.bandCount ];
+        ensureCapacity( r.bandCount, spans );
+        System.arraycopy( r.top, 0, top, 0, r.bandCount );
+        System.arraycopy( r.bottom, 0, bottom, 0, r.bandCount );
+        System.arraycopy( r.spanStart, 0, spanStart, 0, r.bandCount + 1 );
+        System.arraycopy( r.xs, 0, xs, 0, spans );
+        bandCount = r.bandCount;
+    }
+    
+    /**
+     * Moves the region
+     * @param dx distance to move horizontally
+     * @param dy distance to move vertically
+     */
+    public void translate( int dx, int dy ) {
+        for( int b = 0 ; b < bandCount ; b++ ) {
+            top[ b ] += dy;
+            bottom[ b ] += dy;
+        }
+        for( int i = 0, n = spanStart[ bandCount ] ; i < n ; i++ ) {
+            xs[ i ] += dx;
+        }
+    }
+    
+    /**
+     * Adds another region to this region
+     * @param r the region to add
+     */
+    public void union( SelectionRegion r ) {
+        combine( r, OP_UNION );
+    }
+    
+    /**
+     * Keeps only the parts of this region that are also in another region
+     * @param r the region to intersect with
+     */
+    public void intersect( SelectionRegion r ) {
+        combine( r, OP_INTERSECT );
+    }
+    
+    /**
+     * Removes the parts of this region that are in another region
+     * @param r the region to subtract
+     */
+    public void subtract( SelectionRegion r ) {
+        combine( r, OP_SUBTRACT );
+    }
+    
+    /**
+     * Adds a rectangle to the region
+     * @param x x-coordinate of the rectangle
+     * @param y y-coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public void add( int x, int y, int width, int height ) {
+        combine( rect( x, y, width, height ), OP_UNION );
+    }
+    
+    /**
+     * Keeps only the parts of the region inside a rectangle
+     * @param x x-coordinate of the rectangle
+     * @param y y-coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public void intersect( int x, int y, int width, int height ) {
+        combine( rect( x, y, width, height ), OP_INTERSECT );
+    }
+    
+    /**
+     * Removes a rectangle from the region
+     * @param x x-coordinate of the rectangle
+     * @param y y-coordinate of the rectangle
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public void subtract( int x, int y, int width, int height ) {
+        combine( rect( x, y, width, height ), OP_SUBTRACT );
+    }
+    
+    /**
+     * Adds a run of pixels along a row. Runs must be added in order, from
+     * the top and from the left within a row. A row is merged into the band
+     * above when the next row is started, or when the region is combined.
+     * @param y the row of the run
+     * @param x0 x-coordinate of the first pixel in the run
+     * @param x1 x-coordinate after the last pixel in the run
+     */
+    public void appendSpan( int y, int x0, int x1 ) {
+        
+        if( x0 >= x1 ) {
+            return;
+        }
+        
+        if( bandCount > 0 && top[ bandCount - 1 ] == y && bottom[ bandCount - 1 ] == y + 1 ) {
+            // Another run on the last row
+            int end = spanStart[ bandCount ];
+            if( xs[ end - 1 ] >= x0 ) {
+                xs[ end - 1 ] = Math.max( xs[ end - 1 ], x1 );
+            } else {
+                ensureCapacity( bandCount, end + 2 );
+                xs[ end ] = x0;
+                xs[ end + 1 ] = x1;
+                spanStart[ bandCount ] = end + 2;
+            }
+            return;
+        }
+        
+        if( bandCount > 0 && y < bottom[ bandCount - 1 ] ) {
+            throw new IllegalArgumentException( "Run added above the last row: " + y );
+        }
+        
+        // The last row is complete, merge it into the band above
+        if( bandCount > 1 ) {
+            mergeLastBand();
+        }
+        
+        int end = spanStart[ bandCount ];
+        ensureCapacity( bandCount + 1, end + 2 );
+        top[ bandCount ] = y;
+        bottom[ bandCount ] = y + 1;
+        xs[ end ] = x0;
+        xs[ end + 1 ] = x1;
+        bandCount++;
+        spanStart[ bandCount ] = end + 2;
+    }
+    
+    /**
+     * Merges the last band into the band above it if they touch and have
+     * the same spans. Called when a band is complete.
+     */
+    private void mergeLastBand() {
+        
+        int b = bandCount - 1;
+        if( b < 1 || bottom[ b - 1 ] != top[ b ] ) {
+            return;
+        }
+        
+        int n = spanStart[ b + 1 ] - spanStart[ b ];
+        if( n != spanStart[ b ] - spanStart[ b - 1 ] ) {
+            return;
+        }
+        for( int i = 0 ; i < n ; i++ ) {
+            if( xs[ spanStart[ b - 1 ] + i ] != xs[ spanStart[ b ] + i ] ) {
+                return;
+            }
+        }
+        
+        bottom[ b - 1 ] = bottom[ b ];
+        bandCount--;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Sweep">
+    /**
+     * Combines another region into this one. Both regions are swept from
+     * the top, one band is produced for every stretch of rows where neither
+     * region changes.
+     */
+    private void combine( SelectionRegion r, int op ) {
+        
+        // A trailing single row from appendSpan may still be unmerged
+        mergeLastBand();
+        r.mergeLastBand();
+        
+        if( scratch == null ) {
+            scratch = new SelectionRegion();
+        }
+        SelectionRegion out = scratch;
+        out.bandCount = 0;
+        out.spanStart[ 0 ] = 0;
+        
+        int na = bandCount;
+        int nb = r.bandCount;
+        int ia = 0;
+        int ib = 0;
+        int y = Math.min( na > 0 ? top[ 0 ] : Integer.MAX_VALUE, nb > 0 ? r.top[ 0 ] : Integer.MAX_VALUE );
+        
+        while( ia < na || ib < nb ) {
+            
+            boolean inA = ia < na && top[ ia ] <= y;
+            boolean inB = ib < nb && r.top[ ib ] <= y;
+            
+            // Next row where either region enters or leaves a band
+            int next = Integer.MAX_VALUE;
+            if( ia < na ) {
+                next = Math.min( next, inA ? bottom[ ia ] : top[ ia ] );
+            }
+            if( ib < nb ) {
+                next = Math.min( next, inB ? r.bottom[ ib ] : r.top[ ib ] );
+            }
+            
+            if( inA || inB ) {
+                int n = mergeBands( this, inA ? ia : -1, r, inB ? ib : -1, op );
+                out.appendBand( y, next, merged, n );
+            }
+            
+            y = next;
+            if( ia < na && bottom[ ia ] <= y ) {
+                ia++;
+            }
+            if( ib < nb && r.bottom[ ib ] <= y ) {
+                ib++;
+            }
+        }
+        
+        swap( out );
+    }
+    
+    /**
+     * Combines the spans of a band of one region with a band of another
+     * into the merged array. A band number of -1 stands for no spans.
+     * @return number of span edges stored in merged
+     */
+    private int mergeBands( SelectionRegion a, int ba, SelectionRegion b, int bb, int op ) {
+        
+        int i = ba < 0 ? 0 : a.spanStart[ ba ];
+        int ia = ba < 0 ? 0 : a.spanStart[ ba + 1 ];
+        int j = bb < 0 ? 0 : b.spanStart[ bb ];
+        int jb = bb < 0 ? 0 : b.spanStart[ bb + 1 ];
+        
+        if( merged.length < ia - i + jb - j ) {
+            merged = new int[ Math.max( merged.length * 2, ia - i + jb - j ) ];
+        }
+        
+        boolean inA = false;
+        boolean inB = false;
+        boolean wasIn = false;
+        int n = 0;
+        
+        // Walk the span edges of both bands from the left
+        while( i < ia || j < jb ) {
+            
+            int xa = i < ia ? a.xs[ i ] : Integer.MAX_VALUE;
+            int xb = j < jb ? b.xs[ j ] : Integer.MAX_VALUE;
+            int x = Math.min( xa, xb );
+            
+            if( xa == x ) {
+                inA = !inA;
+                i++;
+            }
+            if( xb == x ) {
+                inB = !inB;
+                j++;
+            }
+            
+            boolean in;
+            switch( op ) {
+                case OP_UNION:
+                    in = inA || inB;
+                    break;
+                case OP_INTERSECT:
+                    in = inA && inB;
+                    break;
+                case OP_SUBTRACT:
+                    in = inA && !inB;
+                    break;
+                default:
+                    in = inA != inB;
+                    break;
+            }
+            
+            if( in != wasIn ) {
+                merged[ n++ ] = x;
+                wasIn = in;
+            }
+        }
+        
+        return n;
+    }
+    
+    /**
+     * Appends a band, merging it with the band above when they touch and
+     * have the same spans
+     */
+    private void appendBand( int y0, int y1, int[] spans, int n ) {
+        
+        if( n == 0 ) {
+            return;
+        }
+        
+        int end = spanStart[ bandCount ];
+        ensureCapacity( bandCount + 1, end + n );
+        top[ bandCount ] = y0;
+        bottom[ bandCount ] = y1;
+        System.arraycopy( spans, 0, xs, end, n );
+        bandCount++;
+        spanStart[ bandCount ] = end + n;
+        
+        mergeLastBand();
+    }
+    
+    /**
+     * Exchanges the arrays of this region with another
+     */
+    private void swap( SelectionRegion r ) {
+        
+        int[] t = top;
+        top = r.top;
+        r.top = t;
+        
+        t = bottom;
+        bottom = r.bottom;
+        r.bottom = t;
+        
+        t = spanStart;
+        spanStart = r.spanStart;
+        r.spanStart = t;
+        
+        t = xs;
+        xs = r.xs;
+        r.xs = t;
+        
+        int n = bandCount;
+        bandCount = r.bandCount;
+        r.bandCount = n;
+    }
+    
+    /**
+     * Returns the rectangle region, set to a rectangle
+     */
+    private SelectionRegion rect( int x, int y, int width, int height ) {
+        if( rect == null ) {
+            rect = new SelectionRegion();
+        }
+        rect.set( x, y, width, height );
+        return rect;
+    }
+    
+    /**
+     * Grows the arrays to hold a number of bands and span edges
+     */
+    private void ensureCapacity( int bands, int spans ) {
+        if( bands > top.length ) {
+            int size = Math.max( bands, top.length * 2 );
+            top = Arrays.copyOf( top, size );
+            bottom = Arrays.copyOf( bottom, size );
+            spanStart = Arrays.copyOf( spanStart, size + 1 );
+        }
+        if( spans > xs.length ) {
+            xs = Arrays.copyOf( xs, Math.max( spans, xs.length * 2 ) );
+        }
+    }
+    
+    /**
+     * Returns the band containing a row
+     * @param y the row
+     * @return the band number, or -1 if no band contains the row
+     */
+    int bandAt( int y ) {
+        
+        int lo = 0;
+        int hi = bandCount - 1;
+        while( lo <= hi ) {
+            int mid = ( lo + hi ) >>> 1;
+            if( bottom[ mid ] <= y ) {
+                lo = mid + 1;
+            } else if( top[ mid ] > y ) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        
+        return -1;
+    }
+    
+    int getSpanStart( int band ) {
+        return spanStart[ band ];
+    }
+    
+    int getSpanEnd( int band ) {
+        return spanStart[ band + 1 ];
+    }
+    
+    /**
+     * Returns a span edge
+     * @param i index of the edge, even for the start of a span
+     * @return x-coordinate of the edge
+     */
+    int getSpanEdge( int i ) {
+        return xs[ i ];
+    }
+//</editor-fold>
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[x=" + getX() + ",y=" + getY() + ",width=" + getWidth() + ",height=" + getHeight()
+                + ",bands=" + bandCount + ",spans=" + getSpanCount() + "]";
+    }
+    
+}
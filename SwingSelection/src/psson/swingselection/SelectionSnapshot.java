@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+
+/**
+ * An immutable snapshot of the size and position of a SwingSelection, safe to
+ * share between threads. The version increases every time the bounds of the
+ * selection are set, so two snapshots with the same version have the same
+ * bounds.
+ * @author SwingSelection contributors
+ */
+public final class SelectionSnapshot {
+    
+    private final int x, y, width, height;
+    private final long version;
+    
+    /**
+     * Creates a new SelectionSnapshot
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @param version version of the selection bounds
+     */
+    public SelectionSnapshot( int x, int y, int width, int height, long version ) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.version = version;
+    }
+    
+    public int getX() {
+        return x;
+    }
+    
+    public int getY() {
+        return y;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Returns the version of the selection bounds in the snapshot
+     * @return the version, increasing with every change of the selection
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Checks whether the snapshot contains the provided coordinates
+     * @param px the x coordinate to check
+     * @param py the y coordinate to check
+     * @return true if px,py is inside the selection
+     */
+    public boolean contains( int px, int py ) {
+        return px >= x && px < x + width && py >= y && py < y + height;
+    }
+    
+    /**
+     * Returns the bounds in the snapshot
+     * @return a new Rectangle with the size and position of the selection
+     */
+    public Rectangle getBounds() {
+        return new Rectangle( x, y, width, height );
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[x=" + x + ",y=" + y + ",width=" + width + ",height=" + height + ",version=" + version + "]";
+    }
+    
+}
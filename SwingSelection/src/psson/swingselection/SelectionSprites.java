@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered images of the selection handles and of the dashes of a
+ * marching ants border. Each image is rendered once per style, scale and
+ * device configuration of the Graphics it is painted with, so that painting
+ * a selection is a few
+ * image copies. Only used on the event dispatch thread.
+ * @author SwingSelection contributors
+ */
+final class SelectionSprites {
+    
+    static final int STYLE_HANDLE = 0;
+    static final int STYLE_DASHES_HORIZONTAL = 1;
+    static final int STYLE_DASHES_VERTICAL = 2;
+    private static final int STYLE_COUNT = 3;
+    
+    // Images kept per style, the oldest is replaced when another scale,
+    // device or handle size is needed
+    static final int CACHE_SIZE = 4;
+    
+    // Length of one dash and one gap
+    private static final int PERIOD = 2 * MarchingAntsBorder.DASH_LENGTH;
+    
+    // Length of the dashes copied at a time, the tiles are one period longer
+    // so that they can be copied from any phase
+    static final int TILE_LENGTH = 32 * PERIOD;
+    
+    // Created up front, so it is the same for every thread
+    private static final SelectionSprites shared = new SelectionSprites();
+    
+    // Indexed by style * CACHE_SIZE + entry
+    private final BufferedImage[] images;
+    private final double[] scales;
+    private final int[] sizes;
+    private final GraphicsConfiguration[] configs;
+    
+    // Entry to replace next for each style
+    private final int[] next;
+    
+    SelectionSprites() {
+        images = new BufferedImage[ STYLE_COUNT * CACHE_SIZE ];
+        scales = new double[ STYLE_COUNT * CACHE_SIZE ];
+        sizes = new int[ STYLE_COUNT * CACHE_SIZE ];
+        configs = new GraphicsConfiguration[ STYLE_COUNT * CACHE_SIZE ];
+        next = new int[ STYLE_COUNT ];
+    }
+    
+    /**
+     * Returns the sprites shared by all selections
+     * @return the shared SelectionSprites
+     */
+    static SelectionSprites getShared() {
+        return shared;
+    }
+    
+    /**
+     * Paints a handle, a white square with a black edge
+     * @param g the Graphics to paint with
+     * @param x x-coordinate of the handle
+     * @param y y-coordinate of the handle
+     * @param size width and height of the handle
+     */
+    void paintHandle( Graphics g, int x, int y, int size ) {
+        
+        BufferedImage img = getImage( g, STYLE_HANDLE, size );
+        g.drawImage( img, x, y, x + size, y + size, 0, 0, img.getWidth(), img.getHeight(), null );
+    }
+    
+    /**
+     * Paints a one pixel wide line of black dashes on white. Along the line,
+     * pixel i is black if ( i + offset ) modulo twice the dash length is
+     * less than the dash length.
+     * @param g the Graphics to paint with
+     * @param x x-coordinate of the start of the line
+     * @param y y-coordinate of the start of the line
+     * @param length length of the line
+     * @param horizontal true for a line to the right, false for a line down
+     * @param offset phase of the dashes at the start of the line
+     */
+    void paintDashes( Graphics g, int x, int y, int length, boolean horizontal, int offset ) {
+        
+        BufferedImage img = getImage( g, horizontal ? STYLE_DASHES_HORIZONTAL : STYLE_DASHES_VERTICAL, 1 );
+        double scale = horizontal ? (double)img.getWidth() / ( TILE_LENGTH + PERIOD ) : (double)img.getHeight() / ( TILE_LENGTH + PERIOD );
+        int start = Math.floorMod( offset, PERIOD );
+        int s0 = (int)Math.round( start * scale );
+        
+        while( length > 0 ) {
+            // Every piece but the last is whole periods, so each piece starts
+            // at the same phase
+            int n = Math.min( length, TILE_LENGTH );
+            int s1 = (int)Math.round( ( start + n ) * scale );
+            if( horizontal ) {
+                g.drawImage( img, x, y, x + n, y + 1, s0, 0, s1, img.getHeight(), null );
+                x += n;
+            } else {
+                g.drawImage( img, x, y, x + 1, y + n, 0, s0, img.getWidth(), s1, null );
+                y += n;
+            }
+            length -= n;
+        }
+    }
+    
+    /**
+     * Returns the image of a style, rendering it if it isn't cached for the
+     * scale and device configuration of g
+     * @param g the Graphics the image will be painted with
+     * @param style one of the style constants
+     * @param size size of the style, the handle size for handles
+     * @return the image
+     */
+    BufferedImage getImage( Graphics g, int style, int size ) {
+        
+        double scale = getScale( g );
+        GraphicsConfiguration gc = g instanceof Graphics2D ? ( (Graphics2D)g ).getDeviceConfiguration() : null;
+        int first = style * CACHE_SIZE;
+        
+        for( int i = first ; i < first + CACHE_SIZE ; i++ ) {
+            if( images[ i ] != null && scales[ i ] == scale && sizes[ i ] == size && configs[ i ] == gc ) {
+                return images[ i ];
+            }
+        }
+        
+        int i = first + next[ style ];
+        next[ style ] = ( next[ style ] + 1 ) % CACHE_SIZE;
+        
+        images[ i ] = render( gc, style, size, scale );
+        scales[ i ] = scale;
+        sizes[ i ] = size;
+        configs[ i ] = gc;
+        return images[ i ];
+    }
+    
+    /**
+     * Returns the scale from user space to device pixels of a Graphics,
+     * rounded to quarters so that small differences share images
+     */
+    private static double getScale( Graphics g ) {
+        
+        if( !( g instanceof Graphics2D ) ) {
+            return 1;
+        }
+        
+        double s = Math.abs( ( (Graphics2D)g ).getTransform().getScaleX() );
+        return Math.max( 1, Math.round( s * 4 ) ) / 4.0;
+    }
+    
+    /**
+     * Renders the image of a style in device pixels
+     */
+    private static BufferedImage render( GraphicsConfiguration gc, int style, int size, double scale ) {
+        
+        int w, h;
+        switch( style ) {
+            case STYLE_HANDLE:
+                w = size;
+                h = size;
+                break;
+            case STYLE_DASHES_HORIZONTAL:
+                w = TILE_LENGTH + PERIOD;
+                h = 1;
+                break;
+            default:
+                w = 1;
+                h = TILE_LENGTH + PERIOD;
+                break;
+        }
+        
+        int iw = Math.max( 1, (int)Math.ceil( w * scale ) );
+        int ih = Math.max( 1, (int)Math.ceil( h * scale ) );
+        BufferedImage img = gc != null ? gc.createCompatibleImage( iw, ih, Transparency.OPAQUE )
+                : new BufferedImage( iw, ih, BufferedImage.TYPE_INT_RGB );
+        
+        Graphics2D g = img.createGraphics();
+        try {
+            g.scale( scale, scale );
+            g.setColor( Color.black );
+            g.fillRect( 0, 0, w, h );
+            g.setColor( Color.white );
+            if( style == STYLE_HANDLE ) {
+                g.fillRect( 1, 1, w - 2, h - 2 );
+            } else {
+                // Gaps after the dashes
+                for( int i = MarchingAntsBorder.DASH_LENGTH ; i < w + h ; i += PERIOD ) {
+                    if( style == STYLE_DASHES_HORIZONTAL ) {
+                        g.fillRect( i, 0, MarchingAntsBorder.DASH_LENGTH, 1 );
+                    } else {
+                        g.fillRect( 0, i, 1, MarchingAntsBorder.DASH_LENGTH );
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        
+        return img;
+    }
+    
+}
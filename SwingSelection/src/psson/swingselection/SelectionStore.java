@@ -0,0 +1,330 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * A large set of rectangular selections stored as columns of ints, one array
+ * per coordinate. Bulk operations run in parallel over chunks of the columns
+ * on the common fork/join pool, without creating an object per selection.
+ * Small stores are processed on the calling thread. The store is not thread
+ * safe, it must not be changed while a bulk operation runs.
+ * @author SwingSelection contributors
+ */
+public final class SelectionStore {
+    
+    // Number of selections processed by one task in a bulk operation
+    static final int CHUNK_SIZE = 16384;
+    
+    private int[] xs, ys, widths, heights;
+    private int size;
+    
+    /**
+     * Creates a new empty SelectionStore
+     */
+    public SelectionStore() {
+        this( 64 );
+    }
+    
+    /**
+     * Creates a new empty SelectionStore with room for a number of selections
+     * @param capacity number of selections to allocate room for
+     */
+    public SelectionStore( int capacity ) {
+        capacity = Math.max( 1, capacity );
+        xs = new int[ capacity ];
+        ys = new int[ capacity ];
+        widths = new int[ capacity ];
+        heights = new int[ capacity ];
+        size = 0;
+    }
+    
+//<editor-fold defaultstate="collapsed" desc="Access functions">
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Adds a selection to the store
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     * @return the index of the selection
+     */
+    public int add( int x, int y, int width, int height ) {
+        
+        if( size == xs.length ) {
+            int capacity = size * 2;
+            xs = Arrays.copyOf( xs, capacity );
+            ys = Arrays.copyOf( ys, capacity );
+            widths = Arrays.copyOf( widths, capacity );
+            heights = Arrays.copyOf( heights, capacity );
+        }
+        
+        set( size, x, y, width, height );
+        return size++;
+    }
+    
+    /**
+     * Adds the bounds of a selection geometry to the store
+     * @param g the geometry
+     * @return the index of the selection
+     */
+    public int add( SelectionGeometry g ) {
+        return add( g.getX(), g.getY(), g.getWidth(), g.getHeight() );
+    }
+    
+    /**
+     * Sets the bounds of a selection in the store
+     * @param index index of the selection
+     * @param x x-coordinate of the selection
+     * @param y y-coordinate of the selection
+     * @param width width of the selection
+     * @param height height of the selection
+     */
+    public void set( int index, int x, int y, int width, int height ) {
+        xs[ index ] = x;
+        ys[ index ] = y;
+        widths[ index ] = width;
+        heights[ index ] = height;
+    }
+    
+    public int getX( int index ) {
+        return xs[ index ];
+    }
+    
+    public int getY( int index ) {
+        return ys[ index ];
+    }
+    
+    public int getWidth( int index ) {
+        return widths[ index ];
+    }
+    
+    public int getHeight( int index ) {
+        return heights[ index ];
+    }
+    
+    /**
+     * Copies the bounds of a selection in the store to a selection geometry
+     * @param index index of the selection
+     * @param g the geometry to set the bounds of
+     */
+    public void copyTo( int index, SelectionGeometry g ) {
+        g.setBounds( xs[ index ], ys[ index ], widths[ index ], heights[ index ] );
+    }
+    
+    /**
+     * Removes all selections, the columns keep their capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Bulk operations">
+    /**
+     * Moves all selections
+     * @param dx distance to move horizontally
+     * @param dy distance to move vertically
+     */
+    public void translate( final int dx, final int dy ) {
+        
+        final int[] x = xs;
+        final int[] y = ys;
+        
+        forEachChunk( new ChunkTask() {
+            @Override
+            public void run( int from, int to ) {
+                for( int i = from ; i < to ; i++ ) {
+                    x[ i ] += dx;
+                    y[ i ] += dy;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Scales all selections relative to the origin. The edges are scaled and
+     * rounded, so selections sharing an edge still do after scaling.
+     * @param sx horizontal scale factor
+     * @param sy vertical scale factor
+     */
+    public void scale( final double sx, final double sy ) {
+        
+        final int[] x = xs;
+        final int[] y = ys;
+        final int[] w = widths;
+        final int[] h = heights;
+        
+        forEachChunk( new ChunkTask() {
+            @Override
+            public void run( int from, int to ) {
+                for( int i = from ; i < to ; i++ ) {
+                    int left = (int)Math.round( x[ i ] * sx );
+                    int top = (int)Math.round( y[ i ] * sy );
+                    w[ i ] = (int)Math.round( ( x[ i ] + w[ i ] ) * sx ) - left;
+                    h[ i ] = (int)Math.round( ( y[ i ] + h[ i ] ) * sy ) - top;
+                    x[ i ] = left;
+                    y[ i ] = top;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Moves all selections inside an area starting at the origin, in the same
+     * way as a SwingSelection staying inside its Container
+     * @param areaWidth width of the area
+     * @param areaHeight height of the area
+     */
+    public void clampTo( final int areaWidth, final int areaHeight ) {
+        
+        final int[] x = xs;
+        final int[] y = ys;
+        final int[] w = widths;
+        final int[] h = heights;
+        
+        forEachChunk( new ChunkTask() {
+            @Override
+            public void run( int from, int to ) {
+                for( int i = from ; i < to ; i++ ) {
+                    x[ i ] = SelectionGeometry.clamp( x[ i ], w[ i ], areaWidth );
+                    y[ i ] = SelectionGeometry.clamp( y[ i ], h[ i ], areaHeight );
+                }
+            }
+        });
+    }
+    
+    /**
+     * Intersects all selections with a rectangle. Selections outside the
+     * rectangle keep a position on its edge with a width or height of 0.
+     * @param rx x-coordinate of the rectangle
+     * @param ry y-coordinate of the rectangle
+     * @param rw width of the rectangle
+     * @param rh height of the rectangle
+     */
+    public void intersect( final int rx, final int ry, final int rw, final int rh ) {
+        
+        final int[] x = xs;
+        final int[] y = ys;
+        final int[] w = widths;
+        final int[] h = heights;
+        
+        forEachChunk( new ChunkTask() {
+            @Override
+            public void run( int from, int to ) {
+                for( int i = from ; i < to ; i++ ) {
+                    int left = Math.max( x[ i ], rx );
+                    int top = Math.max( y[ i ], ry );
+                    int right = Math.min( x[ i ] + w[ i ], rx + rw );
+                    int bottom = Math.min( y[ i ] + h[ i ], ry + rh );
+                    x[ i ] = Math.min( left, rx + rw );
+                    y[ i ] = Math.min( top, ry + rh );
+                    w[ i ] = Math.max( 0, right - left );
+                    h[ i ] = Math.max( 0, bottom - top );
+                }
+            }
+        });
+    }
+    
+    /**
+     * Counts the selections that overlap a rectangle
+     * @param rx x-coordinate of the rectangle
+     * @param ry y-coordinate of the rectangle
+     * @param rw width of the rectangle
+     * @param rh height of the rectangle
+     * @return the number of selections with a non-empty intersection
+     */
+    public int countIntersecting( final int rx, final int ry, final int rw, final int rh ) {
+        
+        final int[] x = xs;
+        final int[] y = ys;
+        final int[] w = widths;
+        final int[] h = heights;
+        final int n = size;
+        
+        return chunks().map( new IntUnaryOperator() {
+            @Override
+            public int applyAsInt( int chunk ) {
+                int count = 0;
+                int to = Math.min( n, ( chunk + 1 ) * CHUNK_SIZE );
+                for( int i = chunk * CHUNK_SIZE ; i < to ; i++ ) {
+                    if( w[ i ] > 0 && h[ i ] > 0 && x[ i ] < rx + rw && x[ i ] + w[ i ] > rx
+                            && y[ i ] < ry + rh && y[ i ] + h[ i ] > ry ) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        }).sum();
+    }
+    
+    /**
+     * A bulk operation on a range of the columns
+     */
+    private interface ChunkTask {
+        
+        /**
+         * Processes the selections from index from, inclusive, to index to,
+         * exclusive
+         */
+        void run( int from, int to );
+    }
+    
+    /**
+     * Runs a task over all selections, in parallel chunks if there are more
+     * than one chunk
+     */
+    private void forEachChunk( final ChunkTask task ) {
+        
+        final int n = size;
+        
+        chunks().forEach( new IntConsumer() {
+            @Override
+            public void accept( int chunk ) {
+                task.run( chunk * CHUNK_SIZE, Math.min( n, ( chunk + 1 ) * CHUNK_SIZE ) );
+            }
+        });
+    }
+    
+    /**
+     * Returns the chunk numbers, as a parallel stream unless there is only
+     * one chunk
+     */
+    private IntStream chunks() {
+        
+        int count = ( size + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+        IntStream chunks = IntStream.range( 0, count );
+        
+        return count > 1 ? chunks.parallel() : chunks;
+    }
+//</editor-fold>
+    
+}
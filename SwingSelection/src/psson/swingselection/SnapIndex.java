@@ -0,0 +1,261 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Positions a SwingSelection snaps to while it is dragged: a pixel grid,
+ * vertical and horizontal guide lines and the edges of other objects.
+ * Coordinates are relative to the Container of the selection. The lines are
+ * kept in sorted int arrays, so finding the nearest one is a binary search
+ * regardless of how many there are. Like Swing, the index should only be
+ * used from the event dispatch thread.
+ * @author SwingSelection contributors
+ */
+public final class SnapIndex {
+    
+    // Returned by delta when nothing is within the threshold
+    private static final int NO_SNAP = Integer.MIN_VALUE;
+    
+    private final int threshold;
+    private int gridSpacing;
+    
+    private final Axis xAxis;
+    private final Axis yAxis;
+    
+    /**
+     * Creates a new SnapIndex without a grid or lines
+     * @param threshold largest distance in pixels a coordinate is moved to snap
+     */
+    public SnapIndex( int threshold ) {
+        this.threshold = Math.max( 0, threshold );
+        gridSpacing = 0;
+        xAxis = new Axis();
+        yAxis = new Axis();
+    }
+    
+    public int getThreshold() {
+        return threshold;
+    }
+    
+    /**
+     * Sets the spacing of the grid, with lines at every multiple of spacing
+     * @param spacing distance between grid lines in pixels, 0 for no grid
+     */
+    public void setGridSpacing( int spacing ) {
+        gridSpacing = Math.max( 0, spacing );
+    }
+    
+    public int getGridSpacing() {
+        return gridSpacing;
+    }
+    
+    /**
+     * Adds a vertical line that x-coordinates snap to
+     * @param x x-coordinate of the line
+     */
+    public void addVerticalLine( int x ) {
+        xAxis.add( x );
+    }
+    
+    /**
+     * Adds a horizontal line that y-coordinates snap to
+     * @param y y-coordinate of the line
+     */
+    public void addHorizontalLine( int y ) {
+        yAxis.add( y );
+    }
+    
+    /**
+     * Adds the four edges of an object as lines to snap to
+     * @param r the bounds of the object
+     */
+    public void addEdges( Rectangle r ) {
+        xAxis.add( r.x );
+        xAxis.add( r.x + r.width );
+        yAxis.add( r.y );
+        yAxis.add( r.y + r.height );
+    }
+    
+    /**
+     * Removes all lines, the grid is kept
+     */
+    public void clear() {
+        xAxis.clear();
+        yAxis.clear();
+    }
+    
+    /**
+     * Snaps an x-coordinate to the nearest grid or vertical line within the
+     * threshold
+     * @param x the coordinate
+     * @return the snapped coordinate, or x if nothing is close enough
+     */
+    public int snapX( int x ) {
+        int d = delta( xAxis, x );
+        return d == NO_SNAP ? x : x + d;
+    }
+    
+    /**
+     * Snaps a y-coordinate to the nearest grid or horizontal line within the
+     * threshold
+     * @param y the coordinate
+     * @return the snapped coordinate, or y if nothing is close enough
+     */
+    public int snapY( int y ) {
+        int d = delta( yAxis, y );
+        return d == NO_SNAP ? y : y + d;
+    }
+    
+    /**
+     * Returns how far an object should be moved horizontally to snap either
+     * its left or right edge, whichever is closer to a line
+     * @param left x-coordinate of the left edge
+     * @param right x-coordinate of the right edge
+     * @return the distance to move, 0 if no edge is close enough
+     */
+    public int snapOffsetX( int left, int right ) {
+        return closest( delta( xAxis, left ), delta( xAxis, right ) );
+    }
+    
+    /**
+     * Returns how far an object should be moved vertically to snap either
+     * its upper or lower edge, whichever is closer to a line
+     * @param top y-coordinate of the upper edge
+     * @param bottom y-coordinate of the lower edge
+     * @return the distance to move, 0 if no edge is close enough
+     */
+    public int snapOffsetY( int top, int bottom ) {
+        return closest( delta( yAxis, top ), delta( yAxis, bottom ) );
+    }
+    
+    /**
+     * Returns the shortest of two snap distances
+     * @return the distance, 0 if neither snaps
+     */
+    private static int closest( int d1, int d2 ) {
+        
+        if( d1 == NO_SNAP ) {
+            return d2 == NO_SNAP ? 0 : d2;
+        } else if( d2 == NO_SNAP ) {
+            return d1;
+        }
+        
+        return Math.abs( d2 ) < Math.abs( d1 ) ? d2 : d1;
+    }
+    
+    /**
+     * Returns the distance from a coordinate to the nearest grid or index
+     * line within the threshold
+     * @param axis the lines along the axis of the coordinate
+     * @param v the coordinate
+     * @return the signed distance, or NO_SNAP if nothing is close enough
+     */
+    private int delta( Axis axis, int v ) {
+        
+        int best = axis.nearest( v );
+        
+        if( gridSpacing > 0 ) {
+            int offset = Math.floorMod( v, gridSpacing );
+            int grid = offset <= gridSpacing / 2 ? -offset : gridSpacing - offset;
+            if( best == NO_SNAP || Math.abs( grid ) < Math.abs( best ) ) {
+                best = grid;
+            }
+        }
+        
+        if( best == NO_SNAP || Math.abs( best ) > threshold ) {
+            return NO_SNAP;
+        }
+        
+        return best;
+    }
+    
+    /**
+     * Sorted coordinates of the lines along one axis. Added coordinates are
+     * appended and the array is sorted on the next lookup.
+     */
+    private static final class Axis {
+        
+        private int[] values;
+        private int count;
+        private boolean sorted;
+        
+        Axis() {
+            values = new int[ 16 ];
+            count = 0;
+            sorted = true;
+        }
+        
+        void add( int v ) {
+            if( count == values.length ) {
+                values = Arrays.copyOf( values, count * 2 );
+            }
+            values[ count++ ] = v;
+            sorted = false;
+        }
+        
+        void clear() {
+            count = 0;
+            sorted = true;
+        }
+        
+        /**
+         * Returns the signed distance from v to the nearest line
+         * @param v the coordinate
+         * @return the distance, or NO_SNAP if there are no lines
+         */
+        int nearest( int v ) {
+            
+            if( count == 0 ) {
+                return NO_SNAP;
+            }
+            
+            if( !sorted ) {
+                Arrays.sort( values, 0, count );
+                sorted = true;
+            }
+            
+            int i = Arrays.binarySearch( values, 0, count, v );
+            if( i >= 0 ) {
+                return 0;
+            }
+            
+            // Lines on both sides of the insertion point
+            i = -i - 1;
+            if( i == count ) {
+                return values[ count - 1 ] - v;
+            } else if( i == 0 ) {
+                return values[ 0 ] - v;
+            }
+            
+            int below = values[ i - 1 ] - v;
+            int above = values[ i ] - v;
+            
+            return -below <= above ? below : above;
+        }
+    }
+    
+}
@@ -24,15 +24,51 @@
 package psson.swingselection;
 
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Container;
 import java.awt.Cursor;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.Point;
+import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.swing.border.Border;
+import javax.swing.border.LineBorder;
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
 import javax.swing.BorderFactory;
+import javax.swing.InputMap;
 import javax.swing.JComponent;
+import javax.swing.JLayer;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 /**
  * The SwingSelection class provides a simple way of making selections in a
@@ -43,43 +79,256 @@ public class SwingSelection {
     
 //<editor-fold defaultstate="collapsed" desc="Members and constructors">
     
-    private static final int NUM_SELECTION_HANDLES = 9;
-    private static final int SELECTION_HANDLE_SIZE = 3;
+    private static final int SELECTION_HANDLE_SIZE = SelectionGeometry.DEFAULT_HANDLE_SIZE;
     
-    private static final int NOT_IN_HANDLE = 0;
-    private static final int UPPER_LEFT_HANDLE = 1;
-    private static final int UPPER_RIGHT_HANDLE = 2;
-    private static final int LOWER_LEFT_HANDLE = 3;
-    private static final int LOWER_RIGHT_HANDLE = 4;
-    private static final int UPPER_EDGE_HANDLE = 5;
-    private static final int LOWER_EDGE_HANDLE = 6;
-    private static final int LEFT_EDGE_HANDLE = 7;
-    private static final int RIGHT_EDGE_HANDLE = 8;
+    // Handles, as numbered by SelectionGeometry
+    private static final int NOT_IN_HANDLE = SelectionGeometry.NOT_IN_HANDLE;
+    private static final int UPPER_LEFT_HANDLE = SelectionGeometry.UPPER_LEFT_HANDLE;
+    private static final int UPPER_RIGHT_HANDLE = SelectionGeometry.UPPER_RIGHT_HANDLE;
+    private static final int LOWER_LEFT_HANDLE = SelectionGeometry.LOWER_LEFT_HANDLE;
+    private static final int LOWER_RIGHT_HANDLE = SelectionGeometry.LOWER_RIGHT_HANDLE;
+    private static final int UPPER_EDGE_HANDLE = SelectionGeometry.UPPER_EDGE_HANDLE;
+    private static final int LOWER_EDGE_HANDLE = SelectionGeometry.LOWER_EDGE_HANDLE;
+    private static final int LEFT_EDGE_HANDLE = SelectionGeometry.LEFT_EDGE_HANDLE;
+    private static final int RIGHT_EDGE_HANDLE = SelectionGeometry.RIGHT_EDGE_HANDLE;
+    
+    // Largest coordinate relative to the Container in world mode, the
+    // selection is cut off beyond this to keep the int math from overflowing
+    private static final int MAX_CONTAINER_COORD = 1 << 29;
+    
+    // Time between frames when drag events are coalesced, in milliseconds
+    static final int FRAME_INTERVAL = 16;
+    
+    // Time without key presses that ends a burst of keys when the release of
+    // the key is missed, in nanoseconds. Longer than the delay before keys
+    // start to repeat, which is up to a second on common platforms.
+    static final long KEY_IDLE_NANOS = 1000000000L;
+    
+    // Client property of the Container holding the selections with key
+    // bindings on it, the last one receives the keys
+    private static final String KEY_OWNERS = "swingSelection.keyOwners";
+    
+    /** A rectangular selection */
+    public static final int SHAPE_RECTANGLE = 0;
+    /** An elliptical selection, inscribed in the bounds */
+    public static final int SHAPE_ELLIPSE = 1;
+    /** A polygon selection, set with setPolygon */
+    public static final int SHAPE_POLYGON = 2;
+    /** A freehand selection, drawn by dragging along its outline */
+    public static final int SHAPE_LASSO = 3;
+    /** A selection built by adding and subtracting shapes, see setRegion */
+    public static final int SHAPE_REGION = 4;
+    
+    // How a selection drawn with the mouse is combined with the previous one
+    private static final int COMBINE_NONE = 0;
+    private static final int COMBINE_ADD = 1;
+    private static final int COMBINE_SUBTRACT = 2;
+    
+    // Distance in pixels a lasso stroke may deviate from a straight line
+    // before a new corner is kept
+    private static final int LASSO_TOLERANCE = 2;
+    
+    // Rows per band when masks are filled in parallel
+    static final int MASK_BAND_HEIGHT = 64;
+    
+    // Auto-scroll speed in pixels per second for every pixel the pointer is
+    // past the edge of the viewport, and the highest speed
+    static final int AUTO_SCROLL_RATE = 10;
+    private static final int AUTO_SCROLL_MAX_SPEED = 4000;
     
     
     private final Container c;
-    private final Rectangle[] handles;
     private final InternalSelection mySel;
     
     private final SelectionMouseAdapter listener;
+    private final SelectionKeyHandler keyHandler;
+    private final SelectionEventDispatcher dispatcher;
+    
+    // Animated transitions and marching ants, run by the shared scheduler.
+    // Null until first used.
+    private SelectionAnimator animator;
+    private MarchingAnts ants;
+    
+    // Paints the selection when no component is added to the Container
+    private final SelectionLayerUI<?> painter;
+    
+    // Transform to world coordinates, null unless in world mode
+    private ViewTransform transform;
+    
+    // Viewport scrolling the Container in world mode, null until attached
+    private JViewport viewport;
+    private final ChangeListener viewportListener;
+    
+    // Scratch rectangles used when calculating dirty regions
+    private final Rectangle oldBounds;
+    private final Rectangle dirty;
+    private final Insets insets;
+    
+    // With border only repaint the component covers the Container, the
+    // listener keeps it covering when the Container is resized
+    private boolean borderOnlyRepaint;
+    private final ComponentListener resizeListener;
+    
+    // Bounds published for other threads, guarded by a sequence number that
+    // is odd while the bounds are written. Only written on the EDT.
+    private volatile long sequence;
+    private volatile int pubX, pubY, pubWidth, pubHeight;
+    private final AtomicReference<SelectionSnapshot> lastSnapshot;
+    
+    // Size of the selection handles, also used as extra margin around the
+    // selection in every repaint to leave room for the handles
+    private int handleSize;
+    private boolean handlesVisible;
+    
+    // Positions to snap to when dragging, null for no snapping
+    private SnapIndex snapIndex;
+    
+    // Undo history the changes are recorded in, null for no history
+    private SelectionHistory history;
+    private int historyId;
+    private final SelectionHistory.Target historyTarget;
+    
+    // Bounds when the current change started, the difference to the
+    // committed bounds is recorded in the history
+    private int startX, startY, startWidth, startHeight;
+    
+    // Scroll the viewport when dragging past its edges
+    private boolean autoScroll;
+    
+    // Records metrics, null unless metrics are enabled
+    private volatile SelectionMetricsCollector metrics;
+    private ObjectName metricsName;
+    
+    // Shape of the selection, and of new selections drawn with the mouse
+    private int shape;
+    private int drawShape;
+    
+    // Outline of polygon and lasso selections, scaled to the bounds. Null
+    // for other shapes.
+    private SelectionOutline outline;
+    
+    // Stroke of a lasso, null until the first lasso is drawn. Lassoing is
+    // set while it is drawn.
+    private LassoPath lasso;
+    private boolean lassoing;
+    
+    // Region of a SHAPE_REGION selection relative to its bounds, scaled from
+    // the size it was created with to the bounds. Null for other shapes.
+    private SelectionRegion region;
+    private int regionWidth, regionHeight;
+    
+    // The previous selection while a shape is drawn to be added to or
+    // subtracted from it, relative to the Container, and its bounds
+    private SelectionRegion pendingRegion;
+    private final Rectangle pendingBounds;
+    private int combineOp;
     
     /**
      * Creates a new SwingSelection and connects it to a parent Container
      * @param c a Swing Container where the selections will be done
      */
     public SwingSelection( Container c ) {
+        this( c, null, true );
+    }
+    
+    /**
+     * Creates a new SwingSelection that is painted by a SelectionLayerUI
+     * instead of a component added to the Container. The Container must be
+     * the view of a JLayer using the SelectionLayerUI.
+     * @param c a Swing Container where the selections will be done
+     * @param painter the SelectionLayerUI painting the selection
+     */
+    public SwingSelection( Container c, SelectionLayerUI<?> painter ) {
+        this( c, painter, true );
+    }
+    
+    /**
+     * Creates a new SwingSelection in a parent Container
+     * @param c a Swing Container where the selections will be done
+     * @param painter the SelectionLayerUI painting the selection, or null to
+     * add a component for the selection to the Container
+     * @param attachListener true to listen to mouse events from the Container,
+     * false if the events are routed to the selection by its owner
+     */
+    SwingSelection( Container c, SelectionLayerUI<?> painter, boolean attachListener ) {
         this.c = c;
+        this.painter = painter;
+        oldBounds = new Rectangle();
+        dirty = new Rectangle();
+        insets = new Insets( 0, 0, 0, 0 );
+        borderOnlyRepaint = false;
+        resizeListener = new ComponentAdapter() {
+            @Override
+            public void componentResized( ComponentEvent e ) {
+                mySel.setComponentBounds();
+            }
+        };
+        transform = null;
+        viewport = null;
+        viewportListener = new ChangeListener() {
+            @Override
+            public void stateChanged( ChangeEvent e ) {
+                if( transform != null ) {
+                    mySel.updateComponentBounds();
+                }
+            }
+        };
+        sequence = 0;
+        lastSnapshot = new AtomicReference<>();
         mySel = new InternalSelection();
         this.setDefaultBorder();
-        this.c.add( mySel );
+        if( painter != null ) {
+            // The component is never added, it only keeps the bounds and border
+            painter.addSelection( this );
+        } else {
+            this.c.add( mySel );
+        }
         
-        handles = new Rectangle[ NUM_SELECTION_HANDLES ];
-        initSelectionHandles();
+        handleSize = SELECTION_HANDLE_SIZE;
+        handlesVisible = true;
+        snapIndex = null;
+        history = null;
+        historyId = 0;
+        historyTarget = new SelectionHistory.Target() {
+            @Override
+            public void applyDelta( int id, int dx, int dy, int dw, int dh ) {
+                // The recorded bounds were already adjusted to the Container,
+                // adjusting them again could make redo differ from the change
+                SelectionGeometry g = mySel.geometry;
+                mySel.setExactBounds( g.getX() + dx, g.getY() + dy, g.getWidth() + dw, g.getHeight() + dh );
+            }
+            
+            @Override
+            public void applyRegion( int id, SelectionRegion r ) {
+                // The previous bounds may be larger than the region
+                mySel.getPaintBounds( dirty );
+                repaintArea( dirty, handleSize );
+                SwingSelection.this.applyRegion( r );
+            }
+        };
+        autoScroll = false;
+        metrics = null;
+        metricsName = null;
+        shape = SHAPE_RECTANGLE;
+        drawShape = SHAPE_RECTANGLE;
+        outline = null;
+        lasso = null;
+        lassoing = false;
+        region = null;
+        pendingRegion = null;
+        pendingBounds = new Rectangle();
+        combineOp = COMBINE_NONE;
         
         listener = new SelectionMouseAdapter();
+        keyHandler = new SelectionKeyHandler();
+        dispatcher = new SelectionEventDispatcher( this );
+        animator = null;
+        ants = null;
         
-        c.addMouseListener( listener );
-        c.addMouseMotionListener( listener );
+        if( attachListener ) {
+            c.addMouseListener( listener );
+            c.addMouseMotionListener( listener );
+        }
         
     }
 //</editor-fold>
@@ -90,7 +339,9 @@ public class SwingSelection {
      * @param r a Rectangle with the size and position of the selection
      */
     public void setBounds( Rectangle r ) {
+        cancelAnimation();
         mySel.setBounds( r );
+        dispatcher.fireCommitted();
     }
     
     /**
@@ -98,7 +349,56 @@ public class SwingSelection {
      * @return a Rectangle with the current size and position of the selection
      */
     public Rectangle getBounds() {
-        return mySel.getBounds();
+        return mySel.getSelectionBounds( new Rectangle() );
+    }
+    
+    /**
+     * Stores the current size and position of the selection in r
+     * @param r the Rectangle to store the bounds in
+     * @return r
+     */
+    Rectangle getBounds( Rectangle r ) {
+        return mySel.getSelectionBounds( r );
+    }
+    
+    /**
+     * Returns an immutable snapshot of the current size and position of the
+     * selection. Can be called from any thread without locking, the same
+     * snapshot object is returned until the selection changes.
+     * @return the current bounds of the selection
+     */
+    public SelectionSnapshot getSnapshot() {
+        
+        long seq;
+        int x, y, width, height;
+        
+        do {
+            seq = sequence;
+            x = pubX;
+            y = pubY;
+            width = pubWidth;
+            height = pubHeight;
+            // Retry if the bounds were written while they were read
+        } while( ( seq & 1 ) != 0 || seq != sequence );
+        
+        long version = seq >>> 1;
+        SelectionSnapshot snapshot = lastSnapshot.get();
+        
+        if( snapshot == null || snapshot.getVersion() != version ) {
+            snapshot = new SelectionSnapshot( x, y, width, height, version );
+            lastSnapshot.set( snapshot );
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Returns the version of the selection bounds, increased every time the
+     * bounds are set. Can be called from any thread to detect changes.
+     * @return the current version
+     */
+    public long getVersion() {
+        return sequence >>> 1;
     }
     
     /**
@@ -108,7 +408,8 @@ public class SwingSelection {
      * @return true if the selection contains x,y
      */
     public boolean contains( int x, int y ) {
-        return mySel.contains( x, y );
+        // Coordinates are relative to the upper left corner of the selection
+        return mySel.containsContainerCoords( x + mySel.geometry.getX(), y + mySel.geometry.getY() );
     }
     
     /**
@@ -150,263 +451,2237 @@ public class SwingSelection {
      */
     public void setVisible( boolean visible ) {
         mySel.setVisible( visible );
-        c.repaint();
+        // Only the area covered by the selection changes
+        mySel.getPaintBounds( dirty );
+        repaintArea( dirty, handleSize );
     }
     
     /**
-    * Sets whether or not the selection should stay inside the parent container
+    * Sets whether or not the selection should stay inside the parent container.
+    * Has no effect in world mode.
     * @param stayInside true if selection should be locked inside the parent container, otherwise false
     */
     public void stayInsideContainer( boolean stayInside ) {
         mySel.stayInsideContainer( stayInside );
     }
-//</editor-fold>
     
-//<editor-fold defaultstate="collapsed" desc="Selection handles">
     /**
-     * Initializes the array of selection handles to Rectangles
+     * Sets whether only the border of the selection should be repainted when
+     * the selection is dragged, moved or resized. The RepaintManager merges
+     * all areas queued for a component into one covering them, so the border
+     * strips of the old and new bounds are painted at once instead. Unless
+     * the selection is painted by a SelectionLayerUI, its component covers
+     * the whole Container in this mode, since moving or resizing a component
+     * repaints all of its old and new area. Requires that nothing is painted
+     * inside the selection. The strips can only be painted at once in a
+     * JComponent, other Containers repaint the area covering them. Coalescing
+     * mouse drags limits the painting to once per frame.
+     * @param borderOnly true to repaint only the border strips, false to repaint the area covered by the selection
+     */
+    public void setBorderOnlyRepaint( boolean borderOnly ) {
+        
+        if( borderOnly == borderOnlyRepaint ) {
+            return;
+        }
+        
+        borderOnlyRepaint = borderOnly;
+        
+        if( painter == null ) {
+            if( borderOnly ) {
+                c.addComponentListener( resizeListener );
+            } else {
+                c.removeComponentListener( resizeListener );
+            }
+            mySel.setComponentBounds();
+        }
+    }
+    
+    /**
+     * Returns whether only the border of the selection is repainted when it
+     * changes
+     * @return true if only the border strips are repainted
+     */
+    public boolean isBorderOnlyRepaint() {
+        return borderOnlyRepaint;
+    }
+    
+    /**
+     * Sets the transform between world coordinates and coordinates relative to
+     * the Container. With a transform the selection is in world mode, where it
+     * keeps its bounds in world coordinates and only the part of it that is
+     * visible in the Container is rendered. Panning and zooming is done by
+     * setting a new transform, the Container doesn't have to be the size of
+     * the world.
+     * @param t the transform, or null to use Container coordinates only
      */
-    private void initSelectionHandles() {
+    public void setViewTransform( ViewTransform t ) {
         
-        for ( int i = 0 ; i < NUM_SELECTION_HANDLES ; i++ ) {
-            handles[ i ] = new Rectangle();
+        if( t != null && transform == null ) {
+            // Entering world mode, the current bounds become world bounds
+            transform = t;
+            SelectionGeometry g = mySel.geometry;
+            mySel.setClampedBounds( g.getX(), g.getY(), g.getWidth(), g.getHeight() );
+            attachViewport();
+        } else if( t != null ) {
+            transform = t;
+            mySel.project();
+        } else {
+            // Leaving world mode, keep the current bounds in the Container
+            transform = null;
+            mySel.updateComponentBounds();
         }
     }
     
     /**
-     * Calculates and sets the selection handles associated with the selection.
+     * Returns the transform between world coordinates and coordinates
+     * relative to the Container
+     * @return the transform, or null if the selection is not in world mode
      */
-    private void setSelectionHandles() {
+    public ViewTransform getViewTransform() {
+        return transform;
+    }
+    
+    /**
+     * Sets the shape of the selection and of new selections drawn with the
+     * mouse. A polygon or lasso selection is scaled to new bounds. Setting
+     * SHAPE_LASSO leaves the current selection as it is until a lasso is
+     * drawn.
+     * @param shape SHAPE_RECTANGLE, SHAPE_ELLIPSE or SHAPE_LASSO
+     */
+    public void setShape( int shape ) {
         
-        // Get limits of selection for easier
-        int width = mySel.getWidth();       // Width
-        int height = mySel.getHeight();     // Height
-        int left = mySel.getX();            // Left side x-coordinate
-        int right = left + width;           // Right side x-coordinate
-        int top = mySel.getY();             // Top y-coordinate
-        int bottom = top + height;          // Bottom y-coordinate
+        if( shape != SHAPE_RECTANGLE && shape != SHAPE_ELLIPSE && shape != SHAPE_LASSO ) {
+            throw new IllegalArgumentException( "Invalid shape: " + shape );
+        }
+        
+        drawShape = shape;
         
-        // Don't init handle[ 0 ], this is an unused dummy handle 
-        // Upper left corner handle
-        handles[ UPPER_LEFT_HANDLE ].setBounds( left, top, SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE );
-        // Upper right corner handle
-        handles[ UPPER_RIGHT_HANDLE ].setBounds( right - SELECTION_HANDLE_SIZE, top, SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE );
-        // Lower left corner handle
-        handles[ LOWER_LEFT_HANDLE ].setBounds( left, bottom - SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE );
-        // Lower right corner handle
-        handles[ LOWER_RIGHT_HANDLE ].setBounds( right - SELECTION_HANDLE_SIZE, bottom - SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE, SELECTION_HANDLE_SIZE );
-        // Upper edge handle
-        handles[ UPPER_EDGE_HANDLE ].setBounds( left, top, width, SELECTION_HANDLE_SIZE );
-        // Bottom edge handle
-        handles[ LOWER_EDGE_HANDLE ].setBounds( left, bottom - SELECTION_HANDLE_SIZE, width, SELECTION_HANDLE_SIZE );
-        // Left edge handle
-        handles[ LEFT_EDGE_HANDLE ].setBounds( left, top, SELECTION_HANDLE_SIZE, height);
-        // Right edge handle
-        handles[ RIGHT_EDGE_HANDLE ].setBounds( right - SELECTION_HANDLE_SIZE, top, SELECTION_HANDLE_SIZE, height);
+        if( shape != SHAPE_LASSO ) {
+            this.shape = shape;
+            outline = null;
+            region = null;
+            mySel.getPaintBounds( dirty );
+            repaintArea( dirty, handleSize );
+        }
     }
     
     /**
-     * Checks whether Point p is inside one of the selection handles
-     * @param p point to check against selection handles
-     * @return number of handle or 0 if not inside a handle
+     * Returns the shape of the selection
+     * @return one of the SHAPE constants
+     */
+    public int getShape() {
+        return shape;
+    }
+    
+    /**
+     * Makes the selection a polygon. The bounds of the selection are set to
+     * the bounding box of the corners.
+     * @param xPoints x-coordinates of the corners, relative to the Container
+     * @param yPoints y-coordinates of the corners, relative to the Container
+     * @param count number of corners, at least 3
+     */
+    public void setPolygon( int[] xPoints, int[] yPoints, int count ) {
+        
+        SelectionOutline o = new SelectionOutline( xPoints, yPoints, count );
+        
+        cancelAnimation();
+        shape = SHAPE_POLYGON;
+        outline = o;
+        region = null;
+        mySel.setClampedBounds( o.getX(), o.getY(), o.getWidth(), o.getHeight() );
+        dispatcher.fireCommitted();
+    }
+    
+    /**
+     * Makes the selection a region of any shape. The bounds of the selection
+     * are set to the bounding box of the region, which is scaled if the
+     * selection is resized. A region of a single rectangle gives a
+     * rectangular selection. Dragging a new selection with shift held adds
+     * it to the current selection, with alt held subtracts it, which also
+     * gives a region.
+     * @param r the region, relative to the Container. It is copied.
+     */
+    public void setRegion( SelectionRegion r ) {
+        cancelAnimation();
+        applyRegion( r );
+        dispatcher.fireCommitted();
+    }
+    
+    /**
+     * Returns the pixels inside the selection as a region, whatever the
+     * shape of the selection
+     * @return a new region, relative to the Container
+     */
+    public SelectionRegion getRegion() {
+        
+        SelectionGeometry g = mySel.geometry;
+        
+        if( isRectangle() ) {
+            return new SelectionRegion( g.getX(), g.getY(), g.getWidth(), g.getHeight() );
+        }
+        if( shape == SHAPE_REGION && region != null && g.getWidth() == regionWidth && g.getHeight() == regionHeight ) {
+            SelectionRegion r = new SelectionRegion( region );
+            r.translate( g.getX(), g.getY() );
+            return r;
+        }
+        
+        final SelectionRegion r = new SelectionRegion();
+        getSpans( new SpanConsumer() {
+            @Override
+            public void span( int y, int x0, int x1 ) {
+                r.appendSpan( y, x0, x1 );
+            }
+        });
+        return r;
+    }
+    
+    /**
+     * Checks whether every pixel within the bounds is inside the selection
+     */
+    private boolean isRectangle() {
+        return lassoing || shape == SHAPE_RECTANGLE || ( shape == SHAPE_LASSO && outline == null )
+                || ( shape == SHAPE_REGION && region == null );
+    }
+    
+    /**
+     * Makes the selection a copy of a region, without firing any events
+     */
+    private void applyRegion( SelectionRegion r ) {
+        
+        int x = r.getX();
+        int y = r.getY();
+        
+        outline = null;
+        if( r.getSpanCount() == 1 ) {
+            shape = SHAPE_RECTANGLE;
+            region = null;
+        } else {
+            if( region == null || region == r ) {
+                region = new SelectionRegion( r );
+            } else {
+                region.set( r );
+            }
+            region.translate( -x, -y );
+            shape = SHAPE_REGION;
+        }
+        regionWidth = r.getWidth();
+        regionHeight = r.getHeight();
+        
+        mySel.setClampedBounds( x, y, regionWidth, regionHeight );
+    }
+    
+    /**
+     * Returns the outline of a polygon or lasso selection
+     * @return the outline, or null for other shapes
+     */
+    public SelectionOutline getOutline() {
+        return outline;
+    }
+    
+    /**
+     * Sets the size and position of the selection in world coordinates.
+     * Without a view transform, world coordinates are the same as coordinates
+     * relative to the Container.
+     * @param r the size and position of the selection in world coordinates
+     */
+    public void setWorldBounds( Rectangle2D r ) {
+        
+        cancelAnimation();
+        
+        if( transform != null ) {
+            mySel.setWorldBounds( r.getX(), r.getY(), r.getWidth(), r.getHeight() );
+        } else {
+            mySel.setClampedBounds( (int)Math.round( r.getX() ), (int)Math.round( r.getY() ),
+                    (int)Math.round( r.getWidth() ), (int)Math.round( r.getHeight() ) );
+        }
+        dispatcher.fireCommitted();
+    }
+    
+    /**
+     * Returns the size and position of the selection in world coordinates
+     * @return a new Rectangle2D with the bounds in world coordinates
+     */
+    public Rectangle2D getWorldBounds() {
+        return mySel.getWorldBounds( new Rectangle2D.Double() );
+    }
+    
+    /**
+     * Moves the selection smoothly to new bounds. A started event is fired
+     * at once, changing events while the selection moves and a committed
+     * event when it reaches r. Setting the bounds or pressing the mouse
+     * stops the animation where it is.
+     * @param r the size and position to move the selection to
+     * @param durationMillis the length of the animation, 0 or less sets the bounds at once
+     */
+    public void animateBounds( Rectangle r, int durationMillis ) {
+        
+        if( durationMillis <= 0 ) {
+            setBounds( r );
+            return;
+        }
+        
+        SelectionGeometry g = mySel.geometry;
+        getAnimator().start( false, g.getX(), g.getY(), g.getWidth(), g.getHeight(),
+                r.x, r.y, r.width, r.height, durationMillis );
+    }
+    
+    /**
+     * Moves the selection smoothly to new bounds in world coordinates. With a
+     * view transform, the selection follows the view if it is zoomed or
+     * scrolled during the animation, so the view can be zoomed to the
+     * selection at the same time.
+     * @param r the size and position to move the selection to, in world coordinates
+     * @param durationMillis the length of the animation, 0 or less sets the bounds at once
+     */
+    public void animateWorldBounds( Rectangle2D r, int durationMillis ) {
+        
+        if( durationMillis <= 0 ) {
+            setWorldBounds( r );
+            return;
+        }
+        
+        Rectangle2D from = mySel.getWorldBounds( new Rectangle2D.Double() );
+        getAnimator().start( true, from.getX(), from.getY(), from.getWidth(), from.getHeight(),
+                r.getX(), r.getY(), r.getWidth(), r.getHeight(), durationMillis );
+    }
+    
+    /**
+     * Returns whether the selection is moving to bounds set by animateBounds
+     * or animateWorldBounds
+     * @return true while animating
+     */
+    public boolean isAnimating() {
+        return animator != null && animator.isScheduled();
+    }
+    
+    /**
+     * Returns the animator, created the first time the selection is animated
+     */
+    private SelectionAnimator getAnimator() {
+        if( animator == null ) {
+            animator = new SelectionAnimator();
+        }
+        return animator;
+    }
+    
+    /**
+     * Stops a running animation where it is, with a committed event
+     */
+    private void stopAnimation() {
+        if( animator != null ) {
+            animator.stop();
+        }
+    }
+    
+    /**
+     * Stops a running animation without a committed event
+     */
+    private void cancelAnimation() {
+        if( animator != null ) {
+            animator.cancel();
+        }
+    }
+    
+    /**
+     * Sets whether the border of the selection should be marching ants, a
+     * dashed line that moves along the border. Disabling it restores the
+     * default border.
+     * @param enabled true for marching ants, false for the default border
      */
-    private int inHandle( Point p ) {
+    public void setMarchingAnts( boolean enabled ) {
+        
+        if( enabled == isMarchingAnts() ) {
+            return;
+        }
         
-        // Check all handles except dummy handle
-        for( int i = 1 ; i < NUM_SELECTION_HANDLES ; i++ ) {
-            if( handles[ i ].contains( p ) ) {
-                return i;
+        if( enabled ) {
+            if( ants == null ) {
+                ants = new MarchingAnts();
             }
+            mySel.setBorder( ants.border );
+            FrameScheduler.getShared().schedule( ants );
+        } else {
+            FrameScheduler.getShared().cancel( ants );
+            setDefaultBorder();
+        }
+    }
+    
+    /**
+     * Returns whether the border of the selection is marching ants
+     * @return true if marching ants are enabled
+     */
+    public boolean isMarchingAnts() {
+        return ants != null && ants.isScheduled();
+    }
+    
+    /**
+     * Adds a listener that is notified when the selection changes
+     * @param l the listener to add
+     */
+    public void addSelectionListener( SelectionListener l ) {
+        dispatcher.addListener( l );
+    }
+    
+    /**
+     * Removes a listener added with addSelectionListener
+     * @param l the listener to remove
+     */
+    public void removeSelectionListener( SelectionListener l ) {
+        dispatcher.removeListener( l );
+    }
+    
+    /**
+     * Sets the executor used to notify the selection listeners. Events are
+     * only guaranteed to arrive in order if the executor runs tasks in order.
+     * @param e the executor, or null to use a shared background thread
+     */
+    public void setSelectionEventExecutor( Executor e ) {
+        dispatcher.setExecutor( e );
+    }
+    
+    /**
+     * Sets the size of the selection handles
+     * @param size width of the handles along the edges of the selection, in pixels
+     */
+    public void setHandleSize( int size ) {
+        handleSize = Math.max( 0, size );
+        mySel.geometry.setHandleSize( handleSize );
+    }
+    
+    /**
+     * Returns the size of the selection handles
+     * @return width of the handles along the edges of the selection, in pixels
+     */
+    public int getHandleSize() {
+        return handleSize;
+    }
+    
+    /**
+     * Sets whether the selection handles are painted. Handles are painted as
+     * white squares with a black edge in the corners and at the middle of
+     * the edges that are long enough.
+     * @param visible true to paint the handles, false to only paint the border
+     */
+    public void setHandlesVisible( boolean visible ) {
+        handlesVisible = visible;
+        mySel.getPaintBounds( dirty );
+        repaintArea( dirty, handleSize );
+    }
+    
+    /**
+     * Returns whether the selection handles are painted
+     * @return true if the handles are painted, false if only the border is
+     */
+    public boolean isHandlesVisible() {
+        return handlesVisible;
+    }
+    
+    /**
+     * Sets the grid and lines the selection snaps to while it is dragged.
+     * When resizing, the dragged corner snaps. When moving, the edge closest
+     * to a line snaps. Snapping is not applied in world mode, where the
+     * Container coordinates change with every pan and zoom.
+     * @param index the positions to snap to, or null to turn snapping off
+     */
+    public void setSnapIndex( SnapIndex index ) {
+        snapIndex = index;
+    }
+    
+    /**
+     * Returns the grid and lines the selection snaps to
+     * @return the snap index, or null if snapping is off
+     */
+    public SnapIndex getSnapIndex() {
+        return snapIndex;
+    }
+    
+    /**
+     * Sets whether the selection can be changed with the keyboard while the
+     * Container has focus. Arrow keys move the selection one pixel, shift and
+     * arrow keys move the right or lower edge and alt and arrow keys move the
+     * left or upper edge. Repeated key presses are applied once per frame,
+     * and the presses until the key is released are one change in the
+     * history. When several selections on the same Container have key bindings, the
+     * keys change the one pressed with the mouse last, or else the one
+     * enabled last.
+     * @param enabled true to install the key bindings, false to remove them
+     * @throws IllegalStateException if the Container is not a JComponent
+     */
+    public void setKeyBindingsEnabled( boolean enabled ) {
+        
+        if( !( c instanceof JComponent ) ) {
+            throw new IllegalStateException( "Key bindings require a JComponent as Container" );
+        }
+        
+        if( enabled ) {
+            keyHandler.install( (JComponent)c );
+        } else {
+            keyHandler.uninstall( (JComponent)c );
         }
+    }
+    
+    /**
+     * Sets the history that changes made with the mouse and the keyboard are
+     * recorded in, as the difference between the bounds when the change
+     * started and when it was committed. Adding or subtracting a shape with
+     * shift or alt held is recorded as the regions before and after. Other
+     * changes of the shape, such as drawing an ellipse or a lasso, are not
+     * recorded: undo and redo keep the current shape and scale it to the
+     * recorded bounds. Bounds set programmatically or by an animation are
+     * not recorded.
+     * @param history the history, or null to stop recording
+     * @param id id of the selection in the history, passed to the
+     * SelectionHistory.Target when a history shared by several selections is
+     * undone
+     */
+    public void setHistory( SelectionHistory history, int id ) {
+        this.history = history;
+        historyId = id;
+    }
+    
+    /**
+     * Returns the history changes are recorded in
+     * @return the history, or null if changes are not recorded
+     */
+    public SelectionHistory getHistory() {
+        return history;
+    }
+    
+    /**
+     * Undoes the latest step in the history, if it was recorded for this
+     * selection. A history shared by several selections is undone with
+     * SelectionHistory.undo and a Target that finds the selection by id.
+     * @return true if a step was undone, false if there was nothing to undo
+     * or the step belongs to another selection
+     */
+    public boolean undo() {
+        
+        if( history != null && history.canUndo() && history.getUndoId() == historyId && history.undo( historyTarget ) ) {
+            dispatcher.fireCommitted();
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Redoes the latest undone step in the history, if it was recorded for
+     * this selection
+     * @return true if a step was redone, false if there was nothing to redo
+     * or the step belongs to another selection
+     */
+    public boolean redo() {
         
-        return NOT_IN_HANDLE;   // No handle contained the point, return NOT_IN_HANDLE
+        if( history != null && history.canRedo() && history.getRedoId() == historyId && history.redo( historyTarget ) ) {
+            dispatcher.fireCommitted();
+            return true;
+        }
         
+        return false;
+    }
+    
+    /**
+     * Sets whether mouse drags should be coalesced. When coalesced, only the
+     * latest pointer position is applied to the selection, once per frame.
+     * The position of the mouse release is always applied exactly.
+     * @param coalesce true to apply drags once per frame, false to apply every drag event
+     */
+    public void coalesceMouseDrags( boolean coalesce ) {
+        listener.setCoalesce( coalesce );
     }
     
     /**
-     * Returns a point opposite the current handle
-     * @param activeHandle the current handle selected
-     * @return point to the opposite handle
+     * Sets whether the viewport should scroll when the pointer is dragged
+     * past its edges. The speed grows with the distance past the edge. The
+     * viewport is scrolled and the selection updated together once per
+     * frame. Requires that the Container is a JComponent and the view of a
+     * JViewport, such as in a JScrollPane.
+     * @param enabled true to scroll while dragging past the edges
+     */
+    public void setAutoScroll( boolean enabled ) {
+        autoScroll = enabled;
+        if( !enabled ) {
+            listener.stopAutoScroll();
+        }
+    }
+    
+    /**
+     * Returns whether the viewport scrolls when the pointer is dragged past
+     * its edges
+     * @return true if auto-scroll is enabled
+     */
+    public boolean isAutoScroll() {
+        return autoScroll;
+    }
+    
+    /**
+     * Sets whether latencies of the mouse handling, bounds updates and
+     * painting should be recorded, along with repaint and coalescing counts.
+     * When disabled, the instrumentation costs a field read per event.
+     * Disabling also unregisters the metrics MBean.
+     * @param enabled true to record metrics, false to stop recording and discard them
+     */
+    public void setMetricsEnabled( boolean enabled ) {
+        
+        if( enabled && metrics == null ) {
+            metrics = new SelectionMetricsCollector();
+        } else if( !enabled ) {
+            metrics = null;
+            if( metricsName != null ) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean( metricsName );
+                } catch( JMException ex ) {
+                    // Already unregistered by someone else
+                }
+                metricsName = null;
+            }
+        }
+    }
+    
+    /**
+     * Returns whether metrics are recorded
+     * @return true if metrics are enabled
+     */
+    public boolean isMetricsEnabled() {
+        return metrics != null;
+    }
+    
+    /**
+     * Returns a snapshot of the metrics recorded since they were enabled or
+     * last reset
+     * @return the metrics, or null if metrics are not enabled
+     */
+    public SelectionMetrics getMetrics() {
+        SelectionMetricsCollector m = metrics;
+        return m != null ? m.snapshot() : null;
+    }
+    
+    /**
+     * Clears the recorded metrics, if enabled
+     */
+    public void resetMetrics() {
+        SelectionMetricsCollector m = metrics;
+        if( m != null ) {
+            m.reset();
+        }
+    }
+    
+    /**
+     * Enables metrics and registers them as an MXBean with the platform
+     * MBeanServer, under the name
+     * psson.swingselection:type=SwingSelection,id=&lt;hash&gt;
+     * @return the name the MXBean was registered with
+     * @throws JMException if the MXBean could not be registered
+     */
+    public ObjectName registerMetricsMBean() throws JMException {
+        
+        setMetricsEnabled( true );
+        
+        if( metricsName == null ) {
+            ObjectName name = new ObjectName( "psson.swingselection:type=SwingSelection,id="
+                    + Integer.toHexString( System.identityHashCode( this ) ) );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean( metrics, name );
+            metricsName = name;
+        }
+        
+        return metricsName;
+    }
+    
+    /**
+     * Sets bounds based on two points, in the same way as a mouse drag does
+     * @param p1 a point in one corner of the selection
+     * @param p2 the opposite corner of the selection
+     */
+    void setBounds( Point p1, Point p2 ) {
+        mySel.setBounds( p1, p2 );
+    }
+    
+    /**
+     * Moves the selection the distance between two points, in the same way as
+     * a mouse drag inside the selection does
+     * @param oldPoint base point
+     * @param newPoint new point
+     */
+    void move( Point oldPoint, Point newPoint ) {
+        mySel.move( oldPoint, newPoint );
+    }
+    
+    /**
+     * Sets a listener notified of every committed change on the event
+     * dispatch thread, used by the owner of the selection
+     * @param l the listener, or null to remove it
+     */
+    void setOwnerListener( SelectionListener l ) {
+        dispatcher.setOwner( l );
+    }
+    
+    /**
+     * Returns the mouse adapter handling mouse events for the selection
+     * @return the mouse adapter of the selection
+     */
+    MouseAdapter getMouseAdapter() {
+        return listener;
+    }
+    
+    /**
+     * Removes the selection from the parent Container and stops listening to
+     * it. Any animation, auto scroll or keyboard burst in progress is
+     * stopped, the key bindings and metrics are removed and the viewport is
+     * no longer followed. The selection can't be used afterwards. A
+     * selection handled by a SelectionManager is removed with
+     * SelectionManager.removeSelection instead.
+     */
+    public void dispose() {
+        listener.setCoalesce( false );
+        listener.stopAutoScroll();
+        stopAnimation();
+        if( ants != null ) {
+            FrameScheduler.getShared().cancel( ants );
+        }
+        if( c instanceof JComponent ) {
+            keyHandler.uninstall( (JComponent)c );
+        }
+        setMetricsEnabled( false );
+        detachViewport();
+        c.removeMouseListener( listener );
+        c.removeMouseMotionListener( listener );
+        c.removeComponentListener( resizeListener );
+        mySel.getPaintBounds( dirty );
+        if( painter != null ) {
+            painter.removeSelection( this );
+        } else {
+            c.remove( mySel );
+        }
+        repaintArea( dirty, handleSize );
+    }
+    
+    /**
+     * Returns the Container the selection is made in
+     * @return the parent Container
+     */
+    Container getContainer() {
+        return c;
+    }
+    
+    /**
+     * Paints the selection on top of the other selections in the Container.
+     * Swing paints the component first in the Container on top, so the
+     * component is moved to the front.
+     */
+    void toFront() {
+        
+        if( painter != null ) {
+            if( !painter.toFront( this ) ) {
+                return;
+            }
+        } else if( mySel.getParent() == c && c.getComponentZOrder( mySel ) != 0 ) {
+            c.setComponentZOrder( mySel, 0 );
+        } else {
+            return;
+        }
+        
+        mySel.getPaintBounds( dirty );
+        repaintArea( dirty, handleSize );
+    }
+    
+    /**
+     * Stores the area covered when painting the selection in r. In world mode
+     * this is only the visible part of the selection.
+     * @param r the Rectangle to store the area in
+     * @return r
+     */
+    Rectangle getPaintBounds( Rectangle r ) {
+        return mySel.getPaintBounds( r );
+    }
+    
+    /**
+     * Paints the selection, used when the selection is painted by a
+     * SelectionLayerUI
+     * @param g the Graphics to paint with, in the coordinates of the Container
+     */
+    void paintSelection( Graphics g ) {
+        
+        SelectionMetricsCollector m = metrics;
+        long start = m != null ? System.nanoTime() : 0;
+        
+        if( mySel.isVisible() && !mySel.paintBounds.isEmpty() ) {
+            mySel.paintSelection( g, 0, 0 );
+        }
+        
+        if( m != null ) {
+            m.record( SelectionMetrics.PAINT, start );
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Spans and masks">
+    /**
+     * Reports the pixels inside the selection as runs along each row, in
+     * order from the top, in coordinates relative to the Container. A
+     * rectangle gives one run per row. Call on the event dispatch thread.
+     * @param consumer receives the runs
+     */
+    public void getSpans( SpanConsumer consumer ) {
+        prepareSpans();
+        getSpans( 0, mySel.geometry.getHeight(), consumer );
+    }
+    
+    /**
+     * Sets the bits of the pixels inside the selection in a mask covering
+     * an area of the Container. The bit of pixel x, y is number
+     * ( y - areaY ) * areaWidth + x - areaX. Other bits are left unchanged.
+     * @param mask the mask to set bits in
+     * @param areaX x-coordinate of the area covered by the mask
+     * @param areaY y-coordinate of the area covered by the mask
+     * @param areaWidth width of the area, the number of bits per row
+     * @param areaHeight height of the area
+     * @throws IllegalArgumentException if the area has more pixels than a
+     * BitSet can index
+     */
+    public void fillMask( final BitSet mask, final int areaX, final int areaY, final int areaWidth, int areaHeight ) {
+        
+        checkArea( areaWidth, areaHeight );
+        if( (long)areaWidth * areaHeight > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( "Area too large for a BitSet: " + areaWidth + "x" + areaHeight );
+        }
+        
+        // BitSet is not thread safe, and runs already set whole words
+        prepareSpans();
+        getSpans( maskFirstRow( areaY ), maskLastRow( areaY, areaHeight ), new SpanConsumer() {
+            @Override
+            public void span( int y, int x0, int x1 ) {
+                int from = Math.max( x0, areaX ) - areaX;
+                int to = Math.min( x1, areaX + areaWidth ) - areaX;
+                if( from < to ) {
+                    int row = ( y - areaY ) * areaWidth;
+                    mask.set( row + from, row + to );
+                }
+            }
+        });
+    }
+    
+    /**
+     * Sets the elements of the pixels inside the selection in a mask
+     * covering an area of the Container. The element of pixel x, y is
+     * number ( y - areaY ) * areaWidth + x - areaX. Other elements are left
+     * unchanged.
+     * @param mask the mask to set, at least areaWidth * areaHeight long
+     * @param areaX x-coordinate of the area covered by the mask
+     * @param areaY y-coordinate of the area covered by the mask
+     * @param areaWidth width of the area, the number of elements per row
+     * @param areaHeight height of the area
+     * @param value the value to set for pixels inside the selection
+     * @param parallel true to fill bands of rows in parallel
+     */
+    public void fillMask( final int[] mask, final int areaX, final int areaY, final int areaWidth, int areaHeight,
+            final int value, boolean parallel ) {
+        
+        checkArea( areaWidth, areaHeight );
+        if( mask.length < (long)areaWidth * areaHeight ) {
+            throw new IllegalArgumentException( "Mask too small for a " + areaWidth + "x" + areaHeight + " area" );
+        }
+        
+        final SpanConsumer fill = new SpanConsumer() {
+            @Override
+            public void span( int y, int x0, int x1 ) {
+                int from = Math.max( x0, areaX ) - areaX;
+                int to = Math.min( x1, areaX + areaWidth ) - areaX;
+                if( from < to ) {
+                    int row = ( y - areaY ) * areaWidth;
+                    Arrays.fill( mask, row + from, row + to, value );
+                }
+            }
+        };
+        
+        prepareSpans();
+        final int first = maskFirstRow( areaY );
+        final int last = maskLastRow( areaY, areaHeight );
+        
+        int bands = ( last - first + MASK_BAND_HEIGHT - 1 ) / MASK_BAND_HEIGHT;
+        if( !parallel || bands <= 1 ) {
+            getSpans( first, last, fill );
+            return;
+        }
+        
+        // Each band writes its own rows of the mask
+        IntStream.range( 0, bands ).parallel().forEach( new IntConsumer() {
+            @Override
+            public void accept( int band ) {
+                int from = first + band * MASK_BAND_HEIGHT;
+                getSpans( from, Math.min( last, from + MASK_BAND_HEIGHT ), fill );
+            }
+        });
+    }
+    
+    private static void checkArea( int areaWidth, int areaHeight ) {
+        if( areaWidth < 0 || areaHeight < 0 ) {
+            throw new IllegalArgumentException( "Invalid area size: " + areaWidth + "x" + areaHeight );
+        }
+    }
+    
+    /**
+     * Returns the first row of the selection inside an area, relative to
+     * the selection
+     */
+    private int maskFirstRow( int areaY ) {
+        return Math.max( 0, areaY - mySel.geometry.getY() );
+    }
+    
+    /**
+     * Returns the row after the last row of the selection inside an area,
+     * relative to the selection
+     */
+    private int maskLastRow( int areaY, int areaHeight ) {
+        long last = (long)areaY + areaHeight - mySel.geometry.getY();
+        return (int)Math.max( 0, Math.min( last, mySel.geometry.getHeight() ) );
+    }
+    
+    /**
+     * Prepares the shape so that spans can be read from several threads
+     */
+    private void prepareSpans() {
+        if( outline != null ) {
+            outline.prepare( mySel.geometry.getWidth(), mySel.geometry.getHeight() );
+        }
+    }
+    
+    /**
+     * Reports the runs of pixels inside the selection along a range of rows.
+     * Only reads the shape, so bands of rows can be read in parallel after
+     * prepareSpans.
+     * @param first first row, relative to the selection
+     * @param last row after the last row, relative to the selection
+     * @param consumer receives the runs, in coordinates relative to the Container
+     */
+    private void getSpans( int first, int last, SpanConsumer consumer ) {
+        
+        SelectionGeometry g = mySel.geometry;
+        int x = g.getX();
+        int y = g.getY();
+        int w = g.getWidth();
+        int h = g.getHeight();
+        
+        if( w <= 0 ) {
+            return;
+        }
+        
+        if( shape == SHAPE_ELLIPSE ) {
+            for( int r = first ; r < last ; r++ ) {
+                int x0 = SelectionGeometry.ellipseSpanStart( r, w, h );
+                if( x0 < w - x0 ) {
+                    consumer.span( y + r, x + x0, x + w - x0 );
+                }
+            }
+        } else if( outline != null ) {
+            for( int r = first ; r < last ; r++ ) {
+                outline.getSpans( r, w, x, y, consumer );
+            }
+        } else if( shape == SHAPE_REGION && region != null ) {
+            for( int r = first ; r < last ; r++ ) {
+                getRegionSpans( r, x, y, w, h, consumer );
+            }
+        } else {
+            for( int r = first ; r < last ; r++ ) {
+                consumer.span( y + r, x, x + w );
+            }
+        }
+    }
+    
+    /**
+     * Reports the runs of pixels inside a region selection along a row
+     * @param r the row, relative to the selection
+     */
+    private void getRegionSpans( int r, int x, int y, int w, int h, SpanConsumer consumer ) {
+        
+        SelectionRegion reg = region;
+        int band = reg.bandAt( (int)( (long)r * regionHeight / h ) );
+        if( band < 0 ) {
+            return;
+        }
+        
+        // A pixel is inside when the region pixel it is scaled from is
+        for( int i = reg.getSpanStart( band ) ; i < reg.getSpanEnd( band ) ; i += 2 ) {
+            int x0 = scaleUp( reg.getSpanEdge( i ), w, regionWidth );
+            int x1 = scaleUp( reg.getSpanEdge( i + 1 ), w, regionWidth );
+            if( x0 < x1 ) {
+                consumer.span( y + r, x + x0, x + x1 );
+            }
+        }
+    }
+    
+    /**
+     * Returns the first pixel scaled from a region pixel at or after a
+     * coordinate
+     * @param v the coordinate in the region, not negative
+     * @param size the size of the selection
+     * @param regionSize the size of the region
+     * @return the coordinate in the selection
+     */
+    private static int scaleUp( int v, int size, int regionSize ) {
+        return (int)( ( (long)v * size + regionSize - 1 ) / regionSize );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="World mode">
+    /**
+     * Clips the selection again when a viewport containing the Container is
+     * scrolled
+     */
+    private void attachViewport() {
+        
+        if( viewport != null ) {
+            return;
+        }
+        
+        viewport = (JViewport)SwingUtilities.getAncestorOfClass( JViewport.class, c );
+        
+        if( viewport != null ) {
+            viewport.addChangeListener( viewportListener );
+        }
+    }
+    
+    /**
+     * Stops listening to the viewport attached in world mode
+     */
+    private void detachViewport() {
+        if( viewport != null ) {
+            viewport.removeChangeListener( viewportListener );
+            viewport = null;
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="History">
+    /**
+     * Remembers the bounds at the start of a change
+     */
+    private void markChangeStart() {
+        SelectionGeometry g = mySel.geometry;
+        startX = g.getX();
+        startY = g.getY();
+        startWidth = g.getWidth();
+        startHeight = g.getHeight();
+    }
+    
+    /**
+     * Records the change since markChangeStart in the history, if any
+     */
+    private void recordChange() {
+        if( history != null ) {
+            SelectionGeometry g = mySel.geometry;
+            history.record( historyId, g.getX() - startX, g.getY() - startY,
+                    g.getWidth() - startWidth, g.getHeight() - startHeight );
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Snapshots">
+    /**
+     * Publishes new bounds for getSnapshot. Doesn't allocate any objects.
+     */
+    private void publishSnapshot( int x, int y, int width, int height ) {
+        
+        // Only the EDT writes, so the increments don't need to be atomic
+        long seq = sequence;
+        sequence = seq + 1;
+        pubX = x;
+        pubY = y;
+        pubWidth = width;
+        pubHeight = height;
+        sequence = seq + 2;
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Repainting">
+    /**
+     * Repaints the parts of the container affected by a change of the
+     * selection from the bounds in oldBounds to the current bounds.
+     */
+    private void repaintSelection() {
+        
+        if( borderOnlyRepaint && isBorderShape() ) {
+            // Old and new border
+            mySel.getPaintBounds( dirty );
+            paintBorderStrips( oldBounds );
+            paintBorderStrips( dirty );
+        } else {
+            // Union of old and new bounds
+            mySel.getPaintBounds( dirty );
+            if( dirty.isEmpty() ) {
+                dirty.setBounds( oldBounds );
+            } else if( !oldBounds.isEmpty() ) {
+                dirty.add( oldBounds );
+            }
+            repaintArea( dirty, handleSize );
+        }
+    }
+    
+    /**
+     * Checks whether the selection is painted by its border only, so that
+     * repainting the border strips covers it
+     * @return true for rectangles, false for other shapes
+     */
+    private boolean isBorderShape() {
+        return shape == SHAPE_RECTANGLE && !lassoing && pendingRegion == null;
+    }
+    
+    /**
+     * Paints the four strips along the edges of r that are covered by the
+     * selection border and handles.
+     * @param r the bounds of the selection, left unchanged
+     */
+    private void paintBorderStrips( Rectangle r ) {
+        
+        Insets in = mySel.getInsets( insets );
+        int t = Math.max( Math.max( in.top, in.bottom ), Math.max( in.left, in.right ) ) + handleSize;
+        
+        if( r.width <= 2 * t || r.height <= 2 * t ) {
+            // Nothing to gain for selections smaller than the strips
+            paintArea( r.x - handleSize, r.y - handleSize, r.width + 2 * handleSize, r.height + 2 * handleSize );
+            return;
+        }
+        
+        int x = r.x - handleSize;
+        int y = r.y - handleSize;
+        int w = r.width + 2 * handleSize;
+        int h = r.height + 2 * handleSize;
+        
+        paintArea( x, y, w, t );            // Upper strip
+        paintArea( x, y + h - t, w, t );    // Lower strip
+        paintArea( x, y + t, t, h - 2 * t );        // Left strip
+        paintArea( x + w - t, y + t, t, h - 2 * t );    // Right strip
+    }
+    
+    /**
+     * Paints an area of the container at once, so that it is not merged
+     * with other areas by the RepaintManager. Repaints the area if the
+     * container is not a JComponent. Does not allocate any objects.
+     */
+    private void paintArea( int x, int y, int w, int h ) {
+        
+        if( w <= 0 || h <= 0 ) {
+            return;
+        }
+        
+        // A JLayer paints its view, and a SelectionLayerUI the selections on
+        // top of it, so the area is painted on the layer
+        Component target = c;
+        for( Component p = c.getParent() ; p != null ; p = p.getParent() ) {
+            if( p instanceof JLayer ) {
+                target = p;
+                break;
+            }
+        }
+        
+        if( !( target instanceof JComponent ) ) {
+            repaintArea( x, y, w, h );
+            return;
+        }
+        
+        for( Component p = c ; p != target ; p = p.getParent() ) {
+            x += p.getX();
+            y += p.getY();
+        }
+        
+        // Does nothing unless the component is showing
+        ( (JComponent)target ).paintImmediately( x, y, w, h );
+        countRepaint();
+    }
+    
+    /**
+     * Repaints an area of the container, grown by margin on all sides
+     * @param r the area to repaint, left unchanged
+     * @param margin number of pixels to grow the area with
+     */
+    private void repaintArea( Rectangle r, int margin ) {
+        if( r.width > 0 && r.height > 0 ) {
+            repaintArea( r.x - margin, r.y - margin, r.width + 2 * margin, r.height + 2 * margin );
+        }
+    }
+    
+    /**
+     * Repaints an area of the container, ignored if it is empty
+     */
+    private void repaintArea( int x, int y, int w, int h ) {
+        if( w > 0 && h > 0 ) {
+            c.repaint( x, y, w, h );
+            countRepaint();
+        }
+    }
+    
+    /**
+     * Counts a repaint request in the metrics, if enabled
+     */
+    private void countRepaint() {
+        SelectionMetricsCollector m = metrics;
+        if( m != null ) {
+            m.repainted();
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="Selection handles">
+    /**
+     * Checks whether a position is inside one of the selection handles,
+     * found from the current bounds of the selection
+     * @param x x-coordinate to check against selection handles
+     * @param y y-coordinate to check against selection handles
+     * @return number of handle or 0 if not inside a handle
+     */
+    int inHandle( int x, int y ) {
+        return mySel.geometry.handleAt( x, y );
+    }
+    
+    /**
+     * Sets a point to the corner opposite the current handle
+     * @param activeHandle the current handle selected
+     * @param oppPoint the point to set to the opposite handle
+     */
+    void getOppositePoint( int activeHandle, Point oppPoint ) {
+        SelectionGeometry g = mySel.geometry;
+        oppPoint.setLocation( g.getOppositeX( activeHandle ), g.getOppositeY( activeHandle ) );
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="InternalSelection class">
+    /**
+     * InternalSelection class that is the actual component added to the parent Container.
+     */
+    private class InternalSelection extends JComponent {
+        
+        private boolean inContainer;
+        
+        // Bounds of the selection relative to the Container. It is painted in
+        // the same area, except in world mode where it is clipped to the
+        // visible part of the Container.
+        private final SelectionGeometry geometry;
+        
+        // Bounds of the selection in world coordinates, only used in world mode
+        private double worldX, worldY, worldWidth, worldHeight;
+        
+        // Scratch rectangle for the visible part of the Container
+        private final Rectangle clip;
+        
+        // Area the selection is painted in, relative to the Container. The
+        // component has the same bounds, except with border only repaint
+        // where it covers the Container.
+        private final Rectangle paintBounds;
+        
+        // Position the selection would have been moved to without snapping,
+        // only valid while the last change was a snapped move
+        private int unsnappedX, unsnappedY;
+        private boolean snappedMove;
+        
+        // Reused when painting shapes other than rectangles
+        private final Polygon shapePolygon;
+        private final Ellipse2D.Double shapeEllipse;
+        private final Path2D.Float shapePath;
+        private final Rectangle shapeRect;
+        
+        public InternalSelection() {
+            super();
+            inContainer = false;
+            clip = new Rectangle();
+            paintBounds = new Rectangle();
+            geometry = new SelectionGeometry();
+            snappedMove = false;
+            shapePolygon = new Polygon();
+            shapeEllipse = new Ellipse2D.Double();
+            shapePath = new Path2D.Float();
+            shapeRect = new Rectangle();
+        }
+        
+        /**
+         * Stores the bounds of the selection relative to the Container in r
+         * @param r the Rectangle to store the bounds in
+         * @return r
+         */
+        public Rectangle getSelectionBounds( Rectangle r ) {
+            r.setBounds( geometry.getX(), geometry.getY(), geometry.getWidth(), geometry.getHeight() );
+            return r;
+        }
+        
+        /**
+         * Stores the area the selection is painted in in r. In world mode
+         * this is only the visible part of the selection.
+         * @param r the Rectangle to store the area in
+         * @return r
+         */
+        public Rectangle getPaintBounds( Rectangle r ) {
+            r.setBounds( paintBounds );
+            return r;
+        }
+        
+        /**
+         * Stores the bounds of the selection in world coordinates in r
+         * @param r the Rectangle2D to store the bounds in
+         * @return r
+         */
+        public Rectangle2D getWorldBounds( Rectangle2D r ) {
+            if( transform != null ) {
+                r.setRect( worldX, worldY, worldWidth, worldHeight );
+            } else {
+                r.setRect( geometry.getX(), geometry.getY(), geometry.getWidth(), geometry.getHeight() );
+            }
+            return r;
+        }
+        
+        /**
+         * Paints the selection, timed when metrics are enabled
+         * @param g the Graphics to paint with
+         */
+        @Override
+        public void paint( Graphics g ) {
+            
+            SelectionMetricsCollector m = metrics;
+            long start = m != null ? System.nanoTime() : 0;
+            
+            super.paint( g );
+            
+            if( m != null ) {
+                m.record( SelectionMetrics.PAINT, start );
+            }
+        }
+        
+        /**
+         * Checks if a position is inside the selection. The position is specified by two coordinates relative to the container the SwingSelection is attached to.
+         * @param x x-coordinate of the position
+         * @param y y-coordinate of the position
+         * @return true if coordinates are inside the selection, otherwise false.
+         */
+        public boolean containsContainerCoords( int x, int y ) {
+            
+            if( !geometry.contains( x, y ) ) {
+                return false;
+            }
+            
+            switch( shape ) {
+                case SHAPE_ELLIPSE:
+                    return SelectionGeometry.ellipseContains( x - geometry.getX(), y - geometry.getY(),
+                            geometry.getWidth(), geometry.getHeight() );
+                case SHAPE_POLYGON:
+                case SHAPE_LASSO:
+                    // A lasso without an outline yet is the rectangle it spans
+                    return outline == null || outline.contains( x - geometry.getX(), y - geometry.getY(),
+                            geometry.getWidth(), geometry.getHeight() );
+                case SHAPE_REGION:
+                    return region == null || region.contains(
+                            (int)( (long)( x - geometry.getX() ) * regionWidth / geometry.getWidth() ),
+                            (int)( (long)( y - geometry.getY() ) * regionHeight / geometry.getHeight() ) );
+                default:
+                    return true;
+            }
+        }
+        
+        /**
+         * Paints the border, or the outline of a selection that is not a
+         * rectangle, and the handles
+         * @param g the Graphics to paint with
+         */
+        @Override
+        protected void paintBorder( Graphics g ) {
+            if( !paintBounds.isEmpty() ) {
+                paintSelection( g, -getX(), -getY() );
+            }
+        }
+        
+        /**
+         * Paints the selection, the same way for the component and for a
+         * SelectionLayerUI
+         * @param g the Graphics to paint with
+         * @param ox x-coordinate of the origin of the Container in g
+         * @param oy y-coordinate of the origin of the Container in g
+         */
+        public void paintSelection( Graphics g, int ox, int oy ) {
+            
+            Border b = getBorder();
+            if( !paintShape( g, ox, oy ) && b != null ) {
+                Rectangle pb = paintBounds;
+                b.paintBorder( this, g, pb.x + ox, pb.y + oy, pb.width, pb.height );
+            }
+            
+            if( handlesVisible && !lassoing ) {
+                paintHandles( g, ox, oy );
+            }
+        }
+        
+        /**
+         * Paints the handles from cached images. Handles along an edge are
+         * left out when there is no room for them between the corners.
+         * @param g the Graphics to paint with
+         * @param ox x-coordinate of the origin of the Container in g
+         * @param oy y-coordinate of the origin of the Container in g
+         */
+        private void paintHandles( Graphics g, int ox, int oy ) {
+            
+            int hs = handleSize;
+            int x = geometry.getX() + ox;
+            int y = geometry.getY() + oy;
+            int w = geometry.getWidth();
+            int h = geometry.getHeight();
+            
+            if( hs <= 0 || w < 2 * hs || h < 2 * hs ) {
+                return;
+            }
+            
+            SelectionSprites sprites = SelectionSprites.getShared();
+            int right = x + w - hs;
+            int bottom = y + h - hs;
+            
+            sprites.paintHandle( g, x, y, hs );
+            sprites.paintHandle( g, right, y, hs );
+            sprites.paintHandle( g, x, bottom, hs );
+            sprites.paintHandle( g, right, bottom, hs );
+            
+            if( w >= 4 * hs ) {
+                sprites.paintHandle( g, x + ( w - hs ) / 2, y, hs );
+                sprites.paintHandle( g, x + ( w - hs ) / 2, bottom, hs );
+            }
+            if( h >= 4 * hs ) {
+                sprites.paintHandle( g, x, y + ( h - hs ) / 2, hs );
+                sprites.paintHandle( g, right, y + ( h - hs ) / 2, hs );
+            }
+        }
+        
+        /**
+         * Paints the outline of a selection that is not a rectangle, with
+         * marching ants or in the color of a line border
+         * @param g the Graphics to paint with
+         * @param ox x-coordinate of the origin of the Container in g
+         * @param oy y-coordinate of the origin of the Container in g
+         * @return false for rectangles, which are painted by the border
+         */
+        public boolean paintShape( Graphics g, int ox, int oy ) {
+            
+            int x = geometry.getX() + ox;
+            int y = geometry.getY() + oy;
+            int w = geometry.getWidth();
+            int h = geometry.getHeight();
+            Shape s;
+            
+            if( pendingRegion != null ) {
+                // The selection a new shape is combined with
+                Rectangle pb = pendingBounds;
+                drawShape( g, regionPath( pendingRegion, pb.x, pb.y, pb.width, pb.height,
+                        pb.x + ox, pb.y + oy, pb.width, pb.height ) );
+            }
+            
+            if( lassoing ) {
+                int[] xs = lasso.getXPoints();
+                int[] ys = lasso.getYPoints();
+                shapePolygon.reset();
+                for( int i = 0 ; i < lasso.getPointCount() ; i++ ) {
+                    shapePolygon.addPoint( xs[ i ] + ox, ys[ i ] + oy );
+                }
+                s = shapePolygon;
+            } else if( shape == SHAPE_ELLIPSE ) {
+                shapeEllipse.setFrame( x, y, w - 1, h - 1 );
+                s = shapeEllipse;
+            } else if( outline != null ) {
+                shapePolygon.reset();
+                for( int i = 0 ; i < outline.getPointCount() ; i++ ) {
+                    shapePolygon.addPoint( x + outline.getX( i, w - 1 ), y + outline.getY( i, h - 1 ) );
+                }
+                s = shapePolygon;
+            } else if( shape == SHAPE_REGION && region != null ) {
+                s = regionPath( region, 0, 0, regionWidth, regionHeight, x, y, w, h );
+            } else if( pendingRegion != null ) {
+                // The component covers both selections, the border would
+                // be painted around both
+                if( w <= 0 || h <= 0 ) {
+                    return true;
+                }
+                shapeRect.setBounds( x, y, w - 1, h - 1 );
+                s = shapeRect;
+            } else {
+                return false;
+            }
+            
+            drawShape( g, s );
+            return true;
+        }
+        
+        /**
+         * Draws the outline of a shape, with marching ants or in the color
+         * of a line border
+         */
+        private void drawShape( Graphics g, Shape s ) {
+            
+            Border b = getBorder();
+            if( b instanceof MarchingAntsBorder ) {
+                ( (MarchingAntsBorder)b ).paintShape( g, s );
+            } else {
+                Color old = g.getColor();
+                g.setColor( b instanceof LineBorder ? ( (LineBorder)b ).getLineColor() : Color.black );
+                ( (Graphics2D)g ).draw( s );
+                g.setColor( old );
+            }
+        }
+        
+        /**
+         * Returns the outline of a region scaled to a rectangle
+         * @param r the region
+         * @param rx x-coordinate of the bounding box of the region
+         * @param ry y-coordinate of the bounding box of the region
+         * @param rw width of the bounding box of the region
+         * @param rh height of the bounding box of the region
+         * @param x x-coordinate to paint the region at
+         * @param y y-coordinate to paint the region at
+         * @param w width to paint the region with
+         * @param h height to paint the region with
+         * @return the outline, valid until the next call
+         */
+        private Shape regionPath( SelectionRegion r, final int rx, final int ry, final int rw, final int rh,
+                final int x, final int y, final int w, final int h ) {
+            
+            shapePath.reset();
+            
+            if( rw > 0 && rh > 0 ) {
+                // Edges on the last pixel inside, like drawRect
+                r.getEdges( new SelectionRegion.EdgeConsumer() {
+                    @Override
+                    public void edge( int x0, int y0, int x1, int y1 ) {
+                        shapePath.moveTo( x + (long)( x0 - rx ) * ( w - 1 ) / rw, y + (long)( y0 - ry ) * ( h - 1 ) / rh );
+                        shapePath.lineTo( x + (long)( x1 - rx ) * ( w - 1 ) / rw, y + (long)( y1 - ry ) * ( h - 1 ) / rh );
+                    }
+                });
+            }
+            
+            return shapePath;
+        }
+        
+        /**
+         * Checks if a point is inside the selection. The point is specified relative to the container the SwingSelection is attached to.
+         * @param p a Point relative to the container
+         * @return true if the point is inside the selection, otherwise false
+         */
+        public boolean containsContainerPoint( Point p ) {
+            return this.containsContainerCoords( p.x, p.y );
+        }
+        
+        /**
+         * Override on setBounds( Rectangle ) method to allow for adjusting to
+         * the Container when moved, resized etc. The other member functions
+         * should point to this one.
+         * @param r a rectangle object containing the parameters
+         */
+        @Override
+        public void setBounds( Rectangle r ) {
+            this.setClampedBounds( r.x, r.y, r.width, r.height );
+        }
+        
+        /**
+         * Sets the bounds of the selection, adjusted to the Container if the
+         * selection should stay inside it. Does not allocate any objects.
+         * @param x x-coordinate of the selection
+         * @param y y-coordinate of the selection
+         * @param width width of the selection
+         * @param height height of the selection
+         */
+        public void setClampedBounds( int x, int y, int width, int height ) {
+            geometry.setBounds( x, y, width, height );
+            geometryChanged( true );
+        }
+        
+        /**
+         * Sets the bounds of the selection as they are, even if the selection
+         * should stay inside the Container
+         * @param x x-coordinate of the selection
+         * @param y y-coordinate of the selection
+         * @param width width of the selection
+         * @param height height of the selection
+         */
+        public void setExactBounds( int x, int y, int width, int height ) {
+            geometry.setBounds( x, y, width, height );
+            geometryChanged( false );
+        }
+        
+        /**
+         * Adjusts new bounds in the geometry to the Container if the selection
+         * should stay inside it, and updates the world bounds and the
+         * component from them
+         * @param clamp false to keep bounds outside the Container
+         */
+        private void geometryChanged( boolean clamp ) {
+            
+            snappedMove = false;
+            
+            // In world mode the selection is not limited by the Container
+            if( clamp && inContainer && transform == null ) {
+                geometry.clampTo( c.getWidth(), c.getHeight() );
+            }
+            
+            if( transform != null ) {
+                worldX = transform.toWorldX( geometry.getX() );
+                worldY = transform.toWorldY( geometry.getY() );
+                worldWidth = geometry.getWidth() / transform.getScale();
+                worldHeight = geometry.getHeight() / transform.getScale();
+            }
+            
+            updateComponentBounds();
+        }
+        
+        /**
+         * Sets the bounds of the selection in world coordinates. Only used in
+         * world mode.
+         */
+        public void setWorldBounds( double x, double y, double width, double height ) {
+            
+            worldX = x;
+            worldY = y;
+            worldWidth = width;
+            worldHeight = height;
+            
+            project();
+        }
+        
+        /**
+         * Calculates the bounds relative to the Container from the world
+         * bounds and the current transform. Only used in world mode.
+         */
+        public void project() {
+            
+            int left = toContainerCoord( transform.toViewX( worldX ) );
+            int top = toContainerCoord( transform.toViewY( worldY ) );
+            int right = toContainerCoord( transform.toViewX( worldX + worldWidth ) );
+            int bottom = toContainerCoord( transform.toViewY( worldY + worldHeight ) );
+            
+            geometry.setBounds( left, top, right - left, bottom - top );
+            
+            updateComponentBounds();
+        }
+        
+        /**
+         * Rounds a coordinate relative to the Container and keeps it within
+         * the range where the selection math can't overflow
+         */
+        private int toContainerCoord( double v ) {
+            return (int)Math.max( -MAX_CONTAINER_COORD, Math.min( MAX_CONTAINER_COORD, Math.round( v ) ) );
+        }
+        
+        /**
+         * Sets the bounds of the component from the bounds of the selection,
+         * clipped to the visible part of the Container in world mode, and
+         * repaints the changed area
+         */
+        public void updateComponentBounds() {
+            
+            SelectionMetricsCollector m = metrics;
+            long start = m != null ? System.nanoTime() : 0;
+            
+            int x = geometry.getX();
+            int y = geometry.getY();
+            int width = geometry.getWidth();
+            int height = geometry.getHeight();
+            
+            if( transform != null ) {
+                
+                if( c instanceof JComponent ) {
+                    ( (JComponent)c ).computeVisibleRect( clip );
+                } else {
+                    clip.setBounds( 0, 0, c.getWidth(), c.getHeight() );
+                }
+                
+                // Keep clipped edges, with their border and handles, outside
+                // the visible area
+                Insets in = this.getInsets( insets );
+                int margin = Math.max( Math.max( in.top, in.bottom ), Math.max( in.left, in.right ) ) + handleSize + 1;
+                clip.grow( margin, margin );
+                
+                int right = Math.min( x + width, clip.x + clip.width );
+                int bottom = Math.min( y + height, clip.y + clip.height );
+                x = Math.max( x, clip.x );
+                y = Math.max( y, clip.y );
+                
+                if( right <= x || bottom <= y ) {
+                    // Nothing of the selection is visible
+                    width = 0;
+                    height = 0;
+                } else {
+                    width = right - x;
+                    height = bottom - y;
+                }
+            }
+            
+            if( pendingRegion != null && !pendingBounds.isEmpty() ) {
+                // Keep the selection being combined with inside the
+                // component, so it is still painted
+                if( width <= 0 || height <= 0 ) {
+                    x = pendingBounds.x;
+                    y = pendingBounds.y;
+                    width = pendingBounds.width;
+                    height = pendingBounds.height;
+                } else {
+                    int right = Math.max( x + width, pendingBounds.x + pendingBounds.width );
+                    int bottom = Math.max( y + height, pendingBounds.y + pendingBounds.height );
+                    x = Math.min( x, pendingBounds.x );
+                    y = Math.min( y, pendingBounds.y );
+                    width = right - x;
+                    height = bottom - y;
+                }
+            }
+            
+            // Remember old bounds for the dirty region
+            oldBounds.setBounds( paintBounds );
+            paintBounds.setBounds( x, y, width, height );
+            setComponentBounds();
+            if( isVisible() ) {
+                repaintSelection();
+            }
+            
+            publishSnapshot( geometry.getX(), geometry.getY(), geometry.getWidth(), geometry.getHeight() );
+            
+            if( m != null ) {
+                m.record( SelectionMetrics.SET_BOUNDS, start );
+            }
+        }
+        
+        /**
+         * Sets the bounds of the component to the area the selection is
+         * painted in. With border only repaint the component covers the
+         * Container instead, moving it would repaint all of its old and new
+         * area.
+         */
+        public void setComponentBounds() {
+            if( borderOnlyRepaint && painter == null ) {
+                this.setBounds( 0, 0, c.getWidth(), c.getHeight() );
+            } else {
+                this.setBounds( paintBounds.x, paintBounds.y, paintBounds.width, paintBounds.height );
+            }
+        }
+        
+        /**
+         * Sets bounds based on two points
+         * @param p1 a point in one corner of the selection
+         * @param p2 the opposite corner of the selection
+         */
+        public void setBounds( Point p1, Point p2 ) {
+            
+            // The second point is the one being dragged
+            int x2 = p2.x;
+            int y2 = p2.y;
+            SnapIndex snap = snapIndex;
+            if( snap != null && transform == null ) {
+                x2 = snap.snapX( x2 );
+                y2 = snap.snapY( y2 );
+            }
+            
+            geometry.setCorners( p1.x, p1.y, x2, y2 );
+            geometryChanged( true );
+            
+        }
+        
+        /**
+         * Adjusts the position of the selection based on the relative position of the two points. If newPoint is below oldPoint, the selection will move downward the same distance that separates oldPoint and newPoint.
+         * @param oldPoint base point
+         * @param newPoint new point 
+         */
+        public void move( Point oldPoint, Point newPoint ) {
+            
+            if( transform != null ) {
+                // Move in world coordinates to keep the size exact
+                double scale = transform.getScale();
+                this.setWorldBounds( worldX + ( newPoint.x - oldPoint.x ) / scale,
+                        worldY + ( newPoint.y - oldPoint.y ) / scale, worldWidth, worldHeight );
+                return;
+            }
+            
+            int x, y;   // New coordinates
+            
+            // Calculate new position for selection, continuing from the
+            // unsnapped position so snapping doesn't shift the selection
+            // away from the pointer
+            x = ( snappedMove ? unsnappedX : geometry.getX() ) + ( newPoint.x - oldPoint.x );
+            y = ( snappedMove ? unsnappedY : geometry.getY() ) + ( newPoint.y - oldPoint.y );
+            
+            int width = geometry.getWidth();
+            int height = geometry.getHeight();
+            
+            SnapIndex snap = snapIndex;
+            if( snap == null ) {
+                this.setClampedBounds( x, y, width, height );
+                return;
+            }
+            
+            int dx = snap.snapOffsetX( x, x + width );
+            int dy = snap.snapOffsetY( y, y + height );
+            
+            this.setClampedBounds( x + dx, y + dy, width, height );
+            
+            if( dx != 0 || dy != 0 ) {
+                unsnappedX = x;
+                unsnappedY = y;
+                snappedMove = true;
+            }
+        }
+        
+        /**
+         * Moves the edges of the selection. Used for keyboard changes, which
+         * are exact and not snapped. An edge can't be moved past the
+         * opposite edge.
+         * @param dLeft distance to move the left edge
+         * @param dTop distance to move the upper edge
+         * @param dRight distance to move the right edge
+         * @param dBottom distance to move the lower edge
+         */
+        public void moveEdges( int dLeft, int dTop, int dRight, int dBottom ) {
+            
+            if( transform != null ) {
+                double scale = transform.getScale();
+                this.setWorldBounds( worldX + dLeft / scale, worldY + dTop / scale,
+                        Math.max( 0.0, worldWidth + ( dRight - dLeft ) / scale ),
+                        Math.max( 0.0, worldHeight + ( dBottom - dTop ) / scale ) );
+                return;
+            }
+            
+            geometry.moveEdges( dLeft, dTop, dRight, dBottom );
+            geometryChanged( true );
+        }
+        
+        /**
+         * Snaps a point to the snap index, if any
+         * @param p the point to snap, changed in place
+         */
+        public void snapPoint( Point p ) {
+            SnapIndex snap = snapIndex;
+            if( snap != null && transform == null ) {
+                p.setLocation( snap.snapX( p.x ), snap.snapY( p.y ) );
+            }
+        }
+        
+        /**
+         * Sets whether or not the selection should stay inside the parent container
+         * @param stayInside true if selection should be locked inside the parent container, otherwise false
+         */
+        public void stayInsideContainer( boolean stayInside ) {
+            inContainer = stayInside;
+        }
+        
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="SelectionAnimator class">
+    /**
+     * Moves the selection from one set of bounds to another, once per frame
+     * of the shared scheduler. The bounds are interpolated with smoothstep
+     * easing, so the selection speeds up and slows down smoothly.
+     */
+    private class SelectionAnimator extends FrameScheduler.Task {
+        
+        private boolean world;
+        private double fromX, fromY, fromWidth, fromHeight;
+        private double toX, toY, toWidth, toHeight;
+        private long startTime;
+        private long duration;
+        
+        /**
+         * Starts animating, an animation already running is stopped first
+         */
+        public void start( boolean worldBounds, double x0, double y0, double w0, double h0,
+                double x1, double y1, double w1, double h1, int durationMillis ) {
+            
+            stop();
+            
+            world = worldBounds && transform != null;
+            fromX = x0;
+            fromY = y0;
+            fromWidth = w0;
+            fromHeight = h0;
+            toX = x1;
+            toY = y1;
+            toWidth = w1;
+            toHeight = h1;
+            startTime = System.nanoTime();
+            duration = durationMillis * 1000000L;
+            
+            dispatcher.fireStarted();
+            FrameScheduler.getShared().schedule( this );
+        }
+        
+        /**
+         * Stops a running animation where it is and fires a committed event
+         */
+        public void stop() {
+            if( isScheduled() ) {
+                FrameScheduler.getShared().cancel( this );
+                dispatcher.fireCommitted();
+            }
+        }
+        
+        /**
+         * Stops a running animation without a committed event, for callers
+         * that set new bounds and fire their own
+         */
+        public void cancel() {
+            FrameScheduler.getShared().cancel( this );
+        }
+        
+        @Override
+        boolean frame( long now ) {
+            
+            double t = (double)( now - startTime ) / duration;
+            boolean done = t >= 1;
+            
+            if( done ) {
+                // End exactly at the target
+                apply( 1 );
+            } else if( t > 0 ) {
+                apply( t * t * ( 3 - 2 * t ) );
+            }
+            
+            if( done ) {
+                dispatcher.fireCommitted();
+                return false;
+            }
+            
+            dispatcher.fireChanging();
+            return true;
+        }
+        
+        /**
+         * Sets the bounds a fraction of the way to the target
+         */
+        private void apply( double f ) {
+            
+            double x = fromX + ( toX - fromX ) * f;
+            double y = fromY + ( toY - fromY ) * f;
+            double w = fromWidth + ( toWidth - fromWidth ) * f;
+            double h = fromHeight + ( toHeight - fromHeight ) * f;
+            
+            if( world ) {
+                mySel.setWorldBounds( x, y, w, h );
+            } else {
+                mySel.setClampedBounds( (int)Math.round( x ), (int)Math.round( y ),
+                        (int)Math.round( w ), (int)Math.round( h ) );
+            }
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="MarchingAnts class">
+    /**
+     * Moves the dashes of a MarchingAntsBorder once per frame of the shared
+     * scheduler, repainting only when the dashes have moved
      */
-    private Point getOppositePoint( int activeHandle ) {
+    private class MarchingAnts extends FrameScheduler.Task {
         
-        Point oppPoint = new Point();
+        private final MarchingAntsBorder border;
         
-        switch( activeHandle ) {
-            case UPPER_LEFT_HANDLE:
-                // Return point to lower right corner
-                oppPoint.setLocation( mySel.getX() + mySel.getWidth(), mySel.getY() + mySel.getHeight() );
-                break;
-            case UPPER_RIGHT_HANDLE:
-                // Return point to lower left corner
-                oppPoint.setLocation( mySel.getX(), mySel.getY() + mySel.getHeight() );
-                break;
-            case LOWER_LEFT_HANDLE:
-                // Return point to upper right corner
-                oppPoint.setLocation( mySel.getX() + mySel.getWidth(), mySel.getY() );
-                break;
-            case LOWER_RIGHT_HANDLE:
-                // Return point to upper left corner
-                oppPoint = mySel.getLocation();
-                break;
-            case UPPER_EDGE_HANDLE:
-                // Return point to lower right corner
-                oppPoint.setLocation( mySel.getX() + mySel.getWidth(), mySel.getY() + mySel.getHeight() );
-                break;
-            case LOWER_EDGE_HANDLE:
-                // Return point to upper left corner
-                oppPoint = mySel.getLocation();
-                break;
-            case LEFT_EDGE_HANDLE:
-                // Return point to lower right corner
-                oppPoint.setLocation( mySel.getX() + mySel.getWidth(), mySel.getY() + mySel.getHeight() );
-                break;
-            case RIGHT_EDGE_HANDLE:
-                // Return point to upper left corner
-                oppPoint = mySel.getLocation();
-                break;
-            default:
-                // Error, should not be possible. Only reachable by code that has an active handle
-                //TODO Add exception if bad handle is entered? What to do about it?
-                oppPoint.setLocation( 0,0 );
+        public MarchingAnts() {
+            border = new MarchingAntsBorder();
         }
         
-        return oppPoint;
-        
+        @Override
+        boolean frame( long now ) {
+            
+            if( !border.setTime( now ) || !mySel.isVisible() || mySel.getBorder() != border ) {
+                return true;
+            }
+            
+            if( borderOnlyRepaint && isBorderShape() ) {
+                mySel.getPaintBounds( dirty );
+                paintBorderStrips( dirty );
+            } else {
+                mySel.getPaintBounds( dirty );
+                repaintArea( dirty, handleSize );
+            }
+            return true;
+        }
     }
 //</editor-fold>
     
-//<editor-fold defaultstate="collapsed" desc="InternalSelection class">
+//<editor-fold defaultstate="collapsed" desc="SelectionKeyHandler class">
     /**
-     * InternalSelection class that is the actual component added to the parent Container.
+     * Key bindings that move and resize the selection. Key presses are
+     * accumulated and applied once per frame, so a burst of auto-repeated
+     * keys causes a single repaint per frame. A burst ends when the key is
+     * released, or KEY_IDLE_NANOS after the last press if the release is
+     * missed, and is committed as one change.
      */
-    private class InternalSelection extends JComponent {
+    private class SelectionKeyHandler extends FrameScheduler.Task {
         
-        private boolean inContainer;
+        // Accumulated distances to move the edges on the next frame
+        private int dLeft, dTop, dRight, dBottom;
         
-        public InternalSelection() {
-            super();
-            inContainer = false;
+        // Set from the first key press until the burst ends
+        private boolean active;
+        
+        // Set by key presses since the last frame
+        private boolean pressed;
+        
+        // Set when a key is released and cleared by the next press, since
+        // some platforms release and press again on every repeat
+        private boolean released;
+        
+        // Time of the last frame with key presses
+        private long lastPress;
+        
+        public SelectionKeyHandler() {
+            active = false;
+            pressed = false;
+            released = false;
         }
         
         /**
-         * Checks if a position is inside the selection. The position is specified by two coordinates relative to the container the SwingSelection is attached to.
-         * @param x x-coordinate of the position
-         * @param y y-coordinate of the position
-         * @return true if coordinates are inside the selection, otherwise false.
+         * Binds the keys on a component. The bindings are shared by all
+         * selections on the component and forward the keys to the last
+         * selection in its list of owners, this selection is added last.
+         * @param comp the component receiving key presses while focused
          */
-        public boolean containsContainerCoords( int x, int y ) {
+        public void install( JComponent comp ) {
             
-            if( x >= super.getX() && x < ( super.getX() + super.getWidth() ) ) {
-                if( y >= super.getY() && y < ( super.getY() + super.getHeight() ) ) {
-                    return true;
-                }
+            KeyOwners owners = (KeyOwners)comp.getClientProperty( KEY_OWNERS );
+            if( owners == null ) {
+                owners = new KeyOwners();
+                owners.bind( comp );
+                comp.putClientProperty( KEY_OWNERS, owners );
             }
             
-            return false;
+            owners.add( this );
         }
         
         /**
-         * Checks if a point is inside the selection. The point is specified relative to the container the SwingSelection is attached to.
-         * @param p a Point relative to the container
-         * @return true if the point is inside the selection, otherwise false
+         * Stops this selection from receiving keys from a component. The
+         * bindings are removed with the last selection using them.
+         * @param comp the component the keys were bound on
          */
-        public boolean containsContainerPoint( Point p ) {
-            return this.containsContainerCoords( (int)p.getX(), (int)p.getY() );
+        public void uninstall( JComponent comp ) {
+            
+            KeyOwners owners = (KeyOwners)comp.getClientProperty( KEY_OWNERS );
+            if( owners != null && owners.remove( this ) && owners.isEmpty() ) {
+                owners.unbind( comp );
+                comp.putClientProperty( KEY_OWNERS, null );
+            }
+            
+            // Apply what is left of an ongoing burst
+            if( active ) {
+                applyPending();
+                finish();
+            }
         }
         
         /**
-         * Override on setBounds( Rectangle ) method to allow for adjusting to
-         * the Container when moved, resized etc. The other member functions
-         * should point to this one.
-         * @param r a rectangle object containing the parameters
+         * Makes this selection receive the keys of a component, if it has
+         * key bindings on it
+         * @param comp the component the keys are bound on
          */
-        @Override
-        public void setBounds( Rectangle r ) {
+        public void raise( JComponent comp ) {
             
-            int x = (int)r.getX();
-            int y = (int)r.getY();
-            
-            if( inContainer ) {
-                if( x < 0 ) {
-                    x = 0;
-                }
-                if( x + r.getWidth() > c.getWidth() ) {
-                    x = (int) (c.getWidth() - r.getWidth());
-                }
-                if( y < 0 ) {
-                    y = 0;
-                }
-                if( y + r.getHeight() > c.getHeight() ) {
-                    y = (int) (c.getHeight() - r.getHeight());
-                }
+            KeyOwners owners = (KeyOwners)comp.getClientProperty( KEY_OWNERS );
+            if( owners != null && owners.getLast() != this && owners.remove( this ) ) {
+                owners.add( this );
             }
-            
-            this.setBounds( x, y, (int)r.getWidth(), (int)r.getHeight());
         }
         
         /**
-         * Sets bounds based on two points
-         * @param p1 a point in one corner of the selection
-         * @param p2 the opposite corner of the selection
+         * Accumulates a key press, applied on the next frame
+         * @param key 0 to 3 for left, right, up and down
+         * @param modifier 0 to move, 1 to move the right or lower edge, 2 to
+         * move the left or upper edge
          */
-        public void setBounds( Point p1, Point p2 ) {
+        private void keyPressed( int key, int modifier ) {
             
-            int x, y, width, height;
+            if( !mySel.isVisible() ) {
+                return;
+            }
             
-            if( p1.getX() < p2.getX() ) {
-                x = (int)p1.getX();
-                width = (int)( p2.getX() - p1.getX());
-            } else {
-                x = (int)p2.getX();
-                width = (int)( p1.getX() - p2.getX() );
+            int dx = key == 0 ? -1 : ( key == 1 ? 1 : 0 );
+            int dy = key == 2 ? -1 : ( key == 3 ? 1 : 0 );
+            
+            if( modifier != 1 ) {
+                // Move or move the left and upper edge
+                dLeft += dx;
+                dTop += dy;
+            }
+            if( modifier != 2 ) {
+                // Move or move the right and lower edge
+                dRight += dx;
+                dBottom += dy;
             }
             
-            if( p1.getY() < p2.getY() ) {
-                y = (int)p1.getY();
-                height = (int)( p2.getY() - p1.getY() );
-            } else {
-                y = (int)p2.getY();
-                height = (int)( p1.getY() - p2.getY() );
+            pressed = true;
+            released = false;
+            
+            if( !active ) {
+                active = true;
+                markChangeStart();
+                dispatcher.fireStarted();
+                FrameScheduler.getShared().schedule( this );
+            }
+        }
+        
+        /**
+         * Ends the burst on the next frame, unless a key is pressed before it
+         */
+        private void keyReleased() {
+            if( active ) {
+                released = true;
             }
+        }
+        
+        /**
+         * Called once per frame, applies the accumulated key presses
+         * @param now the time of the frame
+         * @return false when the burst has ended
+         */
+        @Override
+        boolean frame( long now ) {
             
-            // Creating a rectangle to feed this into the overridden setBounds method
-            Rectangle r = new Rectangle( x, y, width, height );
+            applyPending();
             
-            this.setBounds( r );
+            if( pressed ) {
+                pressed = false;
+                lastPress = now;
+            }
             
+            if( released || now - lastPress >= KEY_IDLE_NANOS ) {
+                // The key is released, or its release was missed
+                finish();
+                return false;
+            }
+            return true;
         }
         
         /**
-         * Adjusts the position of the selection based on the relative position of the two points. If newPoint is below oldPoint, the selection will move downward the same distance that separates oldPoint and newPoint.
-         * @param oldPoint base point
-         * @param newPoint new point 
+         * Applies the accumulated key presses, if any
          */
-        public void move( Point oldPoint, Point newPoint ) {
+        private void applyPending() {
             
-            Rectangle sel;
+            if( dLeft == 0 && dTop == 0 && dRight == 0 && dBottom == 0 ) {
+                return;
+            }
             
-            sel = this.getBounds();
+            mySel.moveEdges( dLeft, dTop, dRight, dBottom );
+            dLeft = 0;
+            dTop = 0;
+            dRight = 0;
+            dBottom = 0;
             
-            double x, y;   // New coordinates
+            dispatcher.fireChanging();
+        }
+        
+        private void finish() {
+            FrameScheduler.getShared().cancel( this );
+            active = false;
+            pressed = false;
+            released = false;
+            recordChange();
+            dispatcher.fireCommitted();
+        }
+    }
+//</editor-fold>
+    
+//<editor-fold defaultstate="collapsed" desc="KeyOwners class">
+    /**
+     * The selections with key bindings on a component, in the order they
+     * should get the keys, the last one first. Also binds the keys shared by
+     * the selections.
+     */
+    private static class KeyOwners {
+        
+        private static final int[] KEYS = { KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_UP, KeyEvent.VK_DOWN };
+        private static final int[] MODIFIERS = { 0, InputEvent.SHIFT_DOWN_MASK, InputEvent.ALT_DOWN_MASK };
+        private static final String PREFIX = "swingSelection.";
+        private static final String RELEASED = PREFIX + "released";
+        
+        private final ArrayList<SelectionKeyHandler> owners;
+        
+        public KeyOwners() {
+            owners = new ArrayList<>();
+        }
+        
+        /**
+         * Adds a selection last, or moves it there if already added
+         */
+        void add( SelectionKeyHandler owner ) {
+            owners.remove( owner );
+            owners.add( owner );
+        }
+        
+        /**
+         * Removes a selection
+         * @return true if the selection was added
+         */
+        boolean remove( SelectionKeyHandler owner ) {
+            return owners.remove( owner );
+        }
+        
+        /**
+         * Returns the selection getting the keys
+         * @return the last selection, or null if there is none
+         */
+        SelectionKeyHandler getLast() {
+            return owners.isEmpty() ? null : owners.get( owners.size() - 1 );
+        }
+        
+        boolean isEmpty() {
+            return owners.isEmpty();
+        }
+        
+        /**
+         * Binds the keys on a component to actions forwarding the presses
+         * to the last owner and the releases to all owners
+         */
+        void bind( JComponent comp ) {
             
-            // Calculate new position for selection
-            x = sel.getX() + ( newPoint.getX() - oldPoint.getX() );
-            y = sel.getY() + ( newPoint.getY() - oldPoint.getY() );
+            InputMap inputs = comp.getInputMap( JComponent.WHEN_FOCUSED );
+            ActionMap actions = comp.getActionMap();
             
-            sel.setLocation( (int)x, (int)y );
+            actions.put( RELEASED, new AbstractAction() {
+                @Override
+                public void actionPerformed( ActionEvent e ) {
+                    for( int i = 0 ; i < owners.size() ; i++ ) {
+                        owners.get( i ).keyReleased();
+                    }
+                }
+            });
             
-            this.setBounds( sel );
+            for( int m = 0 ; m < MODIFIERS.length ; m++ ) {
+                for( int k = 0 ; k < KEYS.length ; k++ ) {
+                    final int key = k;
+                    final int modifier = m;
+                    String name = PREFIX + m + "." + k;
+                    inputs.put( KeyStroke.getKeyStroke( KEYS[ k ], MODIFIERS[ m ] ), name );
+                    inputs.put( KeyStroke.getKeyStroke( KEYS[ k ], MODIFIERS[ m ], true ), RELEASED );
+                    actions.put( name, new AbstractAction() {
+                        @Override
+                        public void actionPerformed( ActionEvent e ) {
+                            SelectionKeyHandler owner = getLast();
+                            if( owner != null ) {
+                                owner.keyPressed( key, modifier );
+                            }
+                        }
+                    });
+                }
+            }
         }
         
         /**
-         * Sets whether or not the selection should stay inside the parent container
-         * @param stayInside true if selection should be locked inside the parent container, otherwise false
+         * Removes the key bindings from a component, keys bound to something
+         * else since they were bound are left alone
          */
-        public void stayInsideContainer( boolean stayInside ) {
-            inContainer = stayInside;
+        void unbind( JComponent comp ) {
+            
+            InputMap inputs = comp.getInputMap( JComponent.WHEN_FOCUSED );
+            ActionMap actions = comp.getActionMap();
+            
+            for( int m = 0 ; m < MODIFIERS.length ; m++ ) {
+                for( int k = 0 ; k < KEYS.length ; k++ ) {
+                    String name = PREFIX + m + "." + k;
+                    KeyStroke stroke = KeyStroke.getKeyStroke( KEYS[ k ], MODIFIERS[ m ] );
+                    if( name.equals( inputs.get( stroke ) ) ) {
+                        inputs.remove( stroke );
+                    }
+                    stroke = KeyStroke.getKeyStroke( KEYS[ k ], MODIFIERS[ m ], true );
+                    if( RELEASED.equals( inputs.get( stroke ) ) ) {
+                        inputs.remove( stroke );
+                    }
+                    actions.remove( name );
+                }
+            }
+            actions.remove( RELEASED );
         }
-        
     }
 //</editor-fold>
     
@@ -416,12 +2691,30 @@ public class SwingSelection {
      */
     private class SelectionMouseAdapter extends MouseAdapter {
         
-        private Point fp, mp;
+        private final Point fp, mp;
         
         private int activeHandle;
         
         private boolean moveSelection;
         
+        // Coalescing of drag events
+        private boolean coalesce;
+        private boolean hasPending;
+        private final Point pending;
+        private final FrameScheduler.Task frameTask;
+        
+        // Auto-scrolling, the latest pointer position relative to the
+        // Container follows the view as it scrolls
+        private final FrameScheduler.Task scrollTask;
+        private final Rectangle visible;
+        private final Point viewPosition;
+        private int pointerX, pointerY;
+        // Time of the last frame, unset until the first frame after the
+        // pointer left the viewport
+        private long lastScroll;
+        private boolean scrollTimed;
+        private double remainderX, remainderY;
+        
         public SelectionMouseAdapter() {
             
             fp = new Point();
@@ -431,112 +2724,464 @@ public class SwingSelection {
             
             moveSelection = false;
             
+            coalesce = false;
+            hasPending = false;
+            pending = new Point();
+            frameTask = new FrameScheduler.Task() {
+                @Override
+                boolean frame( long now ) {
+                    return applyFrame();
+                }
+            };
+            
+            scrollTask = new FrameScheduler.Task() {
+                @Override
+                boolean frame( long now ) {
+                    return scrollFrame( now );
+                }
+            };
+            visible = new Rectangle();
+            viewPosition = new Point();
+            
+        }
+        
+        /**
+         * Sets whether drag events should be coalesced and applied once per frame
+         * @param coalesceDrags true to coalesce drag events, false to apply every event
+         */
+        public void setCoalesce( boolean coalesceDrags ) {
+            if( !coalesceDrags ) {
+                // Don't leave a pending position behind
+                applyPending();
+                FrameScheduler.getShared().cancel( frameTask );
+            }
+            coalesce = coalesceDrags;
+        }
+        
+        /**
+         * Sets a predefined cursor on the Container, unless it is already set
+         * @param type the type of predefined cursor
+         */
+        private void setCursor( int type ) {
+            if( !c.isCursorSet() || c.getCursor().getType() != type ) {
+                // Predefined cursors are cached by Cursor
+                c.setCursor( Cursor.getPredefinedCursor( type ) );
+            }
         }
         
         @Override
         public void mouseMoved( MouseEvent e ) {
             
+            SelectionMetricsCollector m = metrics;
+            long start = m != null ? System.nanoTime() : 0;
+            
             if( mySel.isVisible() ) {
                 
-                activeHandle = inHandle( e.getPoint() );
+                activeHandle = inHandle( e.getX(), e.getY() );
                 
                 switch( activeHandle ) {
                     case UPPER_LEFT_HANDLE:
-                        c.setCursor( new Cursor( Cursor.NW_RESIZE_CURSOR ) );
+                        setCursor( Cursor.NW_RESIZE_CURSOR );
                         break;
                     case UPPER_RIGHT_HANDLE:
-                        c.setCursor( new Cursor( Cursor.NE_RESIZE_CURSOR ) );
+                        setCursor( Cursor.NE_RESIZE_CURSOR );
                         break;
                     case LOWER_LEFT_HANDLE:
-                        c.setCursor( new Cursor( Cursor.SW_RESIZE_CURSOR ) );
+                        setCursor( Cursor.SW_RESIZE_CURSOR );
                         break;
                     case LOWER_RIGHT_HANDLE:
-                        c.setCursor( new Cursor( Cursor.SE_RESIZE_CURSOR ) );
+                        setCursor( Cursor.SE_RESIZE_CURSOR );
                         break;
                     case UPPER_EDGE_HANDLE:
-                        c.setCursor( new Cursor( Cursor.N_RESIZE_CURSOR ) );
+                        setCursor( Cursor.N_RESIZE_CURSOR );
                         break;
                     case LOWER_EDGE_HANDLE:
-                        c.setCursor( new Cursor( Cursor.S_RESIZE_CURSOR ) );
+                        setCursor( Cursor.S_RESIZE_CURSOR );
                         break;
                     case LEFT_EDGE_HANDLE:
-                        c.setCursor( new Cursor( Cursor.W_RESIZE_CURSOR ) );
+                        setCursor( Cursor.W_RESIZE_CURSOR );
                         break;
                     case RIGHT_EDGE_HANDLE:
-                        c.setCursor( new Cursor( Cursor.E_RESIZE_CURSOR ) );
+                        setCursor( Cursor.E_RESIZE_CURSOR );
                         break;
                     default:
-                        if( mySel.containsContainerPoint( e.getPoint() )) {
+                        if( mySel.containsContainerCoords( e.getX(), e.getY() )) {
                             // Pointer inside selection, set move cursor
-                            c.setCursor( new Cursor( Cursor.MOVE_CURSOR ) );
+                            setCursor( Cursor.MOVE_CURSOR );
                         } else {
                             // All other cases, normal cursor
-                            c.setCursor( new Cursor( Cursor.DEFAULT_CURSOR ) );
+                            setCursor( Cursor.DEFAULT_CURSOR );
                         }
                         break;
                 }
             } else {
-                c.setCursor( new Cursor( Cursor.DEFAULT_CURSOR ));
+                setCursor( Cursor.DEFAULT_CURSOR );
+            }
+            
+            if( m != null ) {
+                m.record( SelectionMetrics.MOUSE_MOVED, start );
             }
         }
         
         @Override
         public void mousePressed( MouseEvent e ) {
             
-            fp = e.getPoint();
+            // The user takes over from an animation
+            stopAnimation();
             
-            // Don't move or resize invisible selection
-            if( mySel.isVisible() ) {
-                activeHandle = inHandle( e.getPoint() );
+            if( c instanceof JComponent ) {
+                keyHandler.raise( (JComponent)c );
+            }
+            
+            markChangeStart();
+            
+            fp.setLocation( e.getX(), e.getY() );
+            
+            int mods = e.getModifiersEx();
+            int op = COMBINE_NONE;
+            if( ( mods & InputEvent.SHIFT_DOWN_MASK ) != 0 ) {
+                op = COMBINE_ADD;
+            } else if( ( mods & InputEvent.ALT_DOWN_MASK ) != 0 ) {
+                op = COMBINE_SUBTRACT;
+            }
+            
+            if( op != COMBINE_NONE && mySel.isVisible() && mySel.geometry.getWidth() > 0 && mySel.geometry.getHeight() > 0 ) {
+                // Draw a new shape to add to or subtract from the selection
+                activeHandle = NOT_IN_HANDLE;
+                pendingRegion = getRegion();
+                pendingBounds.setBounds( pendingRegion.getX(), pendingRegion.getY(),
+                        pendingRegion.getWidth(), pendingRegion.getHeight() );
+                combineOp = op;
+                startSelection();
+            } else if( mySel.isVisible() ) {
+                activeHandle = inHandle( e.getX(), e.getY() );
                 if( activeHandle > 0 ) {
                     // In selection handle, resize
-                } else if( mySel.containsContainerPoint( e.getPoint() ) ) {
+                } else if( mySel.containsContainerCoords( e.getX(), e.getY() ) ) {
                     // Inside selection, prepare to move
                     moveSelection = true;
                 } else {
-                    // Outside selection, do nothing
+                    // Outside selection, a new selection starts here
+                    startSelection();
                 }
+            } else {
+                startSelection();
             }
             
             // Selection should always be visible after mouse button has been pressed
             mySel.setVisible( true );
             
+            dispatcher.fireStarted();
+            
         }
         
         @Override
         public void mouseDragged( MouseEvent e ) {
             
-            mp = e.getPoint();
+            if( autoScroll ) {
+                updateAutoScroll( e.getX(), e.getY() );
+            }
+            
+            if( coalesce ) {
+                // Keep the latest position, it is applied on the next frame
+                if( hasPending ) {
+                    SelectionMetricsCollector m = metrics;
+                    if( m != null ) {
+                        m.coalesced();
+                    }
+                }
+                pending.setLocation( e.getX(), e.getY() );
+                hasPending = true;
+                FrameScheduler.getShared().schedule( frameTask );
+            } else {
+                applyDrag( e.getX(), e.getY() );
+            }
+            
+        }
+        
+        /**
+         * Returns the viewport the Container is the view of
+         * @return the viewport, or null if the Container can't be auto-scrolled
+         */
+        private JViewport getViewport() {
+            
+            Container parent = c.getParent();
+            if( parent instanceof JViewport && c instanceof JComponent && ( (JViewport)parent ).getView() == c ) {
+                return (JViewport)parent;
+            }
+            
+            return null;
+        }
+        
+        /**
+         * Starts or stops auto-scrolling depending on how far past the edges
+         * of the viewport the pointer is
+         * @param x x-coordinate of the pointer
+         * @param y y-coordinate of the pointer
+         */
+        private void updateAutoScroll( int x, int y ) {
+            
+            pointerX = x;
+            pointerY = y;
+            
+            if( getViewport() == null ) {
+                return;
+            }
+            
+            ( (JComponent)c ).computeVisibleRect( visible );
+            if( distancePast( x, visible.x, visible.width ) == 0 && distancePast( y, visible.y, visible.height ) == 0 ) {
+                stopAutoScroll();
+            } else if( !scrollTask.isScheduled() ) {
+                scrollTimed = false;
+                remainderX = 0;
+                remainderY = 0;
+                FrameScheduler.getShared().schedule( scrollTask );
+            }
+        }
+        
+        public void stopAutoScroll() {
+            FrameScheduler.getShared().cancel( scrollTask );
+        }
+        
+        /**
+         * Returns how far a coordinate is past the visible range along an
+         * axis
+         * @return the distance, negative before the range
+         */
+        private int distancePast( int pos, int start, int length ) {
+            if( pos < start ) {
+                return pos - start;
+            } else if( pos >= start + length ) {
+                return pos - ( start + length - 1 );
+            }
+            return 0;
+        }
+        
+        /**
+         * Called once per frame while the pointer is past an edge. Scrolls
+         * the viewport by the distance covered at the current speed since
+         * the last frame, and drags the selection along with the pointer.
+         * @param now the time of the frame
+         * @return false when the pointer is back inside the viewport
+         */
+        private boolean scrollFrame( long now ) {
+            
+            JViewport viewport = getViewport();
+            if( viewport == null ) {
+                return false;
+            }
+            
+            ( (JComponent)c ).computeVisibleRect( visible );
+            int dx = distancePast( pointerX, visible.x, visible.width );
+            int dy = distancePast( pointerY, visible.y, visible.height );
+            if( dx == 0 && dy == 0 ) {
+                return false;
+            }
+            
+            // The first frame only starts the clock, so that every step is
+            // timed by the frames
+            if( !scrollTimed ) {
+                scrollTimed = true;
+                lastScroll = now;
+                return true;
+            }
+            
+            double seconds = ( now - lastScroll ) / 1e9;
+            lastScroll = now;
+            remainderX += seconds * Math.max( -AUTO_SCROLL_MAX_SPEED, Math.min( AUTO_SCROLL_RATE * dx, AUTO_SCROLL_MAX_SPEED ) );
+            remainderY += seconds * Math.max( -AUTO_SCROLL_MAX_SPEED, Math.min( AUTO_SCROLL_RATE * dy, AUTO_SCROLL_MAX_SPEED ) );
+            int stepX = (int)remainderX;
+            int stepY = (int)remainderY;
+            remainderX -= stepX;
+            remainderY -= stepY;
+            
+            // The visible rectangle starts at the view position
+            int x = Math.max( 0, Math.min( visible.x + stepX, c.getWidth() - viewport.getWidth() ) );
+            int y = Math.max( 0, Math.min( visible.y + stepY, c.getHeight() - viewport.getHeight() ) );
+            stepX = x - visible.x;
+            stepY = y - visible.y;
+            
+            if( stepX != 0 || stepY != 0 ) {
+                // One scroll and one drag per frame, the pointer stays put on
+                // the screen so it moves along with the view
+                viewPosition.setLocation( x, y );
+                viewport.setViewPosition( viewPosition );
+                pointerX += stepX;
+                pointerY += stepY;
+                hasPending = false;
+                applyDrag( pointerX, pointerY );
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Called once per frame, applies the latest pending drag position
+         * @return false when there were no drag events during the last frame
+         */
+        private boolean applyFrame() {
+            if( hasPending ) {
+                applyPending();
+                return true;
+            }
+            // No drag events during the last frame, no need to keep ticking
+            return false;
+        }
+        
+        /**
+         * Starts a new selection of the shape set for drawing at the press
+         * position
+         */
+        private void startSelection() {
+            
+            shape = drawShape;
+            outline = null;
+            region = null;
+            
+            if( drawShape == SHAPE_LASSO ) {
+                // Lasso points are not snapped, the stroke follows the pointer
+                if( lasso == null ) {
+                    lasso = new LassoPath( LASSO_TOLERANCE );
+                } else {
+                    lasso.reset();
+                }
+                lassoing = true;
+                addLassoPoint( fp.x, fp.y );
+            } else {
+                mySel.snapPoint( fp );
+            }
+        }
+        
+        /**
+         * Adds a point to the lasso being drawn and sets the bounds to the
+         * area covered by the stroke
+         */
+        private void addLassoPoint( int x, int y ) {
+            
+            if( mySel.inContainer && transform == null ) {
+                // Keep the stroke inside, clamping the bounds would move it
+                x = Math.max( 0, Math.min( x, c.getWidth() ) );
+                y = Math.max( 0, Math.min( y, c.getHeight() ) );
+            }
+            
+            lasso.add( x, y );
+            mySel.setClampedBounds( lasso.getMinX(), lasso.getMinY(),
+                    lasso.getMaxX() - lasso.getMinX(), lasso.getMaxY() - lasso.getMinY() );
+        }
+        
+        /**
+         * Adds the shape just drawn to the previous selection, or subtracts
+         * it, and makes the result the selection
+         */
+        private void finishCombine() {
+            
+            SelectionRegion r = pendingRegion;
+            SelectionRegion before = history != null ? new SelectionRegion( r ) : null;
+            if( combineOp == COMBINE_ADD ) {
+                r.union( getRegion() );
+            } else {
+                r.subtract( getRegion() );
+            }
+            pendingRegion = null;
+            combineOp = COMBINE_NONE;
+            
+            // The component shrinks back, parts of the previous selection
+            // may be left outside the new bounds
+            repaintArea( pendingBounds, handleSize );
+            applyRegion( r );
+            
+            // The bounds can't describe the change, the regions are recorded
+            if( history != null ) {
+                history.recordRegion( historyId, before, getRegion() );
+            }
+        }
+        
+        /**
+         * Closes the lasso being drawn into the outline of the selection
+         */
+        private void finishLasso() {
+            
+            lassoing = false;
+            outline = lasso.toOutline();
+            
+            if( outline != null ) {
+                mySel.setClampedBounds( outline.getX(), outline.getY(), outline.getWidth(), outline.getHeight() );
+            } else {
+                // Too short a stroke to enclose anything, repaint it away
+                mySel.getPaintBounds( dirty );
+                repaintArea( dirty, handleSize );
+            }
+        }
+        
+        /**
+         * Applies the pending drag position, if any
+         */
+        private void applyPending() {
+            if( hasPending ) {
+                hasPending = false;
+                applyDrag( pending.x, pending.y );
+            }
+        }
+        
+        /**
+         * Resizes or moves the selection to follow a drag to a new position
+         * @param x x-coordinate of the pointer
+         * @param y y-coordinate of the pointer
+         */
+        private void applyDrag( int x, int y ) {
+            
+            SelectionMetricsCollector m = metrics;
+            long start = m != null ? System.nanoTime() : 0;
+            
+            mp.setLocation( x, y );
             
             if( activeHandle > 0 ) {
                 // Resize selection based on current handle and opposite corner
-                fp = getOppositePoint( activeHandle );
+                getOppositePoint( activeHandle, fp );
                 mySel.setBounds( fp, mp );
             } else if( moveSelection) {
                 // Move selection
                 mySel.move(fp, mp);
-                fp = mp;
+                fp.setLocation( mp );
+            } else if( lassoing ) {
+                addLassoPoint( x, y );
             } else {
                 // Drag a new selection
                 mySel.setBounds( fp, mp );
             }
             
-            mySel.repaint();
+            dispatcher.fireChanging();
+            
+            if( m != null ) {
+                m.record( SelectionMetrics.MOUSE_DRAGGED, start );
+            }
             
         }
         
         @Override
         public void mouseReleased( MouseEvent e ) {
             
-            mp = e.getPoint();
+            SelectionMetricsCollector m = metrics;
+            long start = m != null ? System.nanoTime() : 0;
+            
+            // The release position is applied exactly below, any position
+            // still waiting for the next frame is out of date
+            hasPending = false;
+            FrameScheduler.getShared().cancel( frameTask );
+            stopAutoScroll();
+            
+            mp.setLocation( e.getX(), e.getY() );
             
             if( activeHandle > 0 ) {
                 // Finish resizing selection
-                fp = getOppositePoint( activeHandle );
+                getOppositePoint( activeHandle, fp );
                 mySel.setBounds( fp, mp );
             } else if ( moveSelection ) {
                 // Finish moving selection
                 mySel.move(fp, mp);
+            } else if( lassoing ) {
+                addLassoPoint( mp.x, mp.y );
+                finishLasso();
             } else {
                 // Finish 
                 mySel.setBounds( fp, mp );
@@ -544,9 +3189,16 @@ public class SwingSelection {
             
             moveSelection = false;
             
-            setSelectionHandles();
+            if( pendingRegion != null ) {
+                finishCombine();
+            } else {
+                recordChange();
+            }
+            dispatcher.fireCommitted();
             
-            mySel.repaint();
+            if( m != null ) {
+                m.record( SelectionMetrics.MOUSE_RELEASED, start );
+            }
             
         }
     }
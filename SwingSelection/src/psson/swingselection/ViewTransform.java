@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+/**
+ * An immutable transform between world coordinates and coordinates relative
+ * to the Container of a SwingSelection. A world coordinate w is shown at
+ * ( w - origin ) * scale in the Container.
+ * @author SwingSelection contributors
+ */
+public final class ViewTransform {
+    
+    /** Transform where world coordinates are the same as Container coordinates */
+    public static final ViewTransform IDENTITY = new ViewTransform( 1.0, 0.0, 0.0 );
+    
+    private final double scale;
+    private final double originX, originY;
+    
+    /**
+     * Creates a new ViewTransform
+     * @param scale Container pixels per world unit, larger values zoom in
+     * @param originX world x-coordinate shown at the left edge of the Container
+     * @param originY world y-coordinate shown at the top edge of the Container
+     */
+    public ViewTransform( double scale, double originX, double originY ) {
+        
+        if( !( scale > 0.0 ) || Double.isInfinite( scale ) ) {
+            throw new IllegalArgumentException( "Scale must be positive and finite: " + scale );
+        }
+        
+        this.scale = scale;
+        this.originX = originX;
+        this.originY = originY;
+    }
+    
+    public double getScale() {
+        return scale;
+    }
+    
+    public double getOriginX() {
+        return originX;
+    }
+    
+    public double getOriginY() {
+        return originY;
+    }
+    
+    /**
+     * Converts a world x-coordinate to a Container x-coordinate
+     * @param x the world x-coordinate
+     * @return the x-coordinate relative to the Container
+     */
+    public double toViewX( double x ) {
+        return ( x - originX ) * scale;
+    }
+    
+    /**
+     * Converts a world y-coordinate to a Container y-coordinate
+     * @param y the world y-coordinate
+     * @return the y-coordinate relative to the Container
+     */
+    public double toViewY( double y ) {
+        return ( y - originY ) * scale;
+    }
+    
+    /**
+     * Converts a Container x-coordinate to a world x-coordinate
+     * @param x the x-coordinate relative to the Container
+     * @return the world x-coordinate
+     */
+    public double toWorldX( double x ) {
+        return originX + x / scale;
+    }
+    
+    /**
+     * Converts a Container y-coordinate to a world y-coordinate
+     * @param y the y-coordinate relative to the Container
+     * @return the world y-coordinate
+     */
+    public double toWorldY( double y ) {
+        return originY + y / scale;
+    }
+    
+    /**
+     * Returns a transform panned a distance in the Container
+     * @param dx distance to pan horizontally, in Container pixels
+     * @param dy distance to pan vertically, in Container pixels
+     * @return the panned transform
+     */
+    public ViewTransform pan( double dx, double dy ) {
+        return new ViewTransform( scale, originX - dx / scale, originY - dy / scale );
+    }
+    
+    /**
+     * Returns a transform zoomed around a point in the Container. The world
+     * coordinate at the point stays at the same place.
+     * @param factor factor to multiply the scale with
+     * @param x x-coordinate of the point relative to the Container
+     * @param y y-coordinate of the point relative to the Container
+     * @return the zoomed transform
+     */
+    public ViewTransform zoom( double factor, double x, double y ) {
+        double newScale = scale * factor;
+        return new ViewTransform( newScale, toWorldX( x ) - x / newScale, toWorldY( y ) - y / newScale );
+    }
+    
+    @Override
+    public boolean equals( Object o ) {
+        
+        if( !( o instanceof ViewTransform ) ) {
+            return false;
+        }
+        
+        ViewTransform t = (ViewTransform)o;
+        
+        return Double.compare( scale, t.scale ) == 0
+                && Double.compare( originX, t.originX ) == 0
+                && Double.compare( originY, t.originY ) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits( scale );
+        bits = bits * 31 + Double.doubleToLongBits( originX );
+        bits = bits * 31 + Double.doubleToLongBits( originY );
+        return (int)( bits ^ ( bits >>> 32 ) );
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getName() + "[scale=" + scale + ",originX=" + originX + ",originY=" + originY + "]";
+    }
+    
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionEventReplayerTest {
+    
+    private static final int C_WIDTH = 800;
+    private static final int C_HEIGHT = 600;
+    
+    public SelectionEventReplayerTest() {
+    }
+
+    /**
+     * Test of replay method, of class SelectionEventReplayer.
+     * Records a drag session and replays it
+     */
+    @Test
+    public void testRecordAndReplay() throws IOException {
+        System.out.println("record and replay");
+        
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        SelectionEventRecorder recorder = new SelectionEventRecorder( c, trace );
+        
+        // Drag a selection, then move it partly outside the Container
+        long when = 1000L;
+        send( c, MouseEvent.MOUSE_MOVED, when, 5, 5 );
+        send( c, MouseEvent.MOUSE_PRESSED, when += 8, 10, 10 );
+        for( int i = 1 ; i <= 100 ; i++ ) {
+            send( c, MouseEvent.MOUSE_DRAGGED, when += 2, 10 + 3 * i, 10 + 2 * i );
+        }
+        send( c, MouseEvent.MOUSE_RELEASED, when += 2, 310, 210 );
+        send( c, MouseEvent.MOUSE_PRESSED, when += 500, 100, 100 );
+        for( int i = 1 ; i <= 50 ; i++ ) {
+            send( c, MouseEvent.MOUSE_DRAGGED, when += 2, 100 - 4 * i, 100 - i );
+        }
+        send( c, MouseEvent.MOUSE_RELEASED, when += 2, -100, 50 );
+        recorder.stop();
+        
+        assertEquals( 155, recorder.getEventCount() );
+        // Compact, a handful of bytes per event
+        assertTrue( trace.size() < 155 * 5 );
+        
+        SelectionEventReplayer replayer = new SelectionEventReplayer( new ByteArrayInputStream( trace.toByteArray() ) );
+        assertEquals( 155, replayer.getEventCount() );
+        
+        LatencyReport report = replayer.replay( 2 );
+        assertEquals( 155, report.getCount() );
+        assertTrue( report.getP50() <= report.getP99() );
+        assertTrue( report.getP99() <= report.getP999() );
+        assertTrue( report.getP999() <= report.getMax() );
+        
+        // The replay ends the same way as the recorded session
+        assertEquals( sel.getBounds(), replayer.getLastBounds() );
+        assertEquals( new Rectangle( -190, -40, 300, 200 ), replayer.getLastBounds() );
+        
+        replayer.stayInsideContainer( true );
+        replayer.replay();
+        assertEquals( new Rectangle( 0, 0, 300, 200 ), replayer.getLastBounds() );
+    }
+    
+    /**
+     * Test of the constructor of class SelectionEventReplayer with a bad trace
+     */
+    @Test( expected = IOException.class )
+    public void testBadTrace() throws IOException {
+        System.out.println("bad trace");
+        new SelectionEventReplayer( new ByteArrayInputStream( new byte[] { 1, 2, 3, 4, 5, 6 } ) );
+    }
+    
+    /**
+     * Test of getPercentile method, of class LatencyReport.
+     */
+    @Test
+    public void testLatencyReport() {
+        System.out.println("LatencyReport");
+        
+        long[] latencies = new long[ 1000 ];
+        for( int i = 0 ; i < latencies.length ; i++ ) {
+            latencies[ i ] = 1000 - i;
+        }
+        
+        LatencyReport report = new LatencyReport( latencies );
+        assertEquals( 500, report.getP50() );
+        assertEquals( 990, report.getP99() );
+        assertEquals( 999, report.getP999() );
+        assertEquals( 1000, report.getMax() );
+    }
+    
+    private static void send( Container c, int id, long when, int x, int y ) {
+        
+        int mods = id == MouseEvent.MOUSE_MOVED ? 0 : InputEvent.BUTTON1_DOWN_MASK;
+        MouseEvent e = new MouseEvent( c, id, when, mods, x, y, 1, false, MouseEvent.BUTTON1 );
+        
+        for( MouseListener l : c.getMouseListeners() ) {
+            if( id == MouseEvent.MOUSE_PRESSED ) {
+                l.mousePressed( e );
+            } else if( id == MouseEvent.MOUSE_RELEASED ) {
+                l.mouseReleased( e );
+            }
+        }
+        for( MouseMotionListener l : c.getMouseMotionListeners() ) {
+            if( id == MouseEvent.MOUSE_DRAGGED ) {
+                l.mouseDragged( e );
+            } else if( id == MouseEvent.MOUSE_MOVED ) {
+                l.mouseMoved( e );
+            }
+        }
+    }
+    
+}
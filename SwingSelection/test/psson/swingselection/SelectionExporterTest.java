@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionExporterTest {
+    
+    public SelectionExporterTest() {
+    }
+    
+    /**
+     * Test of SelectionExporter and SelectionImporter, round trip in both formats
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("round trip");
+        
+        SelectionStore store = new SelectionStore();
+        for( int i = 0 ; i < 50000 ; i++ ) {
+            store.add( i * 7 - 1000, -i, i % 300, 1 + i % 200 );
+        }
+        store.add( Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0 );
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 10, 20, 30, 40 ) );
+        
+        for( int format : new int[] { SelectionExporter.CSV, SelectionExporter.JSON } ) {
+            
+            StringWriter out = new StringWriter();
+            try( SelectionExporter exporter = new SelectionExporter( out, format ) ) {
+                exporter.write( store );
+                exporter.write( sel );
+                assertEquals( store.size() + 1, exporter.getCount() );
+            }
+            
+            SelectionStore read = new SelectionStore();
+            try( SelectionImporter importer = new SelectionImporter( new StringReader( out.toString() ) ) ) {
+                assertEquals( store.size() + 1, importer.readAll( read ) );
+            }
+            
+            for( int i = 0 ; i < store.size() ; i++ ) {
+                assertEquals( store.getX( i ), read.getX( i ) );
+                assertEquals( store.getY( i ), read.getY( i ) );
+                assertEquals( store.getWidth( i ), read.getWidth( i ) );
+                assertEquals( store.getHeight( i ), read.getHeight( i ) );
+            }
+            assertEquals( 40, read.getHeight( store.size() ) );
+        }
+    }
+    
+    /**
+     * Tests that hand written input with whitespace and extra members is read,
+     * and that malformed input is rejected
+     */
+    @Test
+    public void testParsing() throws IOException {
+        System.out.println("parsing");
+        
+        String json = " [ { \"height\" : 4, \"id\": 17, \"x\":1,\"y\" :-2 , \"width\":3 } ,\r\n {\"x\":5,\"y\":6,\"width\":7,\"height\":8}]";
+        SelectionStore read = new SelectionStore();
+        assertEquals( 2, new SelectionImporter( new StringReader( json ) ).readAll( read ) );
+        assertEquals( -2, read.getY( 0 ) );
+        assertEquals( 4, read.getHeight( 0 ) );
+        
+        String csv = "x,y,width,height\r\n1, 2 ,3,4\r\n\r\n5,6,7,8";
+        read = new SelectionStore();
+        assertEquals( 2, new SelectionImporter( new StringReader( csv ) ).readAll( read ) );
+        assertEquals( 8, read.getHeight( 1 ) );
+        
+        for( String bad : new String[] { "1,2,3", "1,2,3,4,5", "[{\"x\":1,\"y\":2,\"width\":3}]",
+                "1,2,3,99999999999", "[{\"x\":1,\"y\":2,\"width\":3,\"height\":4}" } ) {
+            try {
+                new SelectionImporter( new StringReader( bad ) ).readAll( new SelectionStore() );
+                fail( "Accepted " + bad );
+            } catch( IOException ex ) {
+                // Expected
+            }
+        }
+    }
+    
+    /**
+     * Tests that exporting selections does not allocate any objects per
+     * selection
+     */
+    @Test
+    public void testExportAllocation() throws IOException {
+        System.out.println("export allocation");
+        
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue( bean instanceof com.sun.management.ThreadMXBean );
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        Assume.assumeTrue( threads.isThreadAllocatedMemorySupported() );
+        threads.setThreadAllocatedMemoryEnabled( true );
+        
+        // Discards everything, like a socket that is drained
+        Writer sink = new Writer() {
+            @Override
+            public void write( char[] cbuf, int off, int len ) {
+            }
+            @Override
+            public void flush() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+        
+        int n = 200000;
+        long allocated = 0;
+        
+        // First pass warms up the code, second pass is measured
+        for( int pass = 0 ; pass < 2 ; pass++ ) {
+            SelectionExporter exporter = new SelectionExporter( sink, SelectionExporter.JSON );
+            long before = threads.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            for( int i = 0 ; i < n ; i++ ) {
+                exporter.write( i, -i, i & 1023, 17 );
+            }
+            allocated = threads.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before;
+            exporter.close();
+        }
+        
+        double bytesPerSelection = (double)allocated / n;
+        System.out.println( "bytes per selection: " + bytesPerSelection );
+        assertTrue( bytesPerSelection < 1.0 );
+    }
+    
+}
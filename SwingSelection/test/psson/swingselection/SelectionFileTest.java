@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionFileTest {
+    
+    private Path path;
+    
+    public SelectionFileTest() {
+    }
+    
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile( "selections", ".bin" );
+        Files.delete( path );
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists( path );
+    }
+    
+    /**
+     * Test of append, set and reopening, of class SelectionFile.
+     */
+    @Test
+    public void testAppendAndReopen() throws IOException {
+        System.out.println("append");
+        
+        SelectionStore store = new SelectionStore();
+        for( int i = 0 ; i < 10000 ; i++ ) {
+            store.add( i, -i, 2 * i, 3 * i );
+        }
+        
+        try( SelectionFile file = SelectionFile.open( path ) ) {
+            assertEquals( 0, file.size() );
+            assertEquals( 0, file.append( 1, 2, 3, 4 ) );
+            file.append( store );
+            assertEquals( 10001, file.append( 5, 6, 7, 8 ) );
+            
+            // Records appended after opening are read through a new mapping
+            assertEquals( new Rectangle( 5, 6, 7, 8 ), file.getBounds( 10001 ) );
+            
+            file.set( 500, 9, 9, 9, 9 );
+        }
+        
+        // Header, one record per selection and nothing else
+        assertEquals( SelectionFile.HEADER_SIZE + 10002 * SelectionFile.RECORD_SIZE, Files.size( path ) );
+        
+        try( SelectionFile file = SelectionFile.open( path ) ) {
+            assertEquals( 10002, file.size() );
+            assertEquals( new Rectangle( 1, 2, 3, 4 ), file.getBounds( 0 ) );
+            assertEquals( 7, file.getX( 8 ) );
+            assertEquals( -7, file.getY( 8 ) );
+            assertEquals( 14, file.getWidth( 8 ) );
+            assertEquals( 21, file.getHeight( 8 ) );
+            assertEquals( new Rectangle( 9, 9, 9, 9 ), file.getBounds( 500 ) );
+            
+            SelectionStore loaded = new SelectionStore();
+            file.loadInto( loaded );
+            assertEquals( 10002, loaded.size() );
+            assertEquals( 9998, loaded.getX( 9999 ) );
+        }
+    }
+    
+    /**
+     * Test of capture and restore methods, of class SelectionFile.
+     */
+    @Test
+    public void testCaptureAndRestore() throws IOException {
+        System.out.println("capture");
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SwingSelection sel = new SwingSelection( c );
+        
+        try( SelectionFile file = SelectionFile.open( path ) ) {
+            sel.setBounds( new Rectangle( 10, 20, 30, 40 ) );
+            int index = file.capture( sel );
+            sel.setBounds( new Rectangle( 50, 60, 70, 80 ) );
+            file.capture( sel );
+            
+            file.restore( index, sel );
+            assertEquals( new Rectangle( 10, 20, 30, 40 ), sel.getBounds() );
+            
+            sel.setBounds( new Rectangle( 1, 1, 1, 1 ) );
+            file.capture( index, sel );
+            assertEquals( new Rectangle( 1, 1, 1, 1 ), file.getBounds( index ) );
+            assertEquals( 2, file.size() );
+        }
+    }
+    
+    /**
+     * Tests appending and reading in turn, and that the unused space of the
+     * grown mapping is removed on close
+     */
+    @Test
+    public void testAppendAndRead() throws IOException {
+        System.out.println("append and read");
+        
+        SelectionFile file = SelectionFile.open( path );
+        for( int i = 0 ; i < 1000 ; i++ ) {
+            file.append( i, i, 1, 1 );
+            assertEquals( i, file.getX( i ) );
+            assertEquals( 0, file.getX( 0 ) );
+        }
+        file.close();
+        
+        assertEquals( SelectionFile.HEADER_SIZE + 1000 * SelectionFile.RECORD_SIZE, Files.size( path ) );
+        
+        try {
+            file.getX( 0 );
+            fail( "Read from a closed file" );
+        } catch( IllegalStateException ex ) {
+            // Expected
+        }
+        try {
+            file.set( 0, 1, 1, 1, 1 );
+            fail( "Wrote to a closed file" );
+        } catch( IllegalStateException ex ) {
+            // Expected
+        }
+    }
+    
+    /**
+     * Tests that other files are rejected
+     */
+    @Test( expected = IOException.class )
+    public void testBadFile() throws IOException {
+        System.out.println("bad file");
+        
+        try( RandomAccessFile raf = new RandomAccessFile( path.toFile(), "rw" ) ) {
+            raf.write( new byte[ 32 ] );
+        }
+        
+        SelectionFile.open( path ).close();
+    }
+    
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionGeometryTest {
+    
+    private SelectionGeometry geometry;
+    
+    public SelectionGeometryTest() {
+    }
+    
+    @Before
+    public void setUp() {
+        geometry = new SelectionGeometry();
+        geometry.setBounds( 100, 100, 200, 100 );
+    }
+    
+    /**
+     * Test of handleAt and getOpposite methods, of class SelectionGeometry.
+     */
+    @Test
+    public void testHandles() {
+        System.out.println("handleAt");
+        
+        assertEquals( SelectionGeometry.UPPER_LEFT_HANDLE, geometry.handleAt( 100, 102 ) );
+        assertEquals( SelectionGeometry.LOWER_RIGHT_HANDLE, geometry.handleAt( 299, 199 ) );
+        assertEquals( SelectionGeometry.UPPER_EDGE_HANDLE, geometry.handleAt( 200, 100 ) );
+        assertEquals( SelectionGeometry.RIGHT_EDGE_HANDLE, geometry.handleAt( 298, 150 ) );
+        assertEquals( SelectionGeometry.NOT_IN_HANDLE, geometry.handleAt( 200, 150 ) );
+        assertEquals( SelectionGeometry.NOT_IN_HANDLE, geometry.handleAt( 300, 150 ) );
+        
+        geometry.setHandleSize( 10 );
+        assertEquals( SelectionGeometry.LEFT_EDGE_HANDLE, geometry.handleAt( 109, 150 ) );
+        
+        assertEquals( 300, geometry.getOppositeX( SelectionGeometry.UPPER_LEFT_HANDLE ) );
+        assertEquals( 200, geometry.getOppositeY( SelectionGeometry.UPPER_LEFT_HANDLE ) );
+        assertEquals( 100, geometry.getOppositeX( SelectionGeometry.UPPER_RIGHT_HANDLE ) );
+        assertEquals( 100, geometry.getOppositeY( SelectionGeometry.LOWER_LEFT_HANDLE ) );
+    }
+    
+    /**
+     * Test of setCorners, translate, moveEdges and clampTo methods, of class
+     * SelectionGeometry.
+     */
+    @Test
+    public void testChanges() {
+        System.out.println("setCorners");
+        
+        geometry.setCorners( 50, 80, 10, 20 );
+        assertBounds( 10, 20, 40, 60 );
+        
+        geometry.translate( -20, 5 );
+        assertBounds( -10, 25, 40, 60 );
+        
+        geometry.clampTo( 800, 600 );
+        assertBounds( 0, 25, 40, 60 );
+        
+        geometry.translate( 780, 0 );
+        geometry.clampTo( 800, 600 );
+        assertBounds( 760, 25, 40, 60 );
+        
+        // An edge moved on its own stops at the opposite edge
+        geometry.moveEdges( 50, 0, 0, 0 );
+        assertBounds( 800, 25, 0, 60 );
+        geometry.moveEdges( -10, -5, -10, 5 );
+        assertBounds( 790, 20, 0, 70 );
+        
+        assertFalse( geometry.contains( 100, 100 ) );
+        geometry.setBounds( 0, 0, 10, 10 );
+        assertTrue( geometry.contains( 0, 0 ) );
+        assertFalse( geometry.contains( 10, 5 ) );
+    }
+    
+    private void assertBounds( int x, int y, int width, int height ) {
+        assertEquals( x, geometry.getX() );
+        assertEquals( y, geometry.getY() );
+        assertEquals( width, geometry.getWidth() );
+        assertEquals( height, geometry.getHeight() );
+    }
+    
+}
@@ -0,0 +1,359 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionHistoryTest {
+    
+    // Applies the steps to one geometry per id
+    private final SelectionGeometry[] geometries = { new SelectionGeometry(), new SelectionGeometry() };
+    
+    private final SelectionHistory.Target target = new SelectionHistory.Target() {
+        @Override
+        public void applyDelta( int id, int dx, int dy, int dw, int dh ) {
+            SelectionGeometry g = geometries[ id ];
+            g.setBounds( g.getX() + dx, g.getY() + dy, g.getWidth() + dw, g.getHeight() + dh );
+        }
+        
+        @Override
+        public void applyRegion( int id, SelectionRegion r ) {
+            geometries[ id ].setBounds( r.getX(), r.getY(), r.getWidth(), r.getHeight() );
+        }
+    };
+    
+    public SelectionHistoryTest() {
+    }
+    
+    /**
+     * Changes a geometry and records the change
+     */
+    private void change( SelectionHistory history, int id, int dx, int dy, int dw, int dh ) {
+        target.applyDelta( id, dx, dy, dw, dh );
+        history.record( id, dx, dy, dw, dh );
+    }
+    
+    /**
+     * Test of undo and redo methods, of class SelectionHistory.
+     */
+    @Test
+    public void testUndoRedo() {
+        System.out.println("undo");
+        
+        SelectionHistory history = new SelectionHistory( 1024 );
+        assertFalse( history.canUndo() );
+        
+        change( history, 0, 10, 20, 30, 40 );
+        change( history, 1, -5, 0, 0, 0 );
+        // Too large for 16 bits, stored in two entries
+        change( history, 0, 100000, -70000, 0, Integer.MAX_VALUE - 40 );
+        change( history, 0, -1, -1, -1, -1 );
+        
+        assertTrue( history.undo( target ) );
+        assertTrue( history.undo( target ) );
+        assertEquals( 10, geometries[ 0 ].getX() );
+        assertEquals( 40, geometries[ 0 ].getHeight() );
+        
+        assertTrue( history.redo( target ) );
+        assertEquals( 100010, geometries[ 0 ].getX() );
+        assertEquals( -69980, geometries[ 0 ].getY() );
+        assertEquals( Integer.MAX_VALUE, geometries[ 0 ].getHeight() );
+        
+        assertTrue( history.undo( target ) );
+        assertTrue( history.undo( target ) );
+        assertEquals( 0, geometries[ 1 ].getX() );
+        assertTrue( history.undo( target ) );
+        assertFalse( history.undo( target ) );
+        assertEquals( 0, geometries[ 0 ].getX() );
+        assertEquals( 0, geometries[ 0 ].getHeight() );
+        
+        // A new step drops the steps that could be redone
+        assertTrue( history.redo( target ) );
+        change( history, 1, 3, 3, 3, 3 );
+        assertFalse( history.canRedo() );
+        assertTrue( history.undo( target ) );
+        assertTrue( history.undo( target ) );
+        assertFalse( history.canUndo() );
+    }
+    
+    /**
+     * Tests that the oldest steps are dropped at the memory cap
+     */
+    @Test
+    public void testMemoryCap() {
+        System.out.println("memory cap");
+        
+        SelectionHistory history = new SelectionHistory( 100 * SelectionHistory.ENTRY_SIZE );
+        
+        for( int i = 0 ; i < 100000 ; i++ ) {
+            change( history, 0, 1, 0, 0, ( i % 7 == 0 ) ? 1000000 : 1 );
+        }
+        
+        int undone = 0;
+        while( history.undo( target ) ) {
+            undone++;
+        }
+        
+        // Only the latest steps are kept, wide steps take two entries
+        assertTrue( undone > 50 && undone <= 100 );
+        assertEquals( 100000 - undone, geometries[ 0 ].getX() );
+    }
+    
+    /**
+     * Tests that a large cap isn't allocated up front, and that the steps
+     * survive the ring buffer growing
+     */
+    @Test
+    public void testGrow() {
+        System.out.println("grow");
+        
+        // Room for over 80 million entries, only the used ones are allocated
+        SelectionHistory history = new SelectionHistory( 1 << 30 );
+        
+        for( int i = 0 ; i < 1000 ; i++ ) {
+            change( history, 0, 1, 0, 0, ( i % 7 == 0 ) ? 1000000 : 1 );
+        }
+        
+        int undone = 0;
+        while( history.undo( target ) ) {
+            undone++;
+        }
+        
+        assertEquals( 1000, undone );
+        assertEquals( 0, geometries[ 0 ].getX() );
+        assertEquals( 0, geometries[ 0 ].getHeight() );
+    }
+    
+    /**
+     * Tests that a region step larger than the cap clears the history
+     */
+    @Test
+    public void testRegionOverCap() {
+        System.out.println("region over cap");
+        
+        SelectionHistory history = new SelectionHistory( 4 * SelectionHistory.ENTRY_SIZE );
+        change( history, 0, 1, 0, 0, 0 );
+        assertTrue( history.canUndo() );
+        
+        // Two rectangles take more than the cap
+        history.recordRegion( 0, new SelectionRegion( 0, 0, 10, 10 ), new SelectionRegion( 0, 0, 20, 20 ) );
+        assertFalse( history.canUndo() );
+        assertFalse( history.canRedo() );
+        
+        // Later steps are recorded as usual
+        change( history, 0, 1, 0, 0, 0 );
+        assertTrue( history.undo( target ) );
+        assertFalse( history.canUndo() );
+    }
+    
+    /**
+     * Test of setHistory, undo and redo methods, of class SwingSelection.
+     */
+    @Test
+    public void testSwingSelection() {
+        System.out.println("setHistory");
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setHistory( new SelectionHistory( 4096 ), 0 );
+        sel.setBounds( new Rectangle( 100, 100, 50, 50 ) );
+        
+        // Move the selection with the mouse
+        c.getMouseListeners()[ 0 ].mousePressed( new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, 0, 120, 120, 1, false, MouseEvent.BUTTON1 ) );
+        c.getMouseMotionListeners()[ 0 ].mouseDragged( new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, 0, 150, 130, 0, false, MouseEvent.BUTTON1 ) );
+        c.getMouseListeners()[ 0 ].mouseReleased( new MouseEvent( c, MouseEvent.MOUSE_RELEASED, 0L, 0, 160, 140, 1, false, MouseEvent.BUTTON1 ) );
+        assertEquals( new Rectangle( 140, 120, 50, 50 ), sel.getBounds() );
+        
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 100, 100, 50, 50 ), sel.getBounds() );
+        assertFalse( sel.undo() );
+        assertTrue( sel.redo() );
+        assertEquals( new Rectangle( 140, 120, 50, 50 ), sel.getBounds() );
+        
+        // Steps are applied as recorded, even if they would be clamped now
+        drag( c, 160, 140, 810, 140 );
+        assertEquals( new Rectangle( 790, 120, 50, 50 ), sel.getBounds() );
+        sel.stayInsideContainer( true );
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 140, 120, 50, 50 ), sel.getBounds() );
+        assertTrue( sel.redo() );
+        assertEquals( new Rectangle( 790, 120, 50, 50 ), sel.getBounds() );
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 140, 120, 50, 50 ), sel.getBounds() );
+    }
+    
+    /**
+     * Test of undo and redo methods of class SwingSelection after a shape
+     * was added to the selection
+     */
+    @Test
+    public void testCombine() {
+        System.out.println("undo combine");
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setHistory( new SelectionHistory( 4096 ), 0 );
+        
+        drag( c, 100, 100, 200, 200 );
+        assertEquals( new Rectangle( 100, 100, 100, 100 ), sel.getBounds() );
+        
+        // Add a rectangle with shift held
+        int mods = InputEvent.SHIFT_DOWN_MASK;
+        c.getMouseListeners()[ 0 ].mousePressed( new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, mods, 150, 150, 1, false, MouseEvent.BUTTON1 ) );
+        c.getMouseMotionListeners()[ 0 ].mouseDragged( new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, mods, 300, 180, 0, false, MouseEvent.BUTTON1 ) );
+        c.getMouseListeners()[ 0 ].mouseReleased( new MouseEvent( c, MouseEvent.MOUSE_RELEASED, 0L, mods, 300, 180, 1, false, MouseEvent.BUTTON1 ) );
+        assertEquals( SwingSelection.SHAPE_REGION, sel.getShape() );
+        assertEquals( new Rectangle( 100, 100, 200, 100 ), sel.getBounds() );
+        
+        // Undo gives the previous selection, not the region scaled into it
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 100, 100, 100, 100 ), sel.getBounds() );
+        assertEquals( SwingSelection.SHAPE_RECTANGLE, sel.getShape() );
+        assertEquals( 1, sel.getRegion().getSpanCount() );
+        
+        assertTrue( sel.redo() );
+        assertEquals( new Rectangle( 100, 100, 200, 100 ), sel.getBounds() );
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 100, 100, 100, 100 ), sel.getBounds() );
+        assertEquals( 1, sel.getRegion().getSpanCount() );
+    }
+    
+    /**
+     * Test of undo and redo methods of class SwingSelection after a shape
+     * was subtracted from a region
+     */
+    @Test
+    public void testSubtract() {
+        System.out.println("undo subtract");
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setHistory( new SelectionHistory( 4096 ), 0 );
+        
+        drag( c, 100, 100, 200, 200 );
+        drag( c, InputEvent.SHIFT_DOWN_MASK, 150, 150, 300, 300 );
+        assertEquals( new Rectangle( 100, 100, 200, 200 ), sel.getBounds() );
+        
+        // Subtract a hole from the middle of the region
+        drag( c, InputEvent.ALT_DOWN_MASK, 160, 160, 190, 190 );
+        assertEquals( SwingSelection.SHAPE_REGION, sel.getShape() );
+        assertFalse( sel.contains( 70, 70 ) );
+        
+        // Undo gives back the union, not its bounding rectangle
+        assertTrue( sel.undo() );
+        assertEquals( SwingSelection.SHAPE_REGION, sel.getShape() );
+        assertEquals( new Rectangle( 100, 100, 200, 200 ), sel.getBounds() );
+        assertTrue( sel.contains( 70, 70 ) );
+        assertFalse( sel.contains( 150, 20 ) );
+        
+        // Redo gives back the hole
+        assertTrue( sel.redo() );
+        assertEquals( SwingSelection.SHAPE_REGION, sel.getShape() );
+        assertFalse( sel.contains( 70, 70 ) );
+        assertTrue( sel.contains( 40, 40 ) );
+        assertFalse( sel.contains( 150, 20 ) );
+        
+        // And undo all the way to the first rectangle
+        assertTrue( sel.undo() );
+        assertTrue( sel.undo() );
+        assertEquals( SwingSelection.SHAPE_RECTANGLE, sel.getShape() );
+        assertEquals( new Rectangle( 100, 100, 100, 100 ), sel.getBounds() );
+    }
+    
+    /**
+     * Test of undo and redo methods of class SwingSelection with a history
+     * shared by two selections
+     */
+    @Test
+    public void testSharedHistory() {
+        System.out.println("shared history");
+        
+        Container c = new Container();
+        c.setSize( 800, 600 );
+        SelectionHistory history = new SelectionHistory( 4096 );
+        SwingSelection first = new SwingSelection( c, null, false );
+        SwingSelection second = new SwingSelection( c, null, false );
+        first.setHistory( history, 1 );
+        second.setHistory( history, 2 );
+        first.setBounds( new Rectangle( 100, 100, 50, 50 ) );
+        second.setBounds( new Rectangle( 300, 100, 50, 50 ) );
+        
+        drag( first, c, 120, 120, 130, 120 );
+        drag( second, c, 320, 120, 320, 130 );
+        
+        // The latest step belongs to the second selection
+        assertEquals( 2, history.getUndoId() );
+        assertFalse( first.undo() );
+        assertEquals( new Rectangle( 110, 100, 50, 50 ), first.getBounds() );
+        assertTrue( second.undo() );
+        assertEquals( new Rectangle( 300, 100, 50, 50 ), second.getBounds() );
+        assertTrue( first.undo() );
+        assertEquals( new Rectangle( 100, 100, 50, 50 ), first.getBounds() );
+        
+        assertEquals( 1, history.getRedoId() );
+        assertFalse( second.redo() );
+        assertTrue( first.redo() );
+        assertTrue( second.redo() );
+        assertEquals( new Rectangle( 110, 100, 50, 50 ), first.getBounds() );
+        assertEquals( new Rectangle( 300, 110, 50, 50 ), second.getBounds() );
+    }
+    
+    /**
+     * Drags with the mouse listener of a Container
+     */
+    private static void drag( Container c, int x0, int y0, int x1, int y1 ) {
+        drag( c, 0, x0, y0, x1, y1 );
+    }
+    
+    /**
+     * Drags with modifier keys held with the mouse listener of a Container
+     */
+    private static void drag( Container c, int mods, int x0, int y0, int x1, int y1 ) {
+        c.getMouseListeners()[ 0 ].mousePressed( new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, mods, x0, y0, 1, false, MouseEvent.BUTTON1 ) );
+        c.getMouseMotionListeners()[ 0 ].mouseDragged( new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, mods, x1, y1, 0, false, MouseEvent.BUTTON1 ) );
+        c.getMouseListeners()[ 0 ].mouseReleased( new MouseEvent( c, MouseEvent.MOUSE_RELEASED, 0L, mods, x1, y1, 1, false, MouseEvent.BUTTON1 ) );
+    }
+    
+    /**
+     * Drags with the mouse listener of a selection
+     */
+    private static void drag( SwingSelection sel, Container c, int x0, int y0, int x1, int y1 ) {
+        sel.getMouseAdapter().mousePressed( new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, 0, x0, y0, 1, false, MouseEvent.BUTTON1 ) );
+        sel.getMouseAdapter().mouseDragged( new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, 0, x1, y1, 0, false, MouseEvent.BUTTON1 ) );
+        sel.getMouseAdapter().mouseReleased( new MouseEvent( c, MouseEvent.MOUSE_RELEASED, 0L, 0, x1, y1, 1, false, MouseEvent.BUTTON1 ) );
+    }
+    
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import javax.swing.JLayer;
+import javax.swing.JPanel;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionLayerUITest {
+    
+    public SelectionLayerUITest() {
+    }
+
+    /**
+     * Test of paint method, of class SelectionLayerUI.
+     * Tests that the selection is painted without adding a component
+     */
+    @Test
+    public void testPaint() {
+        System.out.println("paint");
+        
+        JPanel canvas = new JPanel( null );
+        canvas.setBackground( Color.white );
+        SelectionLayerUI<JPanel> ui = new SelectionLayerUI<>();
+        JLayer<JPanel> layer = new JLayer<>( canvas, ui );
+        layer.setSize( 200, 200 );
+        layer.doLayout();
+        
+        SwingSelection sel = new SwingSelection( canvas, ui );
+        sel.setBounds( new Rectangle( 10, 20, 50, 40 ) );
+        
+        assertEquals( 0, canvas.getComponentCount() );
+        
+        BufferedImage img = new BufferedImage( 200, 200, BufferedImage.TYPE_INT_RGB );
+        Graphics2D g = img.createGraphics();
+        layer.paint( g );
+        g.dispose();
+        
+        // Border is painted, the inside and outside are not
+        assertEquals( Color.black.getRGB(), img.getRGB( 10, 20 ) );
+        assertEquals( Color.black.getRGB(), img.getRGB( 59, 59 ) );
+        assertEquals( Color.white.getRGB(), img.getRGB( 30, 40 ) );
+        assertEquals( Color.white.getRGB(), img.getRGB( 100, 100 ) );
+        
+        // Invisible selections are not painted
+        sel.setVisible( false );
+        g = img.createGraphics();
+        layer.paint( g );
+        g.dispose();
+        assertEquals( Color.white.getRGB(), img.getRGB( 10, 20 ) );
+    }
+    
+}
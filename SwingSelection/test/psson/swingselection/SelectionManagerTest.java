@@ -0,0 +1,289 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import javax.swing.JLayer;
+import javax.swing.JPanel;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionManagerTest {
+    
+    private static final int C_WIDTH = 800;
+    private static final int C_HEIGHT = 600;
+    private Container myContainer;
+    private SelectionManager manager;
+    
+    public SelectionManagerTest() {
+    }
+    
+    @Before
+    public void setUp() {
+        myContainer = new Container();
+        myContainer.setSize( C_WIDTH, C_HEIGHT );
+        manager = new SelectionManager( myContainer );
+    }
+
+    /**
+     * Test of addSelection and selectionAt methods, of class SelectionManager.
+     */
+    @Test
+    public void testSelectionAt() {
+        System.out.println("selectionAt");
+        
+        SwingSelection lower = manager.addSelection( new Rectangle( 0, 0, 200, 200 ) );
+        SwingSelection upper = manager.addSelection( new Rectangle( 100, 100, 200, 200 ) );
+        
+        assertEquals( 2, manager.getSelectionCount() );
+        assertSame( lower, manager.selectionAt( 50, 50 ) );
+        assertSame( upper, manager.selectionAt( 150, 150 ) );
+        assertSame( upper, manager.selectionAt( 299, 299 ) );
+        assertNull( manager.selectionAt( 300, 300 ) );
+        assertNull( manager.selectionAt( 500, 50 ) );
+        
+        // Selections outside the Container are found as well
+        SwingSelection outside = manager.addSelection( new Rectangle( -100, 700, 50, 50 ) );
+        assertSame( outside, manager.selectionAt( -80, 720 ) );
+    }
+    
+    /**
+     * Tests that the selection found by selectionAt is the one painted on top
+     */
+    @Test
+    public void testPaintOrder() {
+        System.out.println("paint order");
+        
+        SwingSelection lower = manager.addSelection( new Rectangle( 0, 0, 200, 200 ) );
+        SwingSelection upper = manager.addSelection( new Rectangle( 100, 100, 200, 200 ) );
+        
+        // Swing paints the first component on top
+        assertSame( upper, manager.selectionAt( 150, 150 ) );
+        assertEquals( upper.getBounds(), myContainer.getComponent( 0 ).getBounds() );
+        
+        // Changing a selection raises it
+        lower.setBounds( new Rectangle( 50, 50, 200, 200 ) );
+        manager.toFront( lower );
+        assertSame( lower, manager.selectionAt( 150, 150 ) );
+        assertEquals( lower.getBounds(), myContainer.getComponent( 0 ).getBounds() );
+        assertEquals( upper.getBounds(), myContainer.getComponent( 1 ).getBounds() );
+    }
+    
+    /**
+     * Tests that the index follows changes not made through the manager
+     */
+    @Test
+    public void testIndexFollowsChanges() {
+        System.out.println("index follows changes");
+        
+        SwingSelection sel = manager.addSelection( new Rectangle( 0, 0, 100, 100 ) );
+        
+        // Set programmatically
+        sel.setBounds( new Rectangle( 300, 300, 100, 100 ) );
+        assertNull( manager.selectionAt( 50, 50 ) );
+        assertSame( sel, manager.selectionAt( 350, 350 ) );
+        
+        // Moved with the mouse and undone
+        sel.setHistory( new SelectionHistory( 1024 ), 0 );
+        press( 350, 350 );
+        drag( 400, 350 );
+        release( 450, 350 );
+        assertSame( sel, manager.selectionAt( 450, 350 ) );
+        assertTrue( sel.undo() );
+        assertEquals( new Rectangle( 300, 300, 100, 100 ), sel.getBounds() );
+        assertNull( manager.selectionAt( 450, 350 ) );
+        assertSame( sel, manager.selectionAt( 350, 350 ) );
+        assertTrue( sel.redo() );
+        assertSame( sel, manager.selectionAt( 450, 350 ) );
+    }
+    
+    /**
+     * Tests that a selection only gets the positions inside its shape
+     */
+    @Test
+    public void testSelectionAtShape() {
+        System.out.println("selectionAt shape");
+        
+        SwingSelection lower = manager.addSelection( new Rectangle( 0, 0, 200, 200 ) );
+        SwingSelection upper = manager.addSelection( new Rectangle( 0, 0, 200, 200 ) );
+        upper.setShape( SwingSelection.SHAPE_ELLIPSE );
+        
+        // Inside the bounds of the ellipse but outside its shape
+        assertSame( lower, manager.selectionAt( 20, 20 ) );
+        assertSame( upper, manager.selectionAt( 100, 100 ) );
+        // The handles of the ellipse are in the corners of its bounds
+        assertSame( upper, manager.selectionAt( 1, 1 ) );
+        
+        manager.removeSelection( lower );
+        assertNull( manager.selectionAt( 20, 20 ) );
+    }
+    
+    /**
+     * Test of removeSelection method, of class SelectionManager.
+     */
+    @Test
+    public void testRemoveSelection() {
+        System.out.println("removeSelection");
+        
+        SwingSelection sel = manager.addSelection( new Rectangle( 10, 10, 100, 100 ) );
+        manager.removeSelection( sel );
+        
+        assertEquals( 0, manager.getSelectionCount() );
+        assertNull( manager.selectionAt( 50, 50 ) );
+        assertEquals( 0, myContainer.getComponentCount() );
+    }
+    
+    /**
+     * Tests that mouse events create, move and route to the right selection
+     */
+    @Test
+    public void testMouseRouting() {
+        System.out.println("mouse routing");
+        
+        // Drag outside all selections creates a new selection
+        press( 10, 10 );
+        drag( 60, 60 );
+        release( 110, 110 );
+        assertEquals( 1, manager.getSelectionCount() );
+        SwingSelection sel = manager.selectionAt( 50, 50 );
+        assertNotNull( sel );
+        assertEquals( new Rectangle( 10, 10, 100, 100 ), sel.getBounds() );
+        
+        // Dragging inside the selection moves it and updates the index
+        press( 50, 50 );
+        drag( 150, 50 );
+        release( 250, 50 );
+        assertEquals( new Rectangle( 210, 10, 100, 100 ), sel.getBounds() );
+        assertNull( manager.selectionAt( 50, 50 ) );
+        assertSame( sel, manager.selectionAt( 250, 50 ) );
+        
+        // A click without a drag doesn't leave a selection behind
+        press( 500, 500 );
+        release( 500, 500 );
+        assertEquals( 1, manager.getSelectionCount() );
+    }
+    
+    /**
+     * Tests that an existing selection resized to nothing is kept
+     */
+    @Test
+    public void testResizeToNothing() {
+        System.out.println("resize to nothing");
+        
+        SwingSelection sel = manager.addSelection( new Rectangle( 10, 10, 100, 100 ) );
+        
+        // Drag the right edge onto the left edge
+        press( 109, 60 );
+        drag( 60, 60 );
+        release( 10, 60 );
+        
+        assertEquals( 1, manager.getSelectionCount() );
+        assertTrue( sel.getBounds().isEmpty() );
+        assertEquals( 1, myContainer.getComponentCount() );
+    }
+    
+    /**
+     * Test of dispose method, of class SelectionManager.
+     */
+    @Test
+    public void testDispose() {
+        System.out.println("dispose");
+        
+        manager.addSelection( new Rectangle( 10, 10, 100, 100 ) );
+        manager.dispose();
+        
+        assertEquals( 0, manager.getSelectionCount() );
+        assertEquals( 0, myContainer.getComponentCount() );
+        assertEquals( 0, myContainer.getMouseListeners().length );
+        assertEquals( 0, myContainer.getMouseMotionListeners().length );
+        assertEquals( 0, myContainer.getComponentListeners().length );
+    }
+    
+    /**
+     * Tests the paint order when the selections are painted by a
+     * SelectionLayerUI
+     */
+    @Test
+    public void testPaintOrderLayer() {
+        System.out.println("paint order layer");
+        
+        JPanel canvas = new JPanel( null );
+        SelectionLayerUI<JPanel> ui = new SelectionLayerUI<>();
+        JLayer<JPanel> layer = new JLayer<>( canvas, ui );
+        layer.setSize( C_WIDTH, C_HEIGHT );
+        layer.doLayout();
+        manager = new SelectionManager( canvas, ui );
+        
+        SwingSelection lower = manager.addSelection( new Rectangle( 0, 0, 200, 200 ) );
+        SwingSelection upper = manager.addSelection( new Rectangle( 100, 100, 200, 200 ) );
+        assertSame( upper, manager.selectionAt( 150, 150 ) );
+        
+        manager.toFront( lower );
+        assertSame( lower, manager.selectionAt( 150, 150 ) );
+        manager.toFront( upper );
+        assertSame( upper, manager.selectionAt( 150, 150 ) );
+        
+        assertEquals( 0, canvas.getComponentCount() );
+    }
+    
+    /**
+     * Tests lookups among a large number of selections
+     */
+    @Test
+    public void testManySelections() {
+        System.out.println("many selections");
+        
+        int n = 10000;
+        for( int i = 0 ; i < n ; i++ ) {
+            manager.addSelection( new Rectangle( ( i % 100 ) * 8, ( i / 100 ) * 6, 4, 4 ) );
+        }
+        
+        assertEquals( n, manager.getSelectionCount() );
+        assertNotNull( manager.selectionAt( 8 * 42 + 1, 6 * 17 + 1 ) );
+        assertNull( manager.selectionAt( 8 * 42 + 5, 6 * 17 + 1 ) );
+    }
+    
+    private void press( int x, int y ) {
+        MouseEvent e = new MouseEvent( myContainer, MouseEvent.MOUSE_PRESSED, 0L, 0, x, y, 1, false, MouseEvent.BUTTON1 );
+        myContainer.getMouseListeners()[ 0 ].mousePressed( e );
+    }
+    
+    private void drag( int x, int y ) {
+        MouseEvent e = new MouseEvent( myContainer, MouseEvent.MOUSE_DRAGGED, 0L, 0, x, y, 0, false, MouseEvent.BUTTON1 );
+        myContainer.getMouseMotionListeners()[ 0 ].mouseDragged( e );
+    }
+    
+    private void release( int x, int y ) {
+        MouseEvent e = new MouseEvent( myContainer, MouseEvent.MOUSE_RELEASED, 0L, 0, x, y, 1, false, MouseEvent.BUTTON1 );
+        myContainer.getMouseListeners()[ 0 ].mouseReleased( e );
+    }
+    
+}
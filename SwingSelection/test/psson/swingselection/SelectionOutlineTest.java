@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionOutlineTest {
+    
+    public SelectionOutlineTest() {
+    }
+    
+    /**
+     * Test of contains method, of class SelectionOutline.
+     * Tests containment of a square, a triangle and a concave polygon, at
+     * the created size and scaled
+     */
+    @Test
+    public void testContains() {
+        System.out.println("contains");
+        
+        // A square covers exactly the pixels of the rectangle
+        SelectionOutline square = new SelectionOutline( new int[] { 10, 20, 20, 10 }, new int[] { 5, 5, 15, 15 }, 4 );
+        assertEquals( 10, square.getX() );
+        assertEquals( 5, square.getY() );
+        assertEquals( 10, square.getWidth() );
+        assertEquals( 10, square.getHeight() );
+        for( int y = -1 ; y <= 10 ; y++ ) {
+            for( int x = -1 ; x <= 10 ; x++ ) {
+                assertEquals( x >= 0 && x < 10 && y >= 0 && y < 10, square.contains( x, y, 10, 10 ) );
+            }
+        }
+        
+        // Right triangle below the diagonal
+        SelectionOutline triangle = new SelectionOutline( new int[] { 0, 0, 100 }, new int[] { 0, 100, 100 }, 3 );
+        assertTrue( triangle.contains( 10, 90, 100, 100 ) );
+        assertFalse( triangle.contains( 90, 10, 100, 100 ) );
+        assertTrue( triangle.contains( 40, 60, 100, 100 ) );
+        assertFalse( triangle.contains( 60, 40, 100, 100 ) );
+        
+        // Scaled to twice the width
+        assertTrue( triangle.contains( 20, 90, 200, 100 ) );
+        assertFalse( triangle.contains( 180, 10, 200, 100 ) );
+        
+        // A U shape, the gap between the arms is outside
+        SelectionOutline u = new SelectionOutline(
+                new int[] { 0, 30, 30, 20, 20, 10, 10, 0 },
+                new int[] { 0, 0, 30, 30, 10, 10, 30, 30 }, 8 );
+        assertTrue( u.contains( 5, 20, 30, 30 ) );
+        assertTrue( u.contains( 25, 20, 30, 30 ) );
+        assertTrue( u.contains( 15, 5, 30, 30 ) );
+        assertFalse( u.contains( 15, 20, 30, 30 ) );
+    }
+    
+    /**
+     * Test of add method, of class LassoPath.
+     * Tests that a long stroke is simplified to its corners as it is drawn
+     */
+    @Test
+    public void testLassoPath() {
+        System.out.println("LassoPath.add");
+        
+        LassoPath lasso = new LassoPath( 2 );
+        
+        // Two sides of a square traced one pixel at a time with a wobble,
+        // closed along the diagonal into a triangle
+        for( int i = 0 ; i <= 1000 ; i++ ) {
+            lasso.add( i, i % 2 );
+        }
+        for( int i = 0 ; i <= 1000 ; i++ ) {
+            lasso.add( 1000 - i % 2, i );
+        }
+        
+        assertTrue( lasso.getPointCount() <= 4 );
+        assertEquals( 0, lasso.getMinX() );
+        assertEquals( 1000, lasso.getMaxY() );
+        
+        SelectionOutline outline = lasso.toOutline();
+        assertTrue( outline.contains( 900, 500, outline.getWidth(), outline.getHeight() ) );
+        assertFalse( outline.contains( 100, 500, outline.getWidth(), outline.getHeight() ) );
+        
+        lasso.reset();
+        lasso.add( 0, 0 );
+        lasso.add( 10, 10 );
+        assertNull( lasso.toOutline() );
+    }
+    
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionRegionTest {
+    
+    private static final int SIZE = 64;
+    
+    public SelectionRegionTest() {
+    }
+    
+    /**
+     * Test of union, intersect and subtract methods, of class SelectionRegion.
+     * Tests random combinations of rectangles against a grid of pixels
+     */
+    @Test
+    public void testOperations() {
+        System.out.println("union");
+        
+        Random random = new Random( 17 );
+        SelectionRegion region = new SelectionRegion();
+        SelectionRegion other = new SelectionRegion();
+        boolean[] grid = new boolean[ SIZE * SIZE ];
+        boolean[] otherGrid = new boolean[ SIZE * SIZE ];
+        
+        for( int step = 0 ; step < 300 ; step++ ) {
+            
+            // Another small region of a few rectangles
+            other.clear();
+            Arrays.fill( otherGrid, false );
+            for( int i = 0 ; i < 3 ; i++ ) {
+                int x = random.nextInt( SIZE ), y = random.nextInt( SIZE );
+                int w = random.nextInt( SIZE - x + 1 ), h = random.nextInt( SIZE - y + 1 );
+                other.add( x, y, w, h );
+                fill( otherGrid, x, y, w, h );
+            }
+            
+            int op = random.nextInt( 3 );
+            for( int i = 0 ; i < grid.length ; i++ ) {
+                if( op == 0 ) {
+                    grid[ i ] |= otherGrid[ i ];
+                } else if( op == 1 ) {
+                    grid[ i ] &= otherGrid[ i ] || step % 5 != 0;
+                } else {
+                    grid[ i ] &= !otherGrid[ i ];
+                }
+            }
+            if( op == 0 ) {
+                region.union( other );
+            } else if( op == 1 ) {
+                // Only intersect now and then, or the region stays empty
+                if( step % 5 == 0 ) {
+                    region.intersect( other );
+                }
+            } else {
+                region.subtract( other );
+            }
+            
+            int count = 0;
+            for( int y = -1 ; y <= SIZE ; y++ ) {
+                for( int x = -1 ; x <= SIZE ; x++ ) {
+                    boolean in = x >= 0 && y >= 0 && x < SIZE && y < SIZE && grid[ y * SIZE + x ];
+                    assertEquals( in, region.contains( x, y ) );
+                    if( in ) {
+                        count++;
+                    }
+                }
+            }
+            
+            final int[] spanPixels = new int[ 1 ];
+            region.getSpans( new SpanConsumer() {
+                @Override
+                public void span( int y, int x0, int x1 ) {
+                    spanPixels[ 0 ] += x1 - x0;
+                }
+            });
+            assertEquals( count, spanPixels[ 0 ] );
+        }
+    }
+    
+    /**
+     * Test of add and appendSpan methods, of class SelectionRegion.
+     * Tests that bands and spans are merged and the bounds are kept
+     */
+    @Test
+    public void testMerging() {
+        System.out.println("appendSpan");
+        
+        // Two rectangles side by side become one
+        SelectionRegion region = new SelectionRegion( 10, 10, 20, 20 );
+        region.add( 30, 10, 10, 20 );
+        assertEquals( 1, region.getBandCount() );
+        assertEquals( 1, region.getSpanCount() );
+        
+        // An L shape
+        region.add( 10, 30, 5, 10 );
+        assertEquals( 2, region.getBandCount() );
+        assertEquals( 10, region.getX() );
+        assertEquals( 10, region.getY() );
+        assertEquals( 30, region.getWidth() );
+        assertEquals( 30, region.getHeight() );
+        
+        // The same shape row by row
+        SelectionRegion rows = new SelectionRegion();
+        for( int y = 10 ; y < 40 ; y++ ) {
+            rows.appendSpan( y, 10, 15 );
+            rows.appendSpan( y, 15, y < 30 ? 40 : 15 );
+        }
+        for( int y = 0 ; y < 50 ; y++ ) {
+            for( int x = 0 ; x < 50 ; x++ ) {
+                assertEquals( region.contains( x, y ), rows.contains( x, y ) );
+            }
+        }
+        assertTrue( rows.getBandCount() <= 3 );
+        
+        // Seven edges around the L, the left side in two parts
+        final int[] edges = new int[ 1 ];
+        region.getEdges( new SelectionRegion.EdgeConsumer() {
+            @Override
+            public void edge( int x0, int y0, int x1, int y1 ) {
+                edges[ 0 ]++;
+            }
+        });
+        assertEquals( 7, edges[ 0 ] );
+        
+        region.subtract( 0, 0, 100, 100 );
+        assertTrue( region.isEmpty() );
+    }
+    
+    private static void fill( boolean[] grid, int x, int y, int w, int h ) {
+        for( int j = y ; j < y + h ; j++ ) {
+            for( int i = x ; i < x + w ; i++ ) {
+                grid[ j * SIZE + i ] = true;
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 SwingSelection contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package psson.swingselection;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author SwingSelection contributors
+ */
+public class SelectionStoreTest {
+    
+    // Several chunks, so the operations run in parallel
+    private static final int SIZE = 5 * SelectionStore.CHUNK_SIZE + 123;
+    
+    private SelectionStore store;
+    
+    public SelectionStoreTest() {
+    }
+    
+    @Before
+    public void setUp() {
+        store = new SelectionStore();
+        for( int i = 0 ; i < SIZE ; i++ ) {
+            store.add( x( i ), y( i ), w( i ), h( i ) );
+        }
+    }
+    
+    private static int x( int i ) {
+        return ( i * 37 ) % 1000 - 100;
+    }
+    
+    private static int y( int i ) {
+        return ( i * 53 ) % 800 - 100;
+    }
+    
+    private static int w( int i ) {
+        return 10 + i % 200;
+    }
+    
+    private static int h( int i ) {
+        return 10 + i % 150;
+    }
+    
+    /**
+     * Test of translate and scale methods, of class SelectionStore.
+     */
+    @Test
+    public void testTranslateAndScale() {
+        System.out.println("translate");
+        
+        assertEquals( SIZE, store.size() );
+        
+        store.translate( 7, -3 );
+        store.scale( 0.5, 2.0 );
+        
+        for( int i = 0 ; i < SIZE ; i++ ) {
+            int left = (int)Math.round( ( x( i ) + 7 ) * 0.5 );
+            int right = (int)Math.round( ( x( i ) + 7 + w( i ) ) * 0.5 );
+            assertEquals( left, store.getX( i ) );
+            assertEquals( right - left, store.getWidth( i ) );
+            assertEquals( 2 * ( y( i ) - 3 ), store.getY( i ) );
+            assertEquals( 2 * h( i ), store.getHeight( i ) );
+        }
+    }
+    
+    /**
+     * Test of clampTo method, of class SelectionStore. Tests that the result
+     * is the same as for a SelectionGeometry.
+     */
+    @Test
+    public void testClampTo() {
+        System.out.println("clampTo");
+        
+        store.clampTo( 800, 600 );
+        
+        SelectionGeometry g = new SelectionGeometry();
+        for( int i = 0 ; i < SIZE ; i++ ) {
+            g.setBounds( x( i ), y( i ), w( i ), h( i ) );
+            g.clampTo( 800, 600 );
+            assertEquals( g.getX(), store.getX( i ) );
+            assertEquals( g.getY(), store.getY( i ) );
+        }
+    }
+    
+    /**
+     * Test of intersect and countIntersecting methods, of class SelectionStore.
+     */
+    @Test
+    public void testIntersect() {
+        System.out.println("intersect");
+        
+        int expected = 0;
+        for( int i = 0 ; i < SIZE ; i++ ) {
+            if( x( i ) < 500 && x( i ) + w( i ) > 100 && y( i ) < 300 && y( i ) + h( i ) > 100 ) {
+                expected++;
+            }
+        }
+        assertEquals( expected, store.countIntersecting( 100, 100, 400, 200 ) );
+        
+        store.intersect( 100, 100, 400, 200 );
+        assertEquals( expected, store.countIntersecting( 100, 100, 400, 200 ) );
+        
+        int nonEmpty = 0;
+        for( int i = 0 ; i < SIZE ; i++ ) {
+            assertTrue( store.getX( i ) >= 100 && store.getX( i ) + store.getWidth( i ) <= 500 );
+            assertTrue( store.getY( i ) >= 100 && store.getY( i ) + store.getHeight( i ) <= 300 );
+            if( store.getWidth( i ) > 0 && store.getHeight( i ) > 0 ) {
+                nonEmpty++;
+            }
+        }
+        assertEquals( expected, nonEmpty );
+    }
+    
+}
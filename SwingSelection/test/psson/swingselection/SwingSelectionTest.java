@@ -23,12 +23,39 @@
  */
 package psson.swingselection;
 
+import java.awt.Color;
 import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import org.junit.After;
 import org.junit.AfterClass;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -341,4 +368,1261 @@ public class SwingSelectionTest {
         assert( result.getY() == 0 );
     }
     
+    /**
+     * Test of coalesceMouseDrags method, of class SwingSelection.
+     * Tests that drags are applied once per frame with the latest position,
+     * and that the release position is applied exactly
+     */
+    @Test
+    public void testCoalesceMouseDrags() throws Exception {
+        System.out.println("coalesceMouseDrags");
+        
+        final Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection sel = new SwingSelection( c );
+        sel.coalesceMouseDrags( true );
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                dispatch( c, MouseEvent.MOUSE_PRESSED, 10, 10 );
+                Rectangle pressed = sel.getBounds();
+                long version = sel.getVersion();
+                
+                // Nothing is applied until the next frame. Frames are run
+                // here, so the timer can't run one in between.
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 50, 50 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 60, 70 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 80, 90 );
+                assertEquals( pressed, sel.getBounds() );
+                assertEquals( version, sel.getVersion() );
+                
+                // A single update to the latest position
+                FrameScheduler.getShared().runFrame( System.nanoTime() );
+                assertEquals( new Rectangle( 10, 10, 70, 80 ), sel.getBounds() );
+                assertEquals( version + 1, sel.getVersion() );
+                
+                dispatch( c, MouseEvent.MOUSE_RELEASED, 100, 120 );
+            }
+        });
+        
+        Rectangle expResult = new Rectangle( 10, 10, 90, 110 );
+        assertEquals( expResult, sel.getBounds() );
+    }
+    
+    /**
+     * Tests that moving the mouse and dragging the selection does not allocate
+     * any objects once the event handling code is warmed up
+     */
+    @Test
+    public void testPointerPathAllocation() {
+        System.out.println("pointer path allocation");
+        
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue( bean instanceof com.sun.management.ThreadMXBean );
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        Assume.assumeTrue( threads.isThreadAllocatedMemorySupported() );
+        threads.setThreadAllocatedMemoryEnabled( true );
+        
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        sel.stayInsideContainer( true );
+        sel.setBounds( new Rectangle( 100, 100, 200, 200 ) );
+        
+        MouseListener ml = c.getMouseListeners()[ 0 ];
+        MouseMotionListener mml = c.getMouseMotionListeners()[ 0 ];
+        
+        // Create all events up front, only the handling should be measured
+        int numEvents = 64;
+        MouseEvent[] moves = new MouseEvent[ numEvents ];
+        MouseEvent[] drags = new MouseEvent[ numEvents ];
+        for( int i = 0 ; i < numEvents ; i++ ) {
+            moves[ i ] = new MouseEvent( c, MouseEvent.MOUSE_MOVED, 0L, 0, 50 + 4 * i, 50 + 4 * i, 0, false );
+            drags[ i ] = new MouseEvent( c, MouseEvent.MOUSE_DRAGGED, 0L, 0, 150 + i, 150 + ( i % 8 ), 0, false, MouseEvent.BUTTON1 );
+        }
+        MouseEvent press = new MouseEvent( c, MouseEvent.MOUSE_PRESSED, 0L, 0, 150, 150, 1, false, MouseEvent.BUTTON1 );
+        ml.mousePressed( press );
+        
+        int rounds = 2000;
+        long allocated = 0;
+        
+        // First pass warms up the code, second pass is measured
+        for( int pass = 0 ; pass < 2 ; pass++ ) {
+            long before = threads.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            for( int r = 0 ; r < rounds ; r++ ) {
+                for( int i = 0 ; i < numEvents ; i++ ) {
+                    mml.mouseMoved( moves[ i ] );
+                }
+                for( int i = 0 ; i < numEvents ; i++ ) {
+                    mml.mouseDragged( drags[ i ] );
+                }
+            }
+            allocated = threads.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before;
+        }
+        
+        double bytesPerEvent = (double)allocated / ( 2.0 * rounds * numEvents );
+        System.out.println( "bytes per event: " + bytesPerEvent );
+        assertTrue( bytesPerEvent < 1.0 );
+    }
+    
+    /**
+     * Test of inHandle method, of class SwingSelection.
+     * Tests that handles follow the current bounds and handle size
+     */
+    @Test
+    public void testInHandle() {
+        System.out.println("inHandle");
+        
+        testSel.setBounds( new Rectangle( 100, 100, 100, 50 ) );
+        
+        // Corners
+        assertEquals( 1, testSel.inHandle( 100, 100 ) );
+        assertEquals( 2, testSel.inHandle( 199, 100 ) );
+        assertEquals( 3, testSel.inHandle( 100, 149 ) );
+        assertEquals( 4, testSel.inHandle( 199, 149 ) );
+        
+        // Edges
+        assertEquals( 5, testSel.inHandle( 150, 102 ) );
+        assertEquals( 6, testSel.inHandle( 150, 147 ) );
+        assertEquals( 7, testSel.inHandle( 102, 120 ) );
+        assertEquals( 8, testSel.inHandle( 197, 120 ) );
+        
+        // Inside and outside the selection
+        assertEquals( 0, testSel.inHandle( 150, 120 ) );
+        assertEquals( 0, testSel.inHandle( 200, 120 ) );
+        assertEquals( 0, testSel.inHandle( 99, 100 ) );
+        
+        // Handles follow new bounds without any mouse events
+        testSel.setBounds( new Rectangle( 300, 300, 100, 100 ) );
+        assertEquals( 0, testSel.inHandle( 100, 100 ) );
+        assertEquals( 1, testSel.inHandle( 300, 300 ) );
+        
+        // Larger handles
+        testSel.setHandleSize( 10 );
+        assertEquals( 10, testSel.getHandleSize() );
+        assertEquals( 1, testSel.inHandle( 309, 309 ) );
+        assertEquals( 5, testSel.inHandle( 350, 309 ) );
+        assertEquals( 0, testSel.inHandle( 350, 310 ) );
+    }
+    
+    /**
+     * Test of addSelectionListener method, of class SwingSelection.
+     * Tests that started and committed events are delivered with the bounds
+     */
+    @Test
+    public void testSelectionListener() throws Exception {
+        System.out.println("addSelectionListener");
+        
+        final Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection sel = new SwingSelection( c );
+        final List<SelectionEvent> events = new ArrayList<>();
+        
+        // Deliver events directly on the calling thread
+        sel.setSelectionEventExecutor( new Executor() {
+            @Override
+            public void execute( Runnable r ) {
+                r.run();
+            }
+        });
+        sel.addSelectionListener( new SelectionListener() {
+            @Override
+            public void selectionStarted( SelectionEvent e ) {
+                events.add( e );
+            }
+            @Override
+            public void selectionChanging( SelectionEvent e ) {
+                events.add( e );
+            }
+            @Override
+            public void selectionCommitted( SelectionEvent e ) {
+                events.add( e );
+            }
+        });
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                dispatch( c, MouseEvent.MOUSE_PRESSED, 10, 10 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 50, 50 );
+                dispatch( c, MouseEvent.MOUSE_RELEASED, 60, 70 );
+            }
+        });
+        
+        // Changing events pending for the next frame are dropped on commit
+        assertEquals( 2, events.size() );
+        assertEquals( SelectionEvent.SELECTION_STARTED, events.get( 0 ).getType() );
+        assertEquals( SelectionEvent.SELECTION_COMMITTED, events.get( 1 ).getType() );
+        assertEquals( new Rectangle( 10, 10, 50, 60 ), events.get( 1 ).getBounds() );
+        
+        // Programmatic changes are committed directly
+        sel.setBounds( new Rectangle( 1, 2, 3, 4 ) );
+        assertEquals( 3, events.size() );
+        assertEquals( new Rectangle( 1, 2, 3, 4 ), events.get( 2 ).getBounds() );
+    }
+    
+    /**
+     * Test of getSnapshot method, of class SwingSelection.
+     */
+    @Test
+    public void testGetSnapshot() {
+        System.out.println("getSnapshot");
+        
+        testSel.setBounds( new Rectangle( 10, 20, 30, 40 ) );
+        SelectionSnapshot first = testSel.getSnapshot();
+        assertEquals( new Rectangle( 10, 20, 30, 40 ), first.getBounds() );
+        assertEquals( testSel.getVersion(), first.getVersion() );
+        
+        // Same snapshot until the selection changes
+        assertSame( first, testSel.getSnapshot() );
+        
+        testSel.setBounds( new Rectangle( 11, 20, 30, 40 ) );
+        SelectionSnapshot second = testSel.getSnapshot();
+        assertTrue( second.getVersion() > first.getVersion() );
+        assertEquals( 11, second.getX() );
+    }
+    
+    /**
+     * Tests that snapshots read on other threads are never torn
+     */
+    @Test
+    public void testSnapshotConsistency() throws Exception {
+        System.out.println("snapshot consistency");
+        
+        final int total = 1000;
+        final boolean[] torn = new boolean[ 1 ];
+        final Thread writer = Thread.currentThread();
+        
+        Thread reader = new Thread( new Runnable() {
+            @Override
+            public void run() {
+                while( writer.isAlive() && !Thread.currentThread().isInterrupted() ) {
+                    SelectionSnapshot s = testSel.getSnapshot();
+                    if( s.getVersion() > 0 && s.getX() + s.getWidth() != total ) {
+                        torn[ 0 ] = true;
+                    }
+                }
+            }
+        });
+        
+        Rectangle r = new Rectangle();
+        testSel.setBounds( new Rectangle( 0, 0, total, 10 ) );
+        reader.start();
+        for( int i = 0 ; i < 200000 ; i++ ) {
+            // x + width is always total
+            r.setBounds( i % total, 0, total - i % total, 10 );
+            testSel.setBounds( r );
+        }
+        reader.interrupt();
+        reader.join();
+        
+        assertFalse( torn[ 0 ] );
+    }
+    
+    /**
+     * Test of setViewTransform and setWorldBounds methods, of class SwingSelection.
+     */
+    @Test
+    public void testWorldMode() {
+        System.out.println("setViewTransform");
+        
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        
+        // Zoomed out a hundred times
+        sel.setViewTransform( new ViewTransform( 0.01, 0.0, 0.0 ) );
+        sel.setWorldBounds( new Rectangle2D.Double( 10000.0, 20000.0, 50000.0, 30000.0 ) );
+        assertEquals( new Rectangle( 100, 200, 500, 300 ), sel.getBounds() );
+        
+        // Moving in the Container moves a hundred times further in the world
+        sel.move( new Point( 0, 0 ), new Point( 10, 5 ) );
+        assertEquals( new Rectangle2D.Double( 11000.0, 20500.0, 50000.0, 30000.0 ), sel.getWorldBounds() );
+        
+        // Panning keeps the world bounds and moves the selection in the Container
+        sel.setViewTransform( new ViewTransform( 0.01, 1000.0, 0.0 ) );
+        assertEquals( new Rectangle( 100, 205, 500, 300 ), sel.getBounds() );
+        
+        // A huge selection only gets a component the size of the visible area
+        sel.setViewTransform( new ViewTransform( 1.0, 0.0, 0.0 ) );
+        sel.setWorldBounds( new Rectangle2D.Double( -1.0e6, -1.0e6, 1.0e7, 1.0e7 ) );
+        assertEquals( -1000000, sel.getBounds().x );
+        Rectangle component = c.getComponent( 0 ).getBounds();
+        assertTrue( component.x < 0 && component.x > -100 );
+        assertTrue( component.width < C_WIDTH + 200 );
+        assertTrue( sel.contains( 1000000, 1000000 ) );
+        
+        // Leaving world mode keeps the bounds in the Container
+        sel.setWorldBounds( new Rectangle2D.Double( 10.0, 20.0, 30.0, 40.0 ) );
+        sel.setViewTransform( null );
+        assertEquals( new Rectangle( 10, 20, 30, 40 ), sel.getBounds() );
+        assertEquals( new Rectangle( 10, 20, 30, 40 ), c.getComponent( 0 ).getBounds() );
+        
+        // The listener on a viewport scrolling the Container is removed on dispose
+        JPanel view = new JPanel( null );
+        JViewport viewport = new JViewport();
+        viewport.setView( view );
+        int listeners = viewport.getChangeListeners().length;
+        SwingSelection scrolled = new SwingSelection( view );
+        scrolled.setViewTransform( new ViewTransform( 1.0, 0.0, 0.0 ) );
+        assertEquals( listeners + 1, viewport.getChangeListeners().length );
+        scrolled.dispose();
+        assertEquals( listeners, viewport.getChangeListeners().length );
+    }
+    
+    /**
+     * Test of setMetricsEnabled, getMetrics and registerMetricsMBean methods,
+     * of class SwingSelection.
+     */
+    @Test
+    public void testMetrics() throws Exception {
+        System.out.println("getMetrics");
+        
+        final Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection sel = new SwingSelection( c );
+        sel.coalesceMouseDrags( true );
+        assertNull( sel.getMetrics() );
+        
+        sel.setMetricsEnabled( true );
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                dispatch( c, MouseEvent.MOUSE_PRESSED, 10, 10 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 50, 50 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 80, 90 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 90, 100 );
+                dispatch( c, MouseEvent.MOUSE_RELEASED, 100, 120 );
+                dispatch( c, MouseEvent.MOUSE_MOVED, 50, 50 );
+                dispatch( c, MouseEvent.MOUSE_MOVED, 10, 10 );
+            }
+        });
+        
+        SelectionMetrics metrics = sel.getMetrics();
+        assertEquals( 2, metrics.getCount( SelectionMetrics.MOUSE_MOVED ) );
+        assertEquals( 1, metrics.getCount( SelectionMetrics.MOUSE_RELEASED ) );
+        assertTrue( metrics.getCount( SelectionMetrics.SET_BOUNDS ) >= 1 );
+        assertEquals( 2, metrics.getCoalescedCount() );
+        assertTrue( metrics.getRepaintCount() >= 1 );
+        assertTrue( metrics.getMax( SelectionMetrics.MOUSE_RELEASED ) > 0 );
+        assertTrue( metrics.getPercentile( SelectionMetrics.MOUSE_RELEASED, 0.99 ) >= metrics.getMax( SelectionMetrics.MOUSE_RELEASED ) );
+        
+        ObjectName name = sel.registerMetricsMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals( 1L, server.getAttribute( name, "MouseReleasedCount" ) );
+        
+        // Disabling discards the metrics and unregisters the MBean
+        sel.setMetricsEnabled( false );
+        assertFalse( server.isRegistered( name ) );
+        assertNull( sel.getMetrics() );
+        
+        // Reported values are within the histogram precision
+        LatencyHistogram h = new LatencyHistogram();
+        long[] buckets = new long[ LatencyHistogram.BUCKET_COUNT ];
+        for( int i = 1 ; i <= 1000 ; i++ ) {
+            h.record( i * 1000L );
+        }
+        long count = h.copyBuckets( buckets );
+        assertEquals( 1000, count );
+        long p50 = LatencyHistogram.percentile( buckets, count, 0.5 );
+        assertTrue( p50 >= 500000 && p50 < 500000 * 1.07 );
+        assertEquals( 1000000, h.getMax() );
+        
+        // Read in place as by the MXBean, the same as from the copy
+        assertEquals( count, h.getCount() );
+        assertEquals( p50, h.percentile( 0.5 ) );
+        assertEquals( LatencyHistogram.percentile( buckets, count, 0.99 ), h.percentile( 0.99 ) );
+    }
+    
+    /**
+     * Test of setSnapIndex method, of class SwingSelection.
+     */
+    @Test
+    public void testSnapIndex() {
+        System.out.println("setSnapIndex");
+        
+        // Edges of many objects, the nearest one is found by binary search
+        SnapIndex index = new SnapIndex( 5 );
+        for( int i = 0 ; i < 20000 ; i++ ) {
+            index.addEdges( new Rectangle( 1000 + 7 * i, 1000 + 11 * i, 3, 3 ) );
+        }
+        index.addVerticalLine( 203 );
+        index.addHorizontalLine( 98 );
+        assertEquals( 203, index.snapX( 200 ) );
+        assertEquals( 209, index.snapX( 209 ) );
+        assertEquals( 1007, index.snapX( 1006 ) );
+        assertEquals( 1014, index.snapY( 1013 ) );
+        assertEquals( 98, index.snapY( 101 ) );
+        
+        // The grid snaps when no line is closer
+        index.setGridSpacing( 50 );
+        assertEquals( 250, index.snapX( 247 ) );
+        assertEquals( 203, index.snapX( 204 ) );
+        
+        // Moving snaps the edge closest to a line
+        assertEquals( 2, index.snapOffsetX( 206, 248 ) );
+        assertEquals( 0, index.snapOffsetX( 210, 240 ) );
+        
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setSnapIndex( index );
+        
+        // The dragged corner snaps, the press point too for a new selection
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 148, 152 );
+        dispatch( c, MouseEvent.MOUSE_DRAGGED, 202, 320 );
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 202, 348 );
+        assertEquals( new Rectangle( 150, 150, 53, 200 ), sel.getBounds() );
+        
+        // Moving snaps, and follows the pointer again once out of range
+        sel.setBounds( new Rectangle( 10, 10, 30, 30 ) );
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 20, 20 );
+        dispatch( c, MouseEvent.MOUSE_DRAGGED, 14, 20 );
+        assertEquals( 0, sel.getBounds().x );
+        dispatch( c, MouseEvent.MOUSE_DRAGGED, 40, 20 );
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 40, 20 );
+        assertEquals( 30, sel.getBounds().x );
+        
+        sel.setSnapIndex( null );
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 148, 152 );
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 202, 348 );
+        assertEquals( new Rectangle( 148, 152, 54, 196 ), sel.getBounds() );
+    }
+    
+    /**
+     * Test of setKeyBindingsEnabled method, of class SwingSelection.
+     * Tests that a burst of key presses is applied once per frame
+     */
+    @Test
+    public void testKeyBindings() throws Exception {
+        System.out.println("setKeyBindingsEnabled");
+        
+        final JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 100, 100, 50, 50 ) );
+        sel.setKeyBindingsEnabled( true );
+        
+        final List<SelectionEvent> events = new ArrayList<>();
+        sel.setSelectionEventExecutor( new Executor() {
+            @Override
+            public void execute( Runnable r ) {
+                r.run();
+            }
+        });
+        sel.addSelectionListener( new SelectionListener() {
+            @Override
+            public void selectionStarted( SelectionEvent e ) {
+                events.add( e );
+            }
+            @Override
+            public void selectionChanging( SelectionEvent e ) {
+                events.add( e );
+            }
+            @Override
+            public void selectionCommitted( SelectionEvent e ) {
+                events.add( e );
+            }
+        });
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                for( int i = 0 ; i < 20 ; i++ ) {
+                    pressKey( c, KeyEvent.VK_RIGHT, 0 );
+                }
+                pressKey( c, KeyEvent.VK_UP, 0 );
+                pressKey( c, KeyEvent.VK_DOWN, InputEvent.SHIFT_DOWN_MASK );
+                pressKey( c, KeyEvent.VK_LEFT, InputEvent.ALT_DOWN_MASK );
+                pressKey( c, KeyEvent.VK_LEFT, InputEvent.ALT_DOWN_MASK );
+                
+                // Nothing is applied until the next frame
+                assertEquals( new Rectangle( 100, 100, 50, 50 ), sel.getBounds() );
+                
+                // The burst is applied on the first frame. Frames are run
+                // here with their own times, so the timer can't run one in
+                // between.
+                long t = System.nanoTime();
+                FrameScheduler.getShared().runFrame( t );
+                assertEquals( new Rectangle( 118, 99, 52, 51 ), sel.getBounds() );
+                
+                // A frame without key presses doesn't end the burst
+                FrameScheduler.getShared().runFrame( t + 16000000L );
+                assertEquals( 2, events.size() );
+                
+                // Releasing the key ends it on the next frame
+                releaseKey( c, KeyEvent.VK_LEFT, InputEvent.ALT_DOWN_MASK );
+                FrameScheduler.getShared().runFrame( t + 32000000L );
+            }
+        });
+        
+        // One started, changing and committed event for the whole burst
+        assertEquals( 3, events.size() );
+        assertEquals( SelectionEvent.SELECTION_COMMITTED, events.get( 2 ).getType() );
+        
+        sel.setKeyBindingsEnabled( false );
+        assertNull( c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( KeyEvent.VK_RIGHT, 0 ) ) );
+    }
+    
+    /**
+     * Test of setKeyBindingsEnabled method, of class SwingSelection.
+     * Tests that a held key repeating slower than the frames is committed as
+     * one change, ended by the release or by the idle time
+     */
+    @Test
+    public void testKeyRepeat() throws Exception {
+        System.out.println("setKeyBindingsEnabled repeat");
+        
+        final JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 100, 100, 50, 50 ) );
+        sel.setHistory( new SelectionHistory( 1024 ), 0 );
+        sel.setKeyBindingsEnabled( true );
+        
+        final int[] committed = new int[ 1 ];
+        sel.setSelectionEventExecutor( new Executor() {
+            @Override
+            public void execute( Runnable r ) {
+                r.run();
+            }
+        });
+        sel.addSelectionListener( new SelectionListener() {
+            @Override
+            public void selectionStarted( SelectionEvent e ) {
+            }
+            @Override
+            public void selectionChanging( SelectionEvent e ) {
+            }
+            @Override
+            public void selectionCommitted( SelectionEvent e ) {
+                committed[ 0 ]++;
+            }
+        });
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                
+                // Ten presses 35 ms apart, frames every 16 ms
+                long t = System.nanoTime();
+                int presses = 0;
+                for( long ms = 0 ; ms < 350 ; ms += 16 ) {
+                    while( presses < 10 && presses * 35 <= ms ) {
+                        pressKey( c, KeyEvent.VK_RIGHT, 0 );
+                        presses++;
+                    }
+                    FrameScheduler.getShared().runFrame( t + ms * 1000000L );
+                }
+                assertEquals( 0, committed[ 0 ] );
+                releaseKey( c, KeyEvent.VK_RIGHT, 0 );
+                FrameScheduler.getShared().runFrame( t + 352000000L );
+                
+                assertEquals( 1, committed[ 0 ] );
+                assertEquals( new Rectangle( 110, 100, 50, 50 ), sel.getBounds() );
+                assertTrue( sel.undo() );
+                assertEquals( new Rectangle( 100, 100, 50, 50 ), sel.getBounds() );
+                assertFalse( sel.undo() );
+                
+                // Without a release the burst ends after the idle time
+                committed[ 0 ] = 0;
+                t = System.nanoTime();
+                pressKey( c, KeyEvent.VK_DOWN, 0 );
+                FrameScheduler.getShared().runFrame( t );
+                FrameScheduler.getShared().runFrame( t + SwingSelection.KEY_IDLE_NANOS - 1 );
+                assertEquals( 0, committed[ 0 ] );
+                FrameScheduler.getShared().runFrame( t + SwingSelection.KEY_IDLE_NANOS );
+                assertEquals( 1, committed[ 0 ] );
+                assertEquals( new Rectangle( 100, 101, 50, 50 ), sel.getBounds() );
+                
+                sel.dispose();
+            }
+        });
+    }
+    
+    /**
+     * Test of setKeyBindingsEnabled method, of class SwingSelection.
+     * Tests that selections on the same Container share the keys, and that
+     * the keys keep working for the others when one is disposed
+     */
+    @Test
+    public void testKeyBindingsShared() throws Exception {
+        System.out.println("setKeyBindingsEnabled shared");
+        
+        final JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                SwingSelection first = new SwingSelection( c );
+                first.setBounds( new Rectangle( 100, 100, 50, 50 ) );
+                first.setKeyBindingsEnabled( true );
+                SwingSelection second = new SwingSelection( c );
+                second.setBounds( new Rectangle( 300, 100, 50, 50 ) );
+                second.setKeyBindingsEnabled( true );
+                
+                // The selection enabled last gets the keys
+                long t = System.nanoTime();
+                pressKey( c, KeyEvent.VK_RIGHT, 0 );
+                releaseKey( c, KeyEvent.VK_RIGHT, 0 );
+                FrameScheduler.getShared().runFrame( t );
+                assertEquals( new Rectangle( 100, 100, 50, 50 ), first.getBounds() );
+                assertEquals( new Rectangle( 301, 100, 50, 50 ), second.getBounds() );
+                
+                // The keys go back to the first when the second is disposed
+                second.dispose();
+                pressKey( c, KeyEvent.VK_DOWN, 0 );
+                releaseKey( c, KeyEvent.VK_DOWN, 0 );
+                FrameScheduler.getShared().runFrame( t + 16000000L );
+                assertEquals( new Rectangle( 100, 101, 50, 50 ), first.getBounds() );
+                
+                // Bindings are removed with the last selection
+                first.setKeyBindingsEnabled( false );
+                assertNull( c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( KeyEvent.VK_DOWN, 0 ) ) );
+                first.dispose();
+            }
+        });
+    }
+    
+    /**
+     * Test of animateBounds method, of class SwingSelection.
+     * Tests that many selections animate from the shared scheduler and end
+     * exactly at their targets
+     */
+    @Test
+    public void testAnimateBounds() throws Exception {
+        System.out.println("animateBounds");
+        
+        final JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final SwingSelection[] sels = new SwingSelection[ 100 ];
+        final List<SelectionEvent> events = new ArrayList<>();
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                for( int i = 0 ; i < sels.length ; i++ ) {
+                    sels[ i ] = new SwingSelection( c );
+                    sels[ i ].setBounds( new Rectangle( i, i, 10, 10 ) );
+                    sels[ i ].setMarchingAnts( i % 2 == 0 );
+                }
+                sels[ 0 ].setSelectionEventExecutor( new Executor() {
+                    @Override
+                    public void execute( Runnable r ) {
+                        r.run();
+                    }
+                });
+                sels[ 0 ].addSelectionListener( new SelectionListener() {
+                    @Override
+                    public void selectionStarted( SelectionEvent e ) {
+                        events.add( e );
+                    }
+                    @Override
+                    public void selectionChanging( SelectionEvent e ) {
+                        events.add( e );
+                    }
+                    @Override
+                    public void selectionCommitted( SelectionEvent e ) {
+                        events.add( e );
+                    }
+                });
+                for( int i = 0 ; i < sels.length ; i++ ) {
+                    sels[ i ].animateBounds( new Rectangle( 300 + i, 200, 101, 57 ), 100 );
+                    assertTrue( sels[ i ].isAnimating() );
+                }
+                long started = System.nanoTime();
+                
+                // Frames are run here with chosen times, so the timer can't
+                // run one in between
+                FrameScheduler.getShared().runFrame( started + 50000000L );
+                for( int i = 0 ; i < sels.length ; i++ ) {
+                    assertTrue( sels[ i ].isAnimating() );
+                }
+                FrameScheduler.getShared().runFrame( started + 100000000L );
+                
+                for( int i = 0 ; i < sels.length ; i++ ) {
+                    assertFalse( sels[ i ].isAnimating() );
+                    assertEquals( new Rectangle( 300 + i, 200, 101, 57 ), sels[ i ].getBounds() );
+                    assertEquals( i % 2 == 0, sels[ i ].isMarchingAnts() );
+                    sels[ i ].setMarchingAnts( false );
+                }
+                
+                // Setting the bounds stops an animation where it is
+                sels[ 1 ].animateBounds( new Rectangle( 0, 0, 10, 10 ), 10000 );
+                sels[ 1 ].setBounds( new Rectangle( 5, 5, 20, 20 ) );
+                assertFalse( sels[ 1 ].isAnimating() );
+                assertEquals( new Rectangle( 5, 5, 20, 20 ), sels[ 1 ].getBounds() );
+            }
+        });
+        
+        // Started, changing after the first frame and committed at the end
+        assertEquals( 3, events.size() );
+        assertEquals( SelectionEvent.SELECTION_STARTED, events.get( 0 ).getType() );
+        assertEquals( SelectionEvent.SELECTION_CHANGING, events.get( 1 ).getType() );
+        assertEquals( SelectionEvent.SELECTION_COMMITTED, events.get( 2 ).getType() );
+        assertEquals( 300, events.get( 2 ).getX() );
+        assertEquals( 101, events.get( 2 ).getWidth() );
+        
+        // Setting the bounds during an animation commits once
+        events.clear();
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                sels[ 0 ].animateBounds( new Rectangle( 0, 0, 10, 10 ), 10000 );
+                sels[ 0 ].setBounds( new Rectangle( 5, 5, 20, 20 ) );
+            }
+        });
+        assertEquals( 2, events.size() );
+        assertEquals( SelectionEvent.SELECTION_STARTED, events.get( 0 ).getType() );
+        assertEquals( SelectionEvent.SELECTION_COMMITTED, events.get( 1 ).getType() );
+        assertEquals( 5, events.get( 1 ).getX() );
+    }
+    
+    /**
+     * Test of setShape method, of class SwingSelection.
+     * Tests containment of an ellipse and of a lasso drawn with the mouse
+     */
+    @Test
+    public void testShapes() {
+        System.out.println("setShape");
+        
+        // Mouse events go to every selection on a Container, so this test
+        // has its own
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 100, 100, 200, 100 ) );
+        sel.setShape( SwingSelection.SHAPE_ELLIPSE );
+        assertEquals( SwingSelection.SHAPE_ELLIPSE, sel.getShape() );
+        assertTrue( sel.contains( 100, 50 ) );
+        assertTrue( sel.contains( 0, 50 ) );
+        assertFalse( sel.contains( 5, 5 ) );
+        assertFalse( sel.contains( 195, 95 ) );
+        
+        // Drag a triangle
+        sel.setShape( SwingSelection.SHAPE_LASSO );
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 400, 100 );
+        for( int i = 1 ; i <= 100 ; i++ ) {
+            dispatch( c, MouseEvent.MOUSE_DRAGGED, 400 + i, 100 + i );
+        }
+        for( int i = 1 ; i <= 100 ; i++ ) {
+            dispatch( c, MouseEvent.MOUSE_DRAGGED, 500 - 2 * i, 200 );
+        }
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 300, 200 );
+        
+        assertEquals( SwingSelection.SHAPE_LASSO, sel.getShape() );
+        // The corners may be simplified away by up to the lasso tolerance
+        Rectangle b = sel.getBounds();
+        assertEquals( 300, b.x );
+        assertEquals( 100, b.y );
+        assertTrue( b.width >= 196 && b.height >= 96 );
+        assertTrue( sel.getOutline().getPointCount() <= 4 );
+        assertTrue( sel.contains( 100, 90 ) );
+        assertFalse( sel.contains( 20, 10 ) );
+        
+        sel.setPolygon( new int[] { 0, 100, 0 }, new int[] { 0, 0, 100 }, 3 );
+        assertEquals( SwingSelection.SHAPE_POLYGON, sel.getShape() );
+        assertEquals( new Rectangle( 0, 0, 100, 100 ), sel.getBounds() );
+        assertTrue( sel.contains( 10, 10 ) );
+        assertFalse( sel.contains( 90, 90 ) );
+        
+        sel.setShape( SwingSelection.SHAPE_RECTANGLE );
+        assertTrue( sel.contains( 90, 90 ) );
+        assertNull( sel.getOutline() );
+    }
+    
+    /**
+     * Test of getSpans and fillMask methods, of class SwingSelection.
+     * Tests that the spans and masks cover the same pixels as contains, for
+     * rectangles, ellipses and polygons
+     */
+    @Test
+    public void testSpans() {
+        System.out.println("getSpans");
+        
+        final int[] mask = new int[ 300 * 200 ];
+        final BitSet bits = new BitSet();
+        final int[] spanPixels = new int[ 1 ];
+        
+        for( int shape = 0 ; shape < 3 ; shape++ ) {
+            for( int size = 1 ; size < 150 ; size += 37 ) {
+                
+                testSel.setBounds( new Rectangle( 40, 30, size + 20, size ) );
+                if( shape == 1 ) {
+                    testSel.setShape( SwingSelection.SHAPE_ELLIPSE );
+                } else if( shape == 2 ) {
+                    testSel.setPolygon( new int[] { 40, 60 + size, 40 + size / 2, 40 },
+                            new int[] { 30, 30, 30 + size, 30 + size / 3 }, 4 );
+                } else {
+                    testSel.setShape( SwingSelection.SHAPE_RECTANGLE );
+                }
+                
+                Arrays.fill( mask, 0 );
+                bits.clear();
+                spanPixels[ 0 ] = 0;
+                
+                // The mask area cuts off the left of the selection
+                testSel.fillMask( mask, 50, 0, 300, 200, 7, true );
+                testSel.fillMask( bits, 50, 0, 300, 200 );
+                testSel.getSpans( new SpanConsumer() {
+                    @Override
+                    public void span( int y, int x0, int x1 ) {
+                        spanPixels[ 0 ] += x1 - x0;
+                    }
+                });
+                
+                Rectangle b = testSel.getBounds();
+                int inside = 0;
+                for( int y = 0 ; y < 200 ; y++ ) {
+                    for( int x = 0 ; x < 350 ; x++ ) {
+                        boolean in = testSel.contains( x - b.x, y - b.y );
+                        if( in ) {
+                            inside++;
+                        }
+                        if( x >= 50 ) {
+                            assertEquals( in ? 7 : 0, mask[ y * 300 + x - 50 ] );
+                            assertEquals( in, bits.get( y * 300 + x - 50 ) );
+                        }
+                    }
+                }
+                assertEquals( inside, spanPixels[ 0 ] );
+            }
+        }
+        
+        // Areas with more pixels than a BitSet can index are rejected
+        try {
+            testSel.fillMask( bits, 0, 0, 65536, 65536 );
+            fail( "Accepted an area of 2^32 pixels" );
+        } catch( IllegalArgumentException ex ) {
+            // Expected
+        }
+    }
+    
+    /**
+     * Test of setRegion and getRegion methods, of class SwingSelection.
+     * Tests adding with shift-drag and subtracting with alt-drag
+     */
+    @Test
+    public void testRegion() {
+        System.out.println("setRegion");
+        
+        // Mouse events go to every selection on a Container, so this test
+        // has its own
+        Container c = new Container();
+        c.setSize( C_WIDTH, C_HEIGHT );
+        SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 100, 100, 100, 100 ) );
+        
+        // Add a rectangle to the right, then cut a hole in the middle
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 150, 150, InputEvent.SHIFT_DOWN_MASK );
+        dispatch( c, MouseEvent.MOUSE_DRAGGED, 300, 180, InputEvent.SHIFT_DOWN_MASK );
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 300, 180, InputEvent.SHIFT_DOWN_MASK );
+        dispatch( c, MouseEvent.MOUSE_PRESSED, 120, 120, InputEvent.ALT_DOWN_MASK );
+        dispatch( c, MouseEvent.MOUSE_RELEASED, 140, 140, InputEvent.ALT_DOWN_MASK );
+        
+        assertEquals( SwingSelection.SHAPE_REGION, sel.getShape() );
+        assertEquals( new Rectangle( 100, 100, 200, 100 ), sel.getBounds() );
+        
+        SelectionRegion r = sel.getRegion();
+        assertTrue( r.contains( 110, 110 ) );
+        assertFalse( r.contains( 130, 130 ) );
+        assertTrue( r.contains( 250, 160 ) );
+        assertFalse( r.contains( 250, 190 ) );
+        assertTrue( sel.contains( 150, 60 ) );
+        assertFalse( sel.contains( 30, 30 ) );
+        
+        // Resizing scales the region
+        sel.setBounds( new Rectangle( 0, 0, 400, 200 ) );
+        assertTrue( sel.contains( 300, 120 ) );
+        assertFalse( sel.contains( 300, 180 ) );
+        assertFalse( sel.contains( 60, 60 ) );
+        
+        // A single rectangle is a rectangle again
+        sel.setRegion( new SelectionRegion( 10, 10, 20, 20 ) );
+        assertEquals( SwingSelection.SHAPE_RECTANGLE, sel.getShape() );
+        assertEquals( new Rectangle( 10, 10, 20, 20 ), sel.getBounds() );
+    }
+    
+    /**
+     * Test of the dirty regions repainted when the selection changes, of
+     * class SwingSelection.
+     */
+    @Test
+    public void testRepaintRegion() throws Exception {
+        System.out.println("repaintRegion");
+        
+        final JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final List<Rectangle> rects = new ArrayList<>();
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                RepaintManager old = RepaintManager.currentManager( c );
+                RepaintManager.setCurrentManager( new RepaintManager() {
+                    @Override
+                    public void addDirtyRegion( JComponent jc, int x, int y, int w, int h ) {
+                        if( jc == c ) {
+                            rects.add( new Rectangle( x, y, w, h ) );
+                        }
+                    }
+                });
+                try {
+                    SwingSelection sel = new SwingSelection( c );
+                    int m = sel.getHandleSize();
+                    sel.setBounds( new Rectangle( 100, 100, 200, 100 ) );
+                    
+                    // Union of the old and new bounds, with room for handles
+                    rects.clear();
+                    sel.setBounds( new Rectangle( 110, 100, 200, 100 ) );
+                    assertEquals( Arrays.asList( new Rectangle( 100 - m, 100 - m, 210 + 2 * m, 100 + 2 * m ) ), rects );
+                    
+                    sel.dispose();
+                } finally {
+                    RepaintManager.setCurrentManager( old );
+                }
+            }
+        });
+    }
+    
+    /**
+     * Test of setBorderOnlyRepaint method, of class SwingSelection. The
+     * Container is showing, so that moving a component repaints its area.
+     */
+    @Test
+    public void testBorderOnlyRepaint() throws Exception {
+        System.out.println("borderOnlyRepaint");
+        
+        final List<Rectangle> painted = new ArrayList<>();
+        final JPanel c = new JPanel( null ) {
+            @Override
+            public void paintImmediately( int x, int y, int w, int h ) {
+                painted.add( new Rectangle( x, y, w, h ) );
+                super.paintImmediately( x, y, w, h );
+            }
+        };
+        c.setSize( C_WIDTH, C_HEIGHT );
+        final List<Rectangle> queued = new ArrayList<>();
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                RepaintManager old = RepaintManager.currentManager( c );
+                RepaintManager.setCurrentManager( new RepaintManager() {
+                    @Override
+                    public void addDirtyRegion( JComponent jc, int x, int y, int w, int h ) {
+                        // Areas of the Container and its children
+                        if( jc == c ) {
+                            queued.add( new Rectangle( x, y, w, h ) );
+                        } else if( jc.getParent() == c ) {
+                            queued.add( new Rectangle( jc.getX() + x, jc.getY() + y, w, h ) );
+                        }
+                    }
+                });
+                try {
+                    SwingSelection sel = new SwingSelection( c );
+                    sel.setBounds( new Rectangle( 100, 100, 400, 300 ) );
+                    sel.setBorderOnlyRepaint( true );
+                    assertTrue( sel.isBorderOnlyRepaint() );
+                    
+                    // The lightweight peers make the Container showing
+                    // without a window
+                    c.addNotify();
+                    assertTrue( c.isShowing() );
+                    
+                    // Inside the selection all along the drag
+                    Rectangle inside = new Rectangle( 150, 130, 340, 260 );
+                    
+                    queued.clear();
+                    painted.clear();
+                    dispatch( c, MouseEvent.MOUSE_PRESSED, 300, 250 );
+                    dispatch( c, MouseEvent.MOUSE_DRAGGED, 320, 260 );
+                    dispatch( c, MouseEvent.MOUSE_RELEASED, 340, 270 );
+                    assertEquals( new Rectangle( 140, 120, 400, 300 ), sel.getBounds() );
+                    
+                    for( Rectangle r : queued ) {
+                        assertFalse( r.toString(), r.intersects( inside ) );
+                    }
+                    // Four strips for each of the three bounds
+                    assertEquals( 16, painted.size() );
+                    for( Rectangle r : painted ) {
+                        assertFalse( r.toString(), r.intersects( inside ) );
+                    }
+                    
+                    // Without border only repaint, moving the component
+                    // repaints the inside
+                    sel.setBorderOnlyRepaint( false );
+                    queued.clear();
+                    painted.clear();
+                    sel.setBounds( new Rectangle( 100, 100, 400, 300 ) );
+                    assertTrue( painted.isEmpty() );
+                    boolean repaintedInside = false;
+                    for( Rectangle r : queued ) {
+                        repaintedInside |= r.contains( inside );
+                    }
+                    assertTrue( repaintedInside );
+                    
+                    sel.dispose();
+                } finally {
+                    RepaintManager.setCurrentManager( old );
+                }
+            }
+        });
+    }
+    
+    /**
+     * Test of setAutoScroll method, of class SwingSelection.
+     */
+    @Test
+    public void testAutoScroll() throws Exception {
+        System.out.println("autoScroll");
+        
+        final JPanel c = new JPanel( null );
+        final JViewport viewport = new JViewport();
+        final SwingSelection[] sel = new SwingSelection[ 1 ];
+        
+        SwingUtilities.invokeAndWait( new Runnable() {
+            @Override
+            public void run() {
+                c.setPreferredSize( new Dimension( 2000, 2000 ) );
+                c.setSize( 2000, 2000 );
+                viewport.setView( c );
+                viewport.setSize( 200, 200 );
+                sel[ 0 ] = new SwingSelection( c );
+                assertFalse( sel[ 0 ].isAutoScroll() );
+                sel[ 0 ].setAutoScroll( true );
+                assertTrue( sel[ 0 ].isAutoScroll() );
+                
+                // Dragging inside the viewport doesn't scroll
+                dispatch( c, MouseEvent.MOUSE_PRESSED, 100, 100 );
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 150, 150 );
+                assertEquals( new Point( 0, 0 ), viewport.getViewPosition() );
+                
+                // Past the right edge, 51 pixels past the last visible
+                // column. Frames are run here with chosen times, so the timer
+                // can't run one in between.
+                dispatch( c, MouseEvent.MOUSE_DRAGGED, 250, 150 );
+                FrameScheduler frames = FrameScheduler.getShared();
+                long start = System.nanoTime();
+                frames.runFrame( start );
+                assertEquals( new Point( 0, 0 ), viewport.getViewPosition() );
+                
+                // A tenth of a second at the speed for 51 pixels
+                frames.runFrame( start + 100000000L );
+                int x = SwingSelection.AUTO_SCROLL_RATE * 51 / 10;
+                assertEquals( new Point( x, 0 ), viewport.getViewPosition() );
+                // The selection follows the pointer as the view scrolls
+                assertEquals( 150 + x, sel[ 0 ].getBounds().width );
+                
+                // The pointer moves with the view and stays 51 pixels past
+                // the edge. Half steps are carried to the next frame.
+                frames.runFrame( start + 150000000L );
+                assertEquals( x + SwingSelection.AUTO_SCROLL_RATE * 51 / 20, viewport.getViewPosition().x );
+                frames.runFrame( start + 200000000L );
+                x = SwingSelection.AUTO_SCROLL_RATE * 51 / 5;
+                assertEquals( new Point( x, 0 ), viewport.getViewPosition() );
+                assertEquals( 150 + x, sel[ 0 ].getBounds().width );
+                
+                // Scrolling stops on release
+                dispatch( c, MouseEvent.MOUSE_RELEASED, 250 + x, 150 );
+                frames.runFrame( start + 300000000L );
+                assertEquals( new Point( x, 0 ), viewport.getViewPosition() );
+                assertEquals( 150 + x, sel[ 0 ].getBounds().width );
+                sel[ 0 ].dispose();
+            }
+        });
+    }
+    
+    /**
+     * Test of painting the handles and the marching ants border from cached
+     * images, of class SwingSelection.
+     */
+    @Test
+    public void testPaintHandles() {
+        System.out.println("paintHandles");
+        
+        final int gray = 0xff808080;
+        BufferedImage img = new BufferedImage( C_WIDTH, C_HEIGHT, BufferedImage.TYPE_INT_RGB );
+        testSel.setHandleSize( 5 );
+        testSel.setBounds( new Rectangle( 10, 20, 100, 50 ) );
+        assertTrue( testSel.isHandlesVisible() );
+        
+        paint( testSel, img, gray );
+        // Corner, edge and middle of the upper left handle
+        assertEquals( 0xff000000, img.getRGB( 10, 20 ) );
+        assertEquals( 0xff000000, img.getRGB( 14, 22 ) );
+        assertEquals( 0xffffffff, img.getRGB( 12, 22 ) );
+        // Lower right and upper middle handles
+        assertEquals( 0xffffffff, img.getRGB( 107, 67 ) );
+        assertEquals( 0xffffffff, img.getRGB( 57 + 2, 22 ) );
+        assertEquals( 0xffffffff, img.getRGB( 12, 42 + 2 ) );
+        assertEquals( gray, img.getRGB( 50, 40 ) );
+        
+        testSel.setHandlesVisible( false );
+        assertFalse( testSel.isHandlesVisible() );
+        paint( testSel, img, gray );
+        assertEquals( 0xff000000, img.getRGB( 10, 20 ) );
+        assertEquals( gray, img.getRGB( 12, 22 ) );
+        
+        // The handle images are rendered once per size and scale
+        SelectionSprites sprites = new SelectionSprites();
+        Graphics2D g = img.createGraphics();
+        BufferedImage handle = sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 );
+        assertSame( handle, sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 ) );
+        assertNotSame( handle, sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 7 ) );
+        g.scale( 2, 2 );
+        BufferedImage scaled = sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 );
+        assertEquals( 10, scaled.getWidth() );
+        assertSame( scaled, sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 ) );
+        g.dispose();
+        
+        // Images aren't shared between device configurations
+        BufferedImage other = new BufferedImage( 10, 10, BufferedImage.TYPE_INT_ARGB );
+        g = other.createGraphics();
+        assertNotSame( handle, sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 ) );
+        g.dispose();
+        g = img.createGraphics();
+        assertSame( handle, sprites.getImage( g, SelectionSprites.STYLE_HANDLE, 5 ) );
+        g.dispose();
+        
+        // Dashes run clockwise along the border, four black and four white
+        MarchingAntsBorder border = new MarchingAntsBorder();
+        for( long time = 0 ; time < 3 ; time++ ) {
+            border.setTime( time * MarchingAntsBorder.STEP_NANOS );
+            int phase = border.getPhase();
+            g = img.createGraphics();
+            g.setColor( new Color( gray ) );
+            g.fillRect( 0, 0, C_WIDTH, C_HEIGHT );
+            border.paintBorder( null, g, 0, 0, 300, 21 );
+            g.dispose();
+            for( int d = 1 ; d < 2 * 299 + 2 * 20 - 1 ; d++ ) {
+                int x, y;
+                if( d < 299 ) {
+                    x = d;
+                    y = 0;
+                } else if( d < 299 + 20 ) {
+                    x = 299;
+                    y = d - 299;
+                } else if( d < 2 * 299 + 20 ) {
+                    x = 299 - ( d - 299 - 20 );
+                    y = 20;
+                } else {
+                    x = 0;
+                    y = 20 - ( d - 2 * 299 - 20 );
+                }
+                int expected = Math.floorMod( d - phase, 8 ) < 4 ? 0xff000000 : 0xffffffff;
+                assertEquals( "at " + d, expected, img.getRGB( x, y ) );
+            }
+        }
+    }
+    
+    /**
+     * Test of dispose method, of class SwingSelection.
+     * Tests that the selection leaves nothing behind in its Container
+     */
+    @Test
+    public void testDispose() {
+        System.out.println("dispose");
+        
+        JPanel c = new JPanel( null );
+        c.setSize( C_WIDTH, C_HEIGHT );
+        int components = c.getComponentCount();
+        int mouseListeners = c.getMouseListeners().length;
+        int motionListeners = c.getMouseMotionListeners().length;
+        int componentListeners = c.getComponentListeners().length;
+        
+        SwingSelection sel = new SwingSelection( c );
+        sel.setBounds( new Rectangle( 10, 10, 100, 100 ) );
+        sel.setBorderOnlyRepaint( true );
+        sel.setKeyBindingsEnabled( true );
+        assertNotNull( c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( KeyEvent.VK_LEFT, 0 ) ) );
+        
+        sel.dispose();
+        assertEquals( components, c.getComponentCount() );
+        assertEquals( mouseListeners, c.getMouseListeners().length );
+        assertEquals( motionListeners, c.getMouseMotionListeners().length );
+        assertEquals( componentListeners, c.getComponentListeners().length );
+        assertNull( c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( KeyEvent.VK_LEFT, 0 ) ) );
+    }
+    
+    /**
+     * Paints a selection over a background, as done by a SelectionLayerUI
+     */
+    private static void paint( SwingSelection sel, BufferedImage img, int background ) {
+        Graphics2D g = img.createGraphics();
+        g.setColor( new Color( background ) );
+        g.fillRect( 0, 0, img.getWidth(), img.getHeight() );
+        sel.paintSelection( g );
+        g.dispose();
+    }
+    
+    /**
+     * Performs the action bound to a key on a component
+     */
+    private static void pressKey( JComponent c, int key, int modifiers ) {
+        Object name = c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( key, modifiers ) );
+        c.getActionMap().get( name ).actionPerformed( new ActionEvent( c, ActionEvent.ACTION_PERFORMED, null ) );
+    }
+    
+    /**
+     * Performs the action bound to the release of a key on a component
+     */
+    private static void releaseKey( JComponent c, int key, int modifiers ) {
+        Object name = c.getInputMap( JComponent.WHEN_FOCUSED ).get( KeyStroke.getKeyStroke( key, modifiers, true ) );
+        c.getActionMap().get( name ).actionPerformed( new ActionEvent( c, ActionEvent.ACTION_PERFORMED, null ) );
+    }
+    
+    /**
+     * Sends a mouse event directly to the mouse listeners of a Container
+     * @param c the Container
+     * @param id the type of mouse event
+     * @param x x-coordinate of the event
+     * @param y y-coordinate of the event
+     */
+    private static void dispatch( Container c, int id, int x, int y ) {
+        dispatch( c, id, x, y, 0 );
+    }
+    
+    /**
+     * Sends a mouse event with modifier keys directly to the mouse listeners
+     * of a Container
+     * @param c the Container
+     * @param id the type of mouse event
+     * @param x x-coordinate of the event
+     * @param y y-coordinate of the event
+     * @param modifiers the extended modifiers of the event
+     */
+    private static void dispatch( Container c, int id, int x, int y, int modifiers ) {
+        
+        // Screen coordinates are given, a showing Container without a window
+        // has no location on screen
+        MouseEvent e = new MouseEvent( c, id, 0L, modifiers, x, y, x, y, 1, false, MouseEvent.BUTTON1 );
+        
+        switch( id ) {
+            case MouseEvent.MOUSE_PRESSED:
+                for( MouseListener l : c.getMouseListeners() ) {
+                    l.mousePressed( e );
+                }
+                break;
+            case MouseEvent.MOUSE_RELEASED:
+                for( MouseListener l : c.getMouseListeners() ) {
+                    l.mouseReleased( e );
+                }
+                break;
+            case MouseEvent.MOUSE_DRAGGED:
+                for( MouseMotionListener l : c.getMouseMotionListeners() ) {
+                    l.mouseDragged( e );
+                }
+                break;
+            default:
+                for( MouseMotionListener l : c.getMouseMotionListeners() ) {
+                    l.mouseMoved( e );
+                }
+                break;
+        }
+    }
+    
 }